@@ -0,0 +1,292 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ *
+ * Generates a '{Enum}Constructors' class for each enum that classes are
+ * marked as implementing (@Implements), in the package of the
+ * implementations:
+ *
+ * register() sets each constant's implementation, implOf() answers it and
+ * create() switches over the constants to plain constructor calls. The
+ * constructor called is the first (in declaration order) whose parameter
+ * types accept the arguments (a null argument being accepted by any type),
+ * as with the reflective search it replaces. No matching constructor gives
+ * null, what a constructor throws is passed on to the factory.
+ *
+ * Only the sources that changed are processed by an incremental build, the
+ * implementations are therefore collected from the whole package (class
+ * files included) rather than from the round.
+ *
+ * The processor is a module of its own (inter-ui-processor), built first
+ * and put on the processor path of inter-ui's compiler configuration. It is
+ * neither a dependency of nor packaged with the library, so it never runs
+ * in the builds of those using it. The generated classes are not marked
+ * @Generated, no processor would claim the annotation.
+ *
+ * @author bschorn
+ */
+@SupportedAnnotationTypes(FactoryProcessor.IMPLEMENTS)
+public class FactoryProcessor extends AbstractProcessor {
+
+    static final String IMPLEMENTS = "org.schorn.ella.ui.Implements";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement annotation = this.processingEnv.getElementUtils().getTypeElement(IMPLEMENTS);
+        if (annotation == null) {
+            return false;
+        }
+        Map<TypeElement, PackageElement> enums = new LinkedHashMap<>();
+        for (Element element : round.getElementsAnnotatedWith(annotation)) {
+            AnnotationMirror mirror = this.implementsOf(element);
+            TypeElement enumType = this.enumType(mirror);
+            PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(element);
+            PackageElement other = enums.putIfAbsent(enumType, packageElement);
+            if (other != null && !other.equals(packageElement)) {
+                this.error(element, "implementations of %s must all be in package %s", enumType, other);
+            }
+        }
+        for (Map.Entry<TypeElement, PackageElement> entry : enums.entrySet()) {
+            if (this.generated.add(entry.getKey().getQualifiedName().toString())) {
+                this.generate(entry.getKey(), entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement enumType, PackageElement packageElement) {
+        List<String> constants = new ArrayList<>();
+        for (Element element : enumType.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.ENUM_CONSTANT) {
+                constants.add(element.getSimpleName().toString());
+            }
+        }
+        Map<String, TypeElement> implementations = new LinkedHashMap<>();
+        TypeElement others = null;
+        List<TypeElement> types = new ArrayList<>();
+        for (Element element : packageElement.getEnclosedElements()) {
+            this.collect(element, types);
+        }
+        for (TypeElement type : types) {
+            AnnotationMirror mirror = this.implementsOf(type);
+            if (mirror == null || !this.enumType(mirror).equals(enumType)) {
+                continue;
+            }
+            List<String> names = this.constants(mirror);
+            if (names.isEmpty()) {
+                if (others != null) {
+                    this.error(type, "%s already implements the other constants of %s", others, enumType);
+                }
+                others = type;
+            }
+            for (String name : names) {
+                if (!constants.contains(name)) {
+                    this.error(type, "%s has no constant %s", enumType, name);
+                } else if (implementations.putIfAbsent(name, type) != null) {
+                    this.error(type, "%s.%s is already implemented by %s", enumType, name, implementations.get(name));
+                }
+            }
+        }
+        Map<String, TypeElement> declared = new LinkedHashMap<>();
+        for (String constant : constants) {
+            if (implementations.containsKey(constant)) {
+                declared.put(constant, implementations.get(constant));
+            }
+        }
+        implementations = declared;
+        String enumName = enumType.getQualifiedName().toString();
+        String className = enumType.getSimpleName() + "Constructors";
+        String packageName = packageElement.getQualifiedName().toString();
+        try (PrintWriter out = new PrintWriter(this.processingEnv.getFiler()
+                .createSourceFile(packageName + "." + className, types.toArray(new Element[types.size()]))
+                .openWriter())) {
+            out.printf("package %s;%n%n", packageName);
+            out.printf("/**%n * Generated by %s from the @Implements classes of %s.%n */%n",
+                    FactoryProcessor.class.getSimpleName(), enumType.getSimpleName());
+            out.printf("final class %s {%n%n", className);
+            out.printf("    private %s() {%n    }%n%n", className);
+
+            out.printf("    static void register() {%n");
+            for (String constant : constants) {
+                TypeElement type = implementations.getOrDefault(constant, others);
+                if (type != null) {
+                    out.printf("        %s.%s.setImpl(%s.class);%n", enumName, constant, type.getQualifiedName());
+                }
+            }
+            out.printf("    }%n%n");
+
+            out.printf("    static Class<?> implOf(%s constant) {%n", enumName);
+            out.printf("        switch (constant) {%n");
+            for (Map.Entry<String, TypeElement> entry : implementations.entrySet()) {
+                out.printf("            case %s:%n                return %s.class;%n",
+                        entry.getKey(), entry.getValue().getQualifiedName());
+            }
+            out.printf("            default:%n                return %s;%n        }%n    }%n%n",
+                    others == null ? "null" : others.getQualifiedName() + ".class");
+
+            Map<TypeElement, String> methods = new LinkedHashMap<>();
+            for (TypeElement type : implementations.values()) {
+                this.methodFor(type, methods);
+            }
+            if (others != null) {
+                this.methodFor(others, methods);
+            }
+            out.printf("    static Object create(%s constant, Object... params) throws Exception {%n", enumName);
+            out.printf("        switch (constant) {%n");
+            for (Map.Entry<String, TypeElement> entry : implementations.entrySet()) {
+                out.printf("            case %s:%n                return %s(params);%n",
+                        entry.getKey(), methods.get(entry.getValue()));
+            }
+            out.printf("            default:%n                return %s;%n        }%n    }%n",
+                    others == null ? "null" : methods.get(others) + "(params)");
+
+            for (Map.Entry<TypeElement, String> entry : methods.entrySet()) {
+                this.writeMethod(out, entry.getKey(), entry.getValue());
+            }
+            out.printf("}%n");
+        } catch (IOException ex) {
+            this.error(enumType, "%s could not be generated: %s", className, ex.getMessage());
+        }
+    }
+
+    private void methodFor(TypeElement type, Map<TypeElement, String> methods) {
+        if (!methods.containsKey(type)) {
+            String name = "new" + type.getSimpleName();
+            while (methods.containsValue(name)) {
+                name = name + "_";
+            }
+            methods.put(type, name);
+        }
+    }
+
+    private void writeMethod(PrintWriter out, TypeElement type, String method) {
+        out.printf("%n    static private Object %s(Object[] params) throws Exception {%n", method);
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.CONSTRUCTOR || element.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+            List<String> casts = new ArrayList<>();
+            StringBuilder condition = new StringBuilder("params.length == " + parameters.size());
+            for (int i = 0; i < parameters.size(); i++) {
+                TypeMirror parameterType = parameters.get(i).asType();
+                if (parameterType.getKind().isPrimitive()) {
+                    casts = null;
+                    break;
+                }
+                String erasure = this.processingEnv.getTypeUtils().erasure(parameterType).toString();
+                condition.append(String.format("%n                && (params[%d] == null || params[%d] instanceof %s)",
+                        i, i, erasure));
+                casts.add(String.format("(%s) params[%d]", erasure, i));
+            }
+            if (casts != null) {
+                out.printf("        if (%s) {%n            return new %s(%s);%n        }%n",
+                        condition, type.getQualifiedName(), String.join(", ", casts));
+            }
+        }
+        out.printf("        return null;%n    }%n");
+    }
+
+    private void collect(Element element, List<TypeElement> types) {
+        if (element instanceof TypeElement) {
+            types.add((TypeElement) element);
+            for (Element enclosed : element.getEnclosedElements()) {
+                this.collect(enclosed, types);
+            }
+        }
+    }
+
+    private AnnotationMirror implementsOf(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(IMPLEMENTS)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private TypeElement enumType(AnnotationMirror mirror) {
+        AnnotationValue value = this.value(mirror, "type");
+        return (TypeElement) ((DeclaredType) value.getValue()).asElement();
+    }
+
+    private List<String> constants(AnnotationMirror mirror) {
+        List<String> constants = new ArrayList<>();
+        AnnotationValue value = this.value(mirror, "value");
+        if (value != null) {
+            for (Object constant : (List<?>) value.getValue()) {
+                constants.add((String) ((AnnotationValue) constant).getValue());
+            }
+        }
+        return constants;
+    }
+
+    private AnnotationValue value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void error(Element element, String format, Object... args) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+    }
+}
@@ -23,8 +23,9 @@
  */
 package org.schorn.ella.ui;
 
+import java.util.Map;
 import java.util.Properties;
-import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 import org.schorn.ella.ui.util.ToString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +59,11 @@ public interface ClassLocator {
         static private final Logger LGR = LoggerFactory.getLogger(ClassLocator.class);
 
         private final Properties properties;
+        /*
+        implementation classes by the interface name asked for, so each name
+        is resolved (and its class loaded) once
+         */
+        private final Map<String, Class<?>> implClasses = new ConcurrentHashMap<>();
 
         private Impl(Properties properties) {
             this.properties = properties;
@@ -70,27 +76,29 @@ public interface ClassLocator {
          * @throws Exception
          */
         protected String getImplClassName(String interfaceName) throws Exception {
-            String[] interfaceNameParts = interfaceName.split("\\.");
-            int length = interfaceNameParts.length;
-            for (int i = 0; i < length; ++i) {
-                StringJoiner joiner = new StringJoiner(".", "", "");
-                for (int j = i; j < length; ++j) {
-                    joiner.add(interfaceNameParts[j]);
-                }
-                String implName = this.properties.getProperty(joiner.toString());
+            // the full name first, then each shorter suffix after a '.'
+            int start = 0;
+            do {
+                String implName = this.properties.getProperty(interfaceName.substring(start));
                 if (implName != null) {
                     return implName;
                 }
-            }
+                start = interfaceName.indexOf('.', start) + 1;
+            } while (start > 0);
             throw new Exception(String.format("%s.getImplClassName() - properties missing '%s' entry with class path of implementation.",
                     ClassLocator.class.getSimpleName(), interfaceName));
         }
 
         @Override
         public Class<?> getImplClass(String interfaceName) throws Exception {
+            Class<?> cached = this.implClasses.get(interfaceName);
+            if (cached != null) {
+                return cached;
+            }
             String implName = getImplClassName(interfaceName);
             try {
                 Class<?> implClass = Class.forName(implName);
+                this.implClasses.put(interfaceName, implClass);
                 return implClass;
             } catch (Exception ex) {
                 String msg = String.format(
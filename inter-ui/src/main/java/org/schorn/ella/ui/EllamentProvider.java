@@ -24,9 +24,10 @@
 package org.schorn.ella.ui;
 
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.util.Iterator;
 import java.util.Properties;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import org.schorn.ella.ui.html.CSS;
 import org.schorn.ella.ui.html.HTML;
 import org.schorn.ella.ui.layout.Frame;
@@ -73,8 +74,9 @@ public interface EllamentProvider {
     public Style.Reset getStyleSheetReset();
 
     /**
-     * Gets a new instance of the UIProvider's implementation as found by the
-     * ClassLocator.
+     * Gets the instance of the UIProvider's implementation, the first one
+     * registered with the ServiceLoader or else as found by the ClassLocator
+     * from ellament.properties.
      *
      * @return
      */
@@ -88,16 +90,14 @@ public interface EllamentProvider {
     static class Support implements ClassLocator {
 
         static final Support SUPPORT = new Support();
-        static final EllamentProvider INSTANCE = SUPPORT.newInstance(EllamentProvider.class);
+        static final EllamentProvider INSTANCE = SUPPORT.provider();
 
         private final ClassLocator classLocator;
 
         private Support() {
             Properties properties = new Properties();
-            try {
-                URL urlObject = getClass().getClassLoader().getResource("ellament.properties").toURI().toURL();
-                URLConnection urlConnection = urlObject.openConnection();
-                try (InputStream inputStream = urlConnection.getInputStream()) {
+            try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("ellament.properties")) {
+                if (inputStream != null) {
                     properties.load(inputStream);
                 }
             } catch (Exception ex) {
@@ -106,6 +106,19 @@ public interface EllamentProvider {
             this.classLocator = ClassLocator.create(properties);
         }
 
+        private EllamentProvider provider() {
+            try {
+                Iterator<EllamentProvider> services = ServiceLoader.load(EllamentProvider.class,
+                        getClass().getClassLoader()).iterator();
+                if (services.hasNext()) {
+                    return services.next();
+                }
+            } catch (ServiceConfigurationError ex) {
+                System.err.println(ToString.stackTrace(ex));
+            }
+            return this.newInstance(EllamentProvider.class);
+        }
+
         @Override
         public Class<?> getImplClass(String interfaceName) throws Exception {
             return this.classLocator.getImplClass(interfaceName);
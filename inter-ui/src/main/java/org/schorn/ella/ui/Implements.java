@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ *
+ * Marks the class implementing constants of one of the factory enums (HTML,
+ * CSS, InputWidgets, OutputWidgets, ControlWidgets). The factory processor
+ * generates, next to the implementations, a '{Enum}Constructors' class that
+ * registers them and creates them with a switch over the constants and
+ * plain constructor calls.
+ *
+ * Kept in the class files so that an incremental build, which only
+ * processes the sources that changed, still sees every implementation.
+ *
+ * @author bschorn
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Implements {
+
+    /**
+     * @return the enum whose constants are implemented
+     */
+    Class<? extends Enum<?>> type();
+
+    /**
+     * @return the names of the constants implemented, none for every constant
+     * no other class implements
+     */
+    String[] value() default {};
+}
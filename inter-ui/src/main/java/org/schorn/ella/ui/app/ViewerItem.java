@@ -24,8 +24,8 @@
 package org.schorn.ella.ui.app;
 
 import java.util.Arrays;
-import java.util.UUID;
 import java.util.stream.Collectors;
+import org.schorn.ella.ui.layout.IdStrategy;
 import org.schorn.ella.ui.layout.Item;
 import org.schorn.ella.ui.layout.Role;
 import org.schorn.ella.ui.support.SupportItem;
@@ -43,7 +43,7 @@ public abstract class ViewerItem implements Item {
     protected final SupportItem support = new SupportItem(LGR);
 
     public ViewerItem(String id, String name, String label, boolean visible) {
-        support.properties().put(Item.Properties.ID, UUID.randomUUID().toString());
+        support.properties().put(Item.Properties.ID, IdStrategy.current().newId(this.type().className(), name));
         support.properties().put(Item.Properties.NAME, name);
         support.properties().put(Item.Properties.LABEL, label);
         support.properties().put(Item.Properties.VISIBLE, Boolean.TRUE);
@@ -23,8 +23,7 @@
  */
 package org.schorn.ella.ui.html;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -88,54 +87,11 @@ public enum CSS {
         FACTORY = EllamentProvider.provider().getCSSFactory();
     }
 
+    /**
+     * The factory resolves each implementation's constructors once.
+     */
     static private <T> T createInstance(CSS css, Object... params) throws Exception {
-        Class<?> classFor = css.implOf;
-        if (classFor == null) {
-            /*
-            LGR.error("{}.newInstance() - there is no implementation specified for interface {}",
-            CSS.class.getSimpleName(), css.interfaceOf.getSimpleName());
-             */
-            return null;
-        }
-        Constructor<?> constructor = null;
-        T newInstance = null;
-        for (Constructor<?> ctr : classFor.getDeclaredConstructors()) {
-            if (params.length == ctr.getParameterCount()) {
-                constructor = ctr;
-                for (int i = 0; i < params.length; i++) {
-                    Class<?> paramClass = ctr.getParameterTypes()[i];
-                    Object paramObj = params[i];
-                    if (paramObj == null || paramClass.isInstance(paramObj)) {
-                        continue;
-                    }
-                    constructor = null;
-                    break;
-                }
-            }
-            if (constructor != null) {
-                try {
-                    newInstance = (T) constructor.newInstance(params);
-                } catch (InvocationTargetException ite) {
-                    // LGR.error(ToString.stackTrace(ite);
-                }
-                break;
-            }
-        }
-        if (newInstance == null) {
-            StringJoiner joiner = new StringJoiner(", ", "[", "]");
-            for (Object o : params) {
-                joiner.add(String.format("(%s) %s",
-                        o.getClass().getSimpleName(),
-                        o.toString()));
-            }
-            /*
-            LGR.error("{}.newInstance() - there is no constructor available to match the parameters {} specified for interface {}",
-                CSS.class.getSimpleName(),
-                joiner.toString(),
-                css.interfaceOf.getSimpleName());
-             */
-        }
-        return newInstance;
+        return FACTORY.createInstance(css, params);
     }
 
     public enum Role {
@@ -149,6 +105,14 @@ public enum CSS {
 
         String render();
 
+        default void render(Appendable out) throws IOException {
+            out.append(this.render());
+        }
+
+        default void render(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            this.render(out);
+        }
+
         Role role();
     }
 
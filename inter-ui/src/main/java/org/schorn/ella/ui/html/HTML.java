@@ -23,16 +23,30 @@
  */
 package org.schorn.ella.ui.html;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.schorn.ella.ui.html.HTML.Form.FormAttributes;
@@ -195,6 +209,10 @@ public enum HTML {
         this.implOf = implOf;
     }
 
+    /**
+     * @return the implementation set for this element, null while the
+     * factory's own is in use and HtmlFactory.register() has not been called
+     */
     public Class<?> getImpl() {
         return this.implOf;
     }
@@ -212,6 +230,15 @@ public enum HTML {
     public interface HtmlFactory {
         public void register();
         public <T> T createInstance(HTML html, Object... params) throws Exception;
+        public List<Patch> diff(Element before, Element after);
+        public Template.Compiler templateCompiler(Element root, RenderMode renderMode);
+        public Persistent persistent(Element root);
+        public Persistent persistent(Element root, boolean shareSubtrees);
+        public FlatDocument flatDocument(String rootTag, int capacity, boolean offHeap);
+        public TextContent textContent(CharSequence text, boolean escape);
+        public TextContent textContent(Supplier<Reader> reader, boolean escape);
+        public TextContent textContent(Path path, long position, long count, boolean escape);
+        public Compaction compaction(Element root, List<CSS.Block> blocks);
     }
 
     static final HtmlFactory FACTORY;
@@ -322,15 +349,7 @@ public enum HTML {
         }
 
         public Attribute asAttribute() {
-            Attribute attribute = null;
-            try {
-                attribute = Attribute.create(GlobalAttributes.AUTOCAPITALIZE, this.value());
-            } catch (Exception ex) {
-                LGR.error("{}.ctor() - Caught Exception: {}",
-                        this.getClass().getSimpleName(),
-                        ToString.stackTrace(ex));
-            }
-            return attribute;
+            return Attribute.shared(GlobalAttributes.AUTOCAPITALIZE, this.value());
         }
 
         static public String[] valuesAsString() {
@@ -422,15 +441,7 @@ public enum HTML {
         }
 
         public Attribute asAttribute() {
-            Attribute attribute = null;
-            try {
-                attribute = Attribute.create("inputmode", this.value());
-            } catch (Exception ex) {
-                LGR.error("{}.ctor() - Caught Exception: {}",
-                        this.getClass().getSimpleName(),
-                        ToString.stackTrace(ex));
-            }
-            return attribute;
+            return Attribute.shared("inputmode", this.value());
         }
 
         static public String[] valuesAsString() {
@@ -448,15 +459,7 @@ public enum HTML {
         }
 
         public Attribute asAttribute() {
-            Attribute attribute = null;
-            try {
-                attribute = Attribute.create(FormAttributes.METHOD, this.value());
-            } catch (Exception ex) {
-                LGR.error("{}.ctor() - Caught Exception: {}",
-                        this.getClass().getSimpleName(),
-                        ToString.stackTrace(ex));
-            }
-            return attribute;
+            return Attribute.shared(FormAttributes.METHOD, this.value());
         }
 
         static public String[] valuesAsString() {
@@ -482,15 +485,7 @@ public enum HTML {
         }
 
         public Attribute asAttribute() {
-            Attribute attribute = null;
-            try {
-                attribute = Attribute.create(FormAttributes.ENCTYPE, this.value());
-            } catch (Exception ex) {
-                LGR.error("{}.ctor() - Caught Exception: {}",
-                        this.getClass().getSimpleName(),
-                        ToString.stackTrace(ex));
-            }
-            return attribute;
+            return Attribute.shared(FormAttributes.ENCTYPE, this.value());
         }
 
         static public String[] valuesAsString() {
@@ -511,15 +506,7 @@ public enum HTML {
         }
 
         public Attribute asAttribute() {
-            Attribute attribute = null;
-            try {
-                attribute = Attribute.create(FormAttributes.TARGET, this.value());
-            } catch (Exception ex) {
-                LGR.error("{}.ctor() - Caught Exception: {}",
-                        this.getClass().getSimpleName(),
-                        ToString.stackTrace(ex));
-            }
-            return attribute;
+            return Attribute.shared(FormAttributes.TARGET, this.value());
         }
 
         static public String[] valuesAsString() {
@@ -535,6 +522,22 @@ public enum HTML {
         EndMustBeOmitted;
     }
 
+    /**
+     * How much whitespace (and which end tags) the renderer writes.
+     *
+     * PRETTY - indented, one element per line.
+     *
+     * COMPACT - one element per line without indentation.
+     *
+     * MINIFIED - no inter-element whitespace other than a single space
+     * between adjacent phrasing content, optional end tags are omitted.
+     */
+    static public enum RenderMode {
+        PRETTY,
+        COMPACT,
+        MINIFIED;
+    }
+
     static public enum ContentCategory {
         Metadata("base", "link", "meta", "noscript", "script", "style", "template", "title"),
         Flow("a", "abbr", "address", "area", "articlea", "side", "audio", "b", "bdi", "bdo",
@@ -599,6 +602,17 @@ public enum HTML {
     public interface Render {
 
         String render();
+
+        /**
+         * Writes the rendered output directly into the sink rather than
+         * returning it as a new String.
+         *
+         * @param out
+         * @throws IOException
+         */
+        default void render(Appendable out) throws IOException {
+            out.append(this.render());
+        }
     }
 
     public interface Attribute extends Render {
@@ -611,8 +625,111 @@ public enum HTML {
             return (Attribute) new Impl(name, value);
         }
 
+        static public Attribute create(AttributeType attributeType, Number value) throws Exception {
+            return (Attribute) new Impl(attributeType.tag(), value);
+        }
+
+        static public Attribute create(String name, Number value) throws Exception {
+            return (Attribute) new Impl(name, value);
+        }
+
+        static public Attribute create(AttributeType attributeType, Temporal value) throws Exception {
+            return (Attribute) new Impl(attributeType.tag(), value);
+        }
+
+        static public Attribute create(String name, Temporal value) throws Exception {
+            return (Attribute) new Impl(name, value);
+        }
+
+        /**
+         * A mutable copy of the attribute, or the attribute itself if it is
+         * immutable.
+         *
+         * @param attribute
+         * @return
+         */
+        static public Attribute copy(Attribute attribute) {
+            if (attribute.isShared()) {
+                return attribute;
+            }
+            if (attribute instanceof Impl) {
+                Impl copy = new Impl(attribute.name(), ((Impl) attribute).value, false);
+                if (((Impl) attribute).tokens != null) {
+                    copy.tokens = new ArrayList<>(((Impl) attribute).tokens);
+                }
+                return copy;
+            }
+            return new Impl(attribute.name(), attribute.value(), false);
+        }
+
+        /**
+         * An immutable (but unlike shared() not cached) name='value'.
+         *
+         * @param attributeType
+         * @param value
+         * @return
+         */
+        static public Attribute immutable(AttributeType attributeType, String value) {
+            return new Impl(attributeType.tag(), value, true);
+        }
+
+        /**
+         * An immutable (but unlike shared() not cached) copy of the attribute,
+         * or the attribute itself if it is already immutable.
+         *
+         * @param attribute
+         * @return
+         */
+        static public Attribute immutable(Attribute attribute) {
+            if (attribute.isShared()) {
+                return attribute;
+            }
+            if (attribute instanceof Impl && ((Impl) attribute).tokens == null) {
+                return new Impl(attribute.name(), ((Impl) attribute).value, true);
+            }
+            return new Impl(attribute.name(), attribute.value(), true);
+        }
+
+        /**
+         * Gets the shared, immutable instance of name='value'. Use for values
+         * that repeat across many elements (e.g. type='text'). Only the first
+         * Impl.SHARED_LIMIT of them are cached, after that the instance is
+         * immutable but not shared.
+         *
+         * @param attributeType
+         * @param value
+         * @return
+         */
+        static public Attribute shared(AttributeType attributeType, String value) {
+            return shared(attributeType.tag(), value);
+        }
+
+        static public Attribute shared(String name, String value) {
+            return Impl.intern(Impl.SHARED, name + '=' + value, name, value);
+        }
+
+        /**
+         * Gets the shared, immutable instance of a boolean attribute which is
+         * rendered as its bare name (e.g. readonly).
+         *
+         * @param attributeType
+         * @return
+         */
+        static public Attribute flag(AttributeType attributeType) {
+            return flag(attributeType.tag());
+        }
+
+        static public Attribute flag(String name) {
+            return Impl.intern(Impl.FLAGS, name, name, Boolean.TRUE);
+        }
+
         public String name();
 
+        /**
+         * The value as it is rendered between the quotes, empty for a flag.
+         *
+         * @return
+         */
         public String value();
 
         public void setValue(String value);
@@ -621,16 +738,79 @@ public enum HTML {
 
         public void addValue(String value);
 
+        /**
+         * Whether there is anything to render, attributes without a value (or
+         * with a false flag) are not rendered at all.
+         *
+         * @return
+         */
+        default boolean hasValue() {
+            return this.render() != null;
+        }
+
+        /**
+         * Shared instances, like those held by an element, are immutable:
+         * setValue() and addValue() will throw.
+         *
+         * @return
+         */
+        default boolean isShared() {
+            return false;
+        }
+
         static class Impl implements Attribute {
 
+            /*
+            name=value (attribute names never contain '=') apart from the bare
+            flags by name, each bounded so that arbitrary values can not grow
+            them without end
+             */
+            static final int SHARED_LIMIT = 1024;
+            static private final java.util.Map<String, Attribute> SHARED = new ConcurrentHashMap<>();
+            static private final java.util.Map<String, Attribute> FLAGS = new ConcurrentHashMap<>();
+
+            static private Attribute intern(java.util.Map<String, Attribute> cache, String key,
+                    String name, java.lang.Object value) {
+                Attribute attribute = cache.get(key);
+                if (attribute == null) {
+                    Impl impl = new Impl(name, value, true);
+                    impl.rendered = impl.render0();
+                    attribute = impl;
+                    if (cache.size() < SHARED_LIMIT) {
+                        Attribute previous = cache.putIfAbsent(key, attribute);
+                        if (previous != null) {
+                            attribute = previous;
+                        }
+                    }
+                }
+                return attribute;
+            }
+
             private final String name;
+            private final boolean shared;
             private java.lang.Object value;
+            private List<String> tokens = null;
+            /*
+            only kept by the cached instances of shared() and flag()
+             */
             private String rendered = null;
 
             public Impl(String name, String value) {
+                this(name, (java.lang.Object) value, false);
+            }
+
+            public Impl(String name, Number value) {
+                this(name, (java.lang.Object) value, false);
+            }
+
+            public Impl(String name, Temporal value) {
+                this(name, (java.lang.Object) value, false);
+            }
+
+            private Impl(String name, java.lang.Object value, boolean shared) {
                 this.name = name;
                 this.value = value;
-                this.setValue0(this.value);
+                this.shared = shared;
             }
 
             @Override
@@ -640,36 +820,81 @@ public enum HTML {
 
             @Override
             public String value() {
+                if (this.tokens != null) {
+                    return String.join(" ", this.tokens);
+                }
+                if (this.value instanceof String) {
+                    return (String) this.value;
+                }
+                if (this.value instanceof Boolean) {
+                    return "";
+                }
+                if (this.hasValue()) {
+                    StringBuilder builder = new StringBuilder(16);
+                    try {
+                        this.writeValue(builder);
+                    } catch (IOException ex) {
+                        // StringBuilder does not throw
+                    }
+                    return builder.toString();
+                }
                 return this.value.toString();
             }
 
+            @Override
+            public boolean isShared() {
+                return this.shared;
+            }
+
+            @Override
+            public boolean hasValue() {
+                if (this.value == null) {
+                    return false;
+                }
+                if (this.value instanceof Boolean) {
+                    return (Boolean) this.value;
+                }
+                return this.value instanceof String
+                        || this.value instanceof Number
+                        || this.value instanceof LocalDate
+                        || this.value instanceof LocalTime
+                        || this.value instanceof LocalDateTime;
+            }
+
             @Override
             public void setValue(String value) {
+                this.checkMutable();
                 this.value = value;
-                this.setValue0(this.value);
+                this.tokens = null;
             }
 
             @Override
             public void addValue(String value) {
+                this.checkMutable();
                 if (value != null) {
                     if (this.value == null) {
                         this.setValue(value);
                     } else {
-                        this.setValue(String.format("%s %s", this.value, value));
+                        if (this.tokens == null) {
+                            this.tokens = new ArrayList<>(4);
+                            this.tokens.add(this.value.toString());
+                        }
+                        this.tokens.add(value);
                     }
                 }
             }
 
             @Override
             public void addValue(Number value) {
+                this.checkMutable();
                 if (value == null) {
                     return;
                 }
                 if (this.value == null) {
-                    this.setValue0(value);
+                    this.value = value;
                     return;
                 }
-                if (value instanceof Number && this.value instanceof Number) {
+                if (this.tokens == null && this.value instanceof Number) {
                     if (value instanceof BigDecimal && this.value instanceof BigDecimal) {
                         this.value = BigDecimal.valueOf(((Number) value).doubleValue()).add(BigDecimal.valueOf(((Number) this.value).doubleValue()));
                     } else if (value instanceof Double && this.value instanceof Double) {
@@ -680,17 +905,28 @@ public enum HTML {
                         this.value = ((Integer) value) + ((Integer) this.value);
                     }
                 }
-                this.setValue0(this.value);
             }
 
             @Override
             public String render() {
-                return this.rendered;
+                if (this.rendered != null) {
+                    return this.rendered;
+                }
+                return this.render0();
+            }
+
+            @Override
+            public void render(Appendable out) throws IOException {
+                if (this.rendered != null) {
+                    out.append(this.rendered);
+                } else if (this.hasValue()) {
+                    this.write(out);
+                }
             }
 
             @Override
             public String toString() {
-                return this.rendered;
+                return this.render();
             }
 
             /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -698,42 +934,490 @@ public enum HTML {
              * 										PRIVATE
              *
              * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+            private void checkMutable() {
+                if (this.shared) {
+                    throw new UnsupportedOperationException(String.format("%s='%s' is immutable, add a new attribute in its place.",
+                            this.name, this.value));
+                }
+            }
+
+            private String render0() {
+                if (!this.hasValue()) {
+                    return null;
+                }
+                StringBuilder builder = new StringBuilder(this.name.length() + 16);
+                try {
+                    this.write(builder);
+                } catch (IOException ex) {
+                    // StringBuilder does not throw
+                }
+                return builder.toString();
+            }
+
             /**
+             * Encodes the typed value without going through Formatter, the
+             * output matches the '%s', '%d' and '%f' formats previously used.
              *
-             * @param value
+             * @param out
              */
-            private void setValue0(java.lang.Object value) {
-                if (value != null) {
-                    if (value instanceof Boolean && (Boolean) value) {
-                        this.rendered = String.format("%s", this.name);
-                    } else if (value instanceof String) {
-                        this.rendered = String.format("%s='%s'", this.name, value);
-                    } else if (value instanceof Number) {
-                        if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
-                            this.rendered = String.format("%s='%f'", this.name, value);
-                        } else {
-                            this.rendered = String.format("%s='%d'", this.name, value);
+            private void write(Appendable out) throws IOException {
+                out.append(this.name);
+                if (this.value instanceof Boolean) {
+                    return;
+                }
+                out.append("='");
+                this.writeValue(out);
+                out.append('\'');
+            }
+
+            private void writeValue(Appendable out) throws IOException {
+                if (this.tokens != null) {
+                    for (int i = 0; i < this.tokens.size(); i++) {
+                        if (i > 0) {
+                            out.append(' ');
                         }
-                    } else if (value instanceof Temporal) {
-                        if (value instanceof LocalDate) {
-                            this.rendered = String.format("%s='%s'",
-                                    this.name,
-                                    ((LocalDate) value).format(DateTimeFormatter.ISO_LOCAL_DATE));
-                        } else if (value instanceof LocalTime) {
-                            this.rendered = String.format("%s='%s'",
-                                    this.name,
-                                    ((LocalTime) value).format(DateTimeFormatter.ISO_LOCAL_TIME));
-                        } else if (value instanceof LocalDateTime) {
-                            this.rendered = String.format("%s='%s'",
-                                    this.name,
-                                    ((LocalDateTime) value).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                        out.append(this.tokens.get(i));
+                    }
+                } else if (this.value instanceof String) {
+                    out.append((String) this.value);
+                } else if (this.value instanceof Number) {
+                    writeNumber(out, (Number) this.value);
+                } else if (this.value instanceof LocalDate) {
+                    writeDate(out, (LocalDate) this.value);
+                } else if (this.value instanceof LocalTime) {
+                    writeTime(out, (LocalTime) this.value);
+                } else if (this.value instanceof LocalDateTime) {
+                    writeDate(out, ((LocalDateTime) this.value).toLocalDate());
+                    out.append('T');
+                    writeTime(out, ((LocalDateTime) this.value).toLocalTime());
+                }
+            }
+
+            static private void writeNumber(Appendable out, Number number) throws IOException {
+                if (number instanceof Integer || number instanceof Long
+                        || number instanceof Short || number instanceof Byte) {
+                    writeLong(out, number.longValue());
+                } else if (number instanceof Double || number instanceof Float) {
+                    double d = number.doubleValue();
+                    if (Double.isNaN(d) || Double.isInfinite(d)) {
+                        out.append(Double.toString(d));
+                    } else {
+                        // a negative zero keeps its sign, as with '%f'
+                        if (Double.compare(d, 0.0) < 0) {
+                            out.append('-');
                         }
+                        writeFixed6(out, new BigDecimal(Double.toString(Math.abs(d))));
+                    }
+                } else if (number instanceof BigDecimal) {
+                    BigDecimal bd = (BigDecimal) number;
+                    if (bd.signum() < 0) {
+                        out.append('-');
                     }
+                    writeFixed6(out, bd.abs());
+                } else {
+                    out.append(number.toString());
+                }
+            }
+
+            static private void writeFixed6(Appendable out, BigDecimal positive) throws IOException {
+                BigDecimal scaled = positive.setScale(6, RoundingMode.HALF_UP);
+                BigInteger unscaled = scaled.unscaledValue();
+                if (unscaled.bitLength() < 63) {
+                    long units = unscaled.longValue();
+                    writeLong(out, units / 1_000_000L);
+                    out.append('.');
+                    writePadded(out, units % 1_000_000L, 6);
+                } else {
+                    out.append(scaled.toPlainString());
+                }
+            }
+
+            static private void writeLong(Appendable out, long value) throws IOException {
+                if (value == Long.MIN_VALUE) {
+                    out.append("-9223372036854775808");
+                    return;
+                }
+                if (value < 0) {
+                    out.append('-');
+                    value = -value;
+                }
+                char[] digits = new char[19];
+                int pos = digits.length;
+                do {
+                    digits[--pos] = (char) ('0' + (value % 10));
+                    value /= 10;
+                } while (value != 0);
+                for (int i = pos; i < digits.length; i++) {
+                    out.append(digits[i]);
+                }
+            }
+
+            static private void writePadded(Appendable out, long value, int width) throws IOException {
+                long divisor = 1;
+                for (int i = 1; i < width; i++) {
+                    divisor *= 10;
+                }
+                for (; divisor > 0; divisor /= 10) {
+                    out.append((char) ('0' + (value / divisor) % 10));
+                }
+            }
+
+            static private void writeDate(Appendable out, LocalDate date) throws IOException {
+                int year = date.getYear();
+                if (Math.abs(year) < 1000) {
+                    if (year < 0) {
+                        out.append('-');
+                    }
+                    writePadded(out, Math.abs(year), 4);
+                } else {
+                    if (year > 9999) {
+                        out.append('+');
+                    }
+                    writeLong(out, year);
+                }
+                out.append('-');
+                writePadded(out, date.getMonthValue(), 2);
+                out.append('-');
+                writePadded(out, date.getDayOfMonth(), 2);
+            }
+
+            static private void writeTime(Appendable out, LocalTime time) throws IOException {
+                writePadded(out, time.getHour(), 2);
+                out.append(':');
+                writePadded(out, time.getMinute(), 2);
+                out.append(':');
+                writePadded(out, time.getSecond(), 2);
+                int nano = time.getNano();
+                if (nano > 0) {
+                    int width = 9;
+                    while (nano % 10 == 0) {
+                        nano /= 10;
+                        width--;
+                    }
+                    out.append('.');
+                    writePadded(out, nano, width);
                 }
             }
         }
     }
 
+    /**
+     * One operation of the patch that turns a previously sent element tree
+     * into a newly built one. Operations apply in order, each addresses its
+     * target by the nearest element id plus child indexes from there and is
+     * rendered as a JSON array for the client-side applier (see script()).
+     */
+    public interface Patch extends Render {
+
+        public enum Op {
+            INSERT("i"),
+            REMOVE("r"),
+            MOVE("m"),
+            SET_ATTRIBUTE("a"),
+            REMOVE_ATTRIBUTE("x"),
+            SET_TEXT("t"),
+            REPLACE("R");
+
+            private final String code;
+
+            Op(String code) {
+                this.code = code;
+            }
+
+            public String code() {
+                return this.code;
+            }
+        }
+
+        /**
+         * Gets the operations that turn 'before' into 'after', matching
+         * elements by their id (Items build their element with the Item's id)
+         * and the rest by tag in document order, so that a page rebuilt with
+         * new ids is still patched element by element.
+         *
+         * @param before
+         * @param after
+         * @return
+         */
+        static public List<Patch> diff(Element before, Element after) {
+            return FACTORY.diff(before, after);
+        }
+
+        static public String toJson(List<Patch> patches) {
+            StringBuilder builder = new StringBuilder();
+            builder.append('[');
+            for (int i = 0; i < patches.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(patches.get(i).render());
+            }
+            return builder.append(']').toString();
+        }
+
+        /**
+         * Gets the client-side applier: ellament.patch(rootElement, patches).
+         *
+         * @return
+         * @throws IOException
+         */
+        static public String script() throws IOException {
+            try (InputStream inputStream = Patch.class.getResourceAsStream("/ellament-patch.js")) {
+                return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        Op op();
+    }
+
+    /**
+     * An immutable element tree. Updates return a new tree that shares every
+     * subtree off the path to the updated element with this one (path
+     * copying), so versions of a page cost memory in proportion to their
+     * differences and can be read and rendered by any number of threads
+     * without locking. Unchanged elements keep their rendered start tags
+     * across versions.
+     *
+     * The Element mutators throw UnsupportedOperationException. Every
+     * element of the tree is the root of its own tree, parent() returns the
+     * element itself and selector queries do not look above it.
+     */
+    public interface Persistent extends Element {
+
+        /**
+         * Takes an immutable copy of the tree.
+         *
+         * @param root
+         * @return
+         */
+        static public Persistent of(Element root) {
+            return FACTORY.persistent(root);
+        }
+
+        /**
+         * Takes an immutable copy of the tree in which identical subtrees
+         * are a single shared instance, its start tags rendered once
+         * however often it appears. Elements with an id, or a reference to
+         * one, are not shared (their children still are).
+         *
+         * @param root
+         * @return
+         */
+        static public Persistent shared(Element root) {
+            return FACTORY.persistent(root, true);
+        }
+
+        Persistent child(int index);
+
+        /**
+         * The child positions leading from this element down to the element
+         * with the id.
+         *
+         * @param id
+         * @return
+         */
+        Optional<int[]> pathOf(String id);
+
+        /**
+         * Replaces the element at the path with what the update makes of it,
+         * copying its ancestors.
+         *
+         * @param path
+         * @param update
+         * @return the new root
+         */
+        Persistent update(int[] path, UnaryOperator<Persistent> update);
+
+        /**
+         * @param id
+         * @param update
+         * @return the new root, this if there is no element with the id
+         */
+        default Persistent update(String id, UnaryOperator<Persistent> update) {
+            Optional<int[]> path = this.pathOf(id);
+            return path.isPresent() ? this.update(path.get(), update) : this;
+        }
+
+        Persistent withTextContent(String content);
+
+        Persistent withAttribute(Attribute attribute);
+
+        Persistent withoutAttribute(String name);
+
+        Persistent withClass(String className);
+
+        /**
+         * @param index position of the new child, 0 to children().size()
+         * @param child (copied if it is not persistent)
+         * @return
+         */
+        Persistent withChild(int index, Element child);
+
+        default Persistent withChild(Element child) {
+            return this.withChild(this.children().size(), child);
+        }
+
+        Persistent withoutChild(int index);
+
+        Persistent withChildReplaced(int index, Element child);
+    }
+
+    /**
+     * A document for very large pages. Its elements are rows in columns of
+     * ints (tag, parent, first/last child, previous/next sibling, first
+     * attribute, text) rather than objects, optionally held off heap in
+     * direct buffers along with the text. Tags and attribute values are
+     * interned per document.
+     *
+     * The elements it hands out are views (an int and the document) built
+     * with the usual Element methods. Appending an element from outside the
+     * document copies it in. Selector queries are matched off the columns
+     * without an index, each one walks the subtree it is asked of.
+     */
+    public interface FlatDocument extends Render {
+
+        static public FlatDocument create(String rootTag) {
+            return FACTORY.flatDocument(rootTag, 1024, false);
+        }
+
+        /**
+         * @param rootTag
+         * @param capacity expected number of elements
+         * @param offHeap columns in direct buffers
+         * @return
+         */
+        static public FlatDocument create(String rootTag, int capacity, boolean offHeap) {
+            return FACTORY.flatDocument(rootTag, capacity, offHeap);
+        }
+
+        /**
+         * Copies the tree into a new document.
+         *
+         * @param root
+         * @param offHeap
+         * @return
+         */
+        static public FlatDocument of(Element root, boolean offHeap) {
+            FlatDocument document = FACTORY.flatDocument(root.tag(), 1024, offHeap);
+            document.root().setTextContent(root.getTextContent());
+            try {
+                for (Attribute attribute : root.attributes()) {
+                    document.root().addAttribute(attribute);
+                }
+            } catch (InvalidAttributeException ex) {
+                LGR.error("{}.of() - Caught Exception: {}",
+                        FlatDocument.class.getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            for (Element child : root.children()) {
+                document.root().append(child);
+            }
+            document.compact();
+            return document;
+        }
+
+        Element root();
+
+        /**
+         * @param tag
+         * @return a new element of the document without a parent
+         */
+        Element createElement(String tag);
+
+        default Element createElement(HTML html) {
+            return this.createElement(html.tag());
+        }
+
+        /**
+         * Trims the columns and the text pool to their contents once the
+         * document has been built, they grow by doubling.
+         */
+        void compact();
+
+        /**
+         * @return the number of elements (including those without a parent)
+         */
+        int size();
+
+        /**
+         * @return the bytes held by the columns and the text pool (on or off
+         * heap), the interned attribute values not included
+         */
+        long footprint();
+
+        @Override
+        default String render() {
+            return this.root().render();
+        }
+
+        @Override
+        default void render(Appendable out) throws IOException {
+            this.root().render(out);
+        }
+
+        default void render(Appendable out, RenderMode renderMode) throws IOException {
+            this.root().render(out, renderMode);
+        }
+
+        default void renderTo(OutputStream outputStream, RenderMode renderMode) throws IOException {
+            this.root().renderTo(outputStream, renderMode);
+        }
+    }
+
+    /**
+     * A rendered element tree frozen into pre-encoded static segments and
+     * named holes (text content, attribute values and repeated regions) that
+     * are filled in at render time.
+     *
+     * Hole values are escaped, a hole without a value renders what the tree
+     * had when it was compiled. A repeated region takes a collection of
+     * value maps, one per repetition of its prototype.
+     */
+    public interface Template {
+
+        static public Compiler compiler(Element root, RenderMode renderMode) {
+            return FACTORY.templateCompiler(root, renderMode);
+        }
+
+        List<String> holes();
+
+        void render(Appendable out, java.util.Map<String, ?> values) throws IOException;
+
+        void renderTo(OutputStream outputStream, java.util.Map<String, ?> values) throws IOException;
+
+        default String render(java.util.Map<String, ?> values) {
+            StringBuilder builder = new StringBuilder();
+            try {
+                this.render(builder, values);
+            } catch (IOException ex) {
+                LGR.error("{}.render() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return builder.toString();
+        }
+
+        public interface Compiler {
+
+            Compiler text(String hole, Element element);
+
+            Compiler attribute(String hole, Element element, String attributeName);
+
+            /**
+             * The container's first child becomes the prototype rendered for
+             * each repetition, holes declared within it are named relative to
+             * the repetition's value map.
+             *
+             * @param hole
+             * @param container
+             * @return
+             */
+            Compiler repeat(String hole, Element container);
+
+            Template compile();
+        }
+    }
+
     public class InvalidContentException extends Exception {
 
         public InvalidContentException(String message) {
@@ -748,6 +1432,124 @@ public enum HTML {
         }
     }
 
+    /**
+     * Text content that is not held as a String of its own, for large
+     * read-only text (i.e. a pre of a multi-megabyte log). It is streamed
+     * into the output each time its element renders, escaped (&amp;, &lt;
+     * and &gt;) on the way if asked to be. Kept output of the ancestors
+     * keeps a reference to the text rather than a copy of it.
+     *
+     * Copies that hold their own text (persistent and flat documents), diffs,
+     * templates and the pool renderer read it into a String.
+     */
+    public interface TextContent {
+
+        /**
+         * A view of the characters, which are not copied.
+         *
+         * @param text
+         * @param escape
+         * @return
+         */
+        static public TextContent of(CharSequence text, boolean escape) {
+            return FACTORY.textContent(text, escape);
+        }
+
+        /**
+         * Text read from a new Reader (closed after) each time it renders.
+         *
+         * @param reader
+         * @param escape
+         * @return
+         */
+        static public TextContent ofReader(Supplier<Reader> reader, boolean escape) {
+            return FACTORY.textContent(reader, escape);
+        }
+
+        /**
+         * A region of a UTF-8 file, read each time it renders. Rendered to
+         * bytes, it is transferred from the file's channel as-is when it is
+         * not escaped.
+         *
+         * @param path
+         * @param position
+         * @param count the number of bytes
+         * @param escape
+         * @return
+         */
+        static public TextContent ofFile(Path path, long position, long count, boolean escape) {
+            return FACTORY.textContent(path, position, count, escape);
+        }
+
+        boolean escape();
+
+        /**
+         * Streams the text (escaped if it is to be) into the output.
+         *
+         * @param out
+         * @throws IOException
+         */
+        void render(Appendable out) throws IOException;
+    }
+
+    /**
+     * Short page-unique names in place of the ids and class names of a
+     * page, for production output: base-62 tokens ('a'..'Z', then two and
+     * more characters) with the most frequent class names the shortest.
+     * The attributes referring to an id (for, list, href='#..' etc.) and
+     * the selectors of the page's style blocks are rewritten to match.
+     *
+     * The mapping is kept, short name to original, for debugging.
+     */
+    public interface Compaction {
+
+        /**
+         * Rewrites the tree in place, for a page built to be rendered once
+         * (its rendered output and index are dropped). The blocks are not
+         * changed, see blocks().
+         *
+         * @param root
+         * @param blocks
+         * @return
+         */
+        static public Compaction compact(Element root, List<CSS.Block> blocks) {
+            return FACTORY.compaction(root, blocks);
+        }
+
+        /**
+         * @return the blocks given to compact() in the same order, new ones
+         * where a selector had an id or class rewritten
+         */
+        List<CSS.Block> blocks();
+
+        /**
+         * @return the original ids by their short ones
+         */
+        java.util.Map<String, String> ids();
+
+        /**
+         * @return the original class names by their short ones
+         */
+        java.util.Map<String, String> classNames();
+
+        /**
+         * @param shortId
+         * @return the original id, the argument if it was not rewritten
+         */
+        default String originalId(String shortId) {
+            return this.ids().getOrDefault(shortId, shortId);
+        }
+
+        /**
+         * @param shortClassName
+         * @return the original class name, the argument if it was not
+         * rewritten
+         */
+        default String originalClassName(String shortClassName) {
+            return this.classNames().getOrDefault(shortClassName, shortClassName);
+        }
+    }
+
     public interface Element extends Render {
 
         Element setId(String value) throws Exception;
@@ -758,6 +1560,8 @@ public enum HTML {
 
         Element setTextContent(String content);
 
+        String getTextContent();
+
         Element addAttribute(Attribute attribute) throws HTML.InvalidAttributeException;
 
         List<Attribute> attributes();
@@ -772,12 +1576,140 @@ public enum HTML {
 
         List<Element> children();
 
+        /**
+         * Finds the element with the id in the tree this element belongs to.
+         * The root of the tree builds an index on first use which append(),
+         * insert(), setId() and addClass() then keep up to date.
+         *
+         * @param id
+         * @return
+         */
+        Optional<Element> getElementById(String id);
+
+        /**
+         * The elements in the tree with the class, in the order they were
+         * indexed (not necessarily document order).
+         *
+         * @param className
+         * @return
+         */
+        List<Element> getElementsByClass(String className);
+
+        /**
+         * Copies this element and its descendants in one pass, without going
+         * through the factory. Immutable attributes are shared with the copy.
+         * Ids are regenerated, along with the references to them from within
+         * the subtree (for, list, form, href='#..' etc.). Subtrees the new ids
+         * do not touch keep their rendered output. The copy has no parent.
+         *
+         * @return
+         */
+        Element cloneDeep();
+
+        /**
+         * A 64-bit hash of this element's content: its tag, attributes, text
+         * and the content hashes of its children, so that equal subtrees hash
+         * the same in any tree. The hash is kept until this element or one of
+         * its descendants changes, asking an unchanged page again costs
+         * nothing and a change only hashes its ancestors again.
+         *
+         * @return
+         */
+        long contentHash();
+
+        /**
+         * The content hash as a strong entity tag (quoted, for the ETag
+         * header), or as the key of a cached fragment.
+         *
+         * @return
+         */
+        default String entityTag() {
+            return String.format("\"%016x\"", this.contentHash());
+        }
+
+        /**
+         * The descendants of this element matching the selector, in document
+         * order. Supports type, universal, class and id selectors combined
+         * with the descendant, child (&gt;), sibling (~) and adjacent sibling
+         * (+) combinators, and comma separated lists of these. Pseudo-classes,
+         * pseudo-elements and attribute selectors are rejected as a parse
+         * error (logged, nothing is selected).
+         *
+         * @param selector
+         * @return
+         */
+        List<Element> querySelectorAll(String selector);
+
+        default List<Element> querySelectorAll(CSS.Selector selector) {
+            return this.querySelectorAll(selector.render());
+        }
+
+        default Optional<Element> querySelector(String selector) {
+            List<Element> elements = this.querySelectorAll(selector);
+            return elements.isEmpty() ? Optional.empty() : Optional.of(elements.get(0));
+        }
+
+        boolean matches(String selector);
+
         void throwException() throws Exception;
 
         default TagOmission tagOmission() {
             return TagOmission.None;
         }
 
+        /**
+         * Streams this element and its descendants into the writer, each tag,
+         * attribute and text node being written exactly once.
+         *
+         * @param writer
+         * @throws IOException
+         */
+        default void renderTo(Writer writer) throws IOException {
+            this.render(writer);
+            writer.flush();
+        }
+
+        /**
+         * Encodes this element as UTF-8 directly into the stream without first
+         * materializing it as a String.
+         *
+         * @param outputStream
+         * @throws IOException
+         */
+        default void renderTo(OutputStream outputStream) throws IOException {
+            this.renderTo(outputStream, RenderMode.PRETTY);
+        }
+
+        default void renderTo(WritableByteChannel channel) throws IOException {
+            this.renderTo(channel, RenderMode.PRETTY);
+        }
+
+        /**
+         * Same as render(Appendable) with control over the whitespace and
+         * optional end tags written.
+         *
+         * @param out
+         * @param renderMode
+         * @throws IOException
+         */
+        void render(Appendable out, RenderMode renderMode) throws IOException;
+
+        /**
+         * Renders large disjoint subtrees concurrently on the pool into
+         * separate buffers which are then written out in document order.
+         * Small trees are rendered on the calling thread.
+         *
+         * @param out
+         * @param renderMode
+         * @param pool
+         * @throws IOException
+         */
+        void render(Appendable out, RenderMode renderMode, ForkJoinPool pool) throws IOException;
+
+        void renderTo(OutputStream outputStream, RenderMode renderMode) throws IOException;
+
+        void renderTo(WritableByteChannel channel, RenderMode renderMode) throws IOException;
+
     }
 
     public interface HtmlElement extends Element {
@@ -794,6 +1726,16 @@ public enum HTML {
 
         HtmlElement setStyle(Style style);
 
+        /**
+         * Text that is streamed into the output rather than held, replaced by
+         * the next setTextContent(String). getTextContent() reads it into a
+         * String (as it renders).
+         *
+         * @param content
+         * @return
+         */
+        HtmlElement setTextContent(TextContent content);
+
         default List<ContentCategory> contentCategories() {
             return ContentCategory.parse(HTML.valueOf(this.tag()));
         }
@@ -943,18 +1885,30 @@ public enum HTML {
         static public Tr create(Object... params) throws Exception {
             return HTML.TR.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Th extends HtmlElement {
         static public Th create(Object... params) throws Exception {
             return HTML.TH.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Td extends HtmlElement {
         static public Td create(Object... params) throws Exception {
             return HTML.TD.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Article extends HtmlElement {
@@ -973,6 +1927,10 @@ public enum HTML {
         static public Option create(Object... params) throws Exception {
             return HTML.OPTION.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Fieldset extends HtmlElement {
@@ -1179,15 +2137,7 @@ public enum HTML {
             InputType(AttributeType[] additionalAssociatedTypes) {
                 //this.associatedTypes.addAll(Arrays.asList(new AttributeType[]{InputAttributes.AUTOCOMPLETE, InputAttributes.AUTOFOCUS, InputAttributes.DISABLED, InputAttributes.FORM, InputAttributes.NAME, InputAttributes.READONLY, InputAttributes.REQUIRED, InputAttributes.TYPE, InputAttributes.VALUE}));
                 //this.associatedTypes.addAll(Arrays.asList(additionalAssociatedTypes));
-                Attribute attribute0 = null;
-                try {
-                    attribute0 = Attribute.create("type", this.value());
-                } catch (Exception ex) {
-                    LGR.error("{}.ctor() - Caught Exception: {}",
-                            this.getClass().getSimpleName(),
-                            ToString.stackTrace(ex));
-                }
-                this.attribute = attribute0;
+                this.attribute = Attribute.shared("type", this.value());
             }
 
             public String value() {
@@ -1362,6 +2312,10 @@ public enum HTML {
         static public Colgroup create(Object... params) throws Exception {
             return HTML.COLGROUP.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Command extends HtmlElement {
@@ -1398,6 +2352,10 @@ public enum HTML {
         static public Dd create(Object... params) throws Exception {
             return HTML.DD.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Del extends HtmlElement {
@@ -1447,6 +2405,10 @@ public enum HTML {
         static public Dt create(Object... params) throws Exception {
             return HTML.DT.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Em extends HtmlElement {
@@ -1615,6 +2577,10 @@ public enum HTML {
         static public Li create(Object... params) throws Exception {
             return HTML.LI.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Link extends HtmlElement {
@@ -1692,6 +2658,10 @@ public enum HTML {
         static public Optgroup create(Object... params) throws Exception {
             return HTML.OPTGROUP.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Output extends HtmlElement {
@@ -1706,6 +2676,10 @@ public enum HTML {
         static public P create(Object... params) throws Exception {
             return HTML.P_.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Param extends HtmlElement {
@@ -1748,6 +2722,10 @@ public enum HTML {
         static public Rp create(Object... params) throws Exception {
             return HTML.RP.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Rt extends HtmlElement {
@@ -1755,6 +2733,10 @@ public enum HTML {
         static public Rt create(Object... params) throws Exception {
             return HTML.RT.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface S extends HtmlElement {
@@ -1839,6 +2821,10 @@ public enum HTML {
         static public Tbody create(Object... params) throws Exception {
             return HTML.TBODY.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Textarea extends HtmlElement {
@@ -1853,6 +2839,10 @@ public enum HTML {
         static public Tfoot create(Object... params) throws Exception {
             return HTML.TFOOT.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Thead extends HtmlElement {
@@ -1860,6 +2850,10 @@ public enum HTML {
         static public Thead create(Object... params) throws Exception {
             return HTML.THEAD.create(params);
         }
+
+        default TagOmission tagOmission() {
+            return TagOmission.EndOptional;
+        }
     }
 
     public interface Time extends HtmlElement {
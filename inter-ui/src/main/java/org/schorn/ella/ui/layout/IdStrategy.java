@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.layout;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * Where the ids of items, panes' forms and widgets come from (and those of a
+ * cloned subtree). The thread's strategy is the one it is using(), else the
+ * default, random() unless set otherwise.
+ *
+ * random() ids are version 4 UUIDs, perThread() ids are numbered per thread,
+ * both without contention. sequence() and path() ids are deterministic, use
+ * a new one for each page built so the page renders the same bytes each
+ * time:
+ * <pre>
+ * IdStrategy.Scope scope = IdStrategy.use(IdStrategy.sequence());
+ * try {
+ *     ...
+ * } finally {
+ *     scope.close();
+ * }
+ * </pre>
+ *
+ * @author bschorn
+ */
+public interface IdStrategy {
+
+    /**
+     * @param kind what the id is for (the item's role, "form", "input"...)
+     * @param name the item's name, null if it has none
+     * @return an id not given out before by this strategy
+     */
+    public String newId(String kind, String name);
+
+    /**
+     * @param id
+     * @return the id for a copy of the element with the id
+     */
+    default String copyOf(String id) {
+        return id + "-" + this.newId("copy", null);
+    }
+
+    static IdStrategy random() {
+        return Random.INSTANCE;
+    }
+
+    static IdStrategy perThread() {
+        return PerThread.INSTANCE;
+    }
+
+    /**
+     * @return a new strategy numbering its ids in the order they are asked for
+     */
+    static IdStrategy sequence() {
+        return new Sequence();
+    }
+
+    /**
+     * The ids do not come from where the items are on the page: two items
+     * of the same kind and name (e.g. a "streetAddress" in each of two
+     * panes) are told apart by the order they are built in, the first
+     * getting the plain id and the next ones numbered. The page's ids stay
+     * the same as long as it is built in the same order, name the items
+     * apart where an id has to stay put as the page changes.
+     *
+     * @return a new strategy making its ids from the kind and the name
+     * (numbered from the second of the same)
+     */
+    static IdStrategy path() {
+        return new Path();
+    }
+
+    static IdStrategy current() {
+        IdStrategy strategy = Current.SCOPED.get();
+        return strategy != null ? strategy : Current.fallback;
+    }
+
+    static void setDefault(IdStrategy strategy) {
+        Current.fallback = strategy != null ? strategy : random();
+    }
+
+    /**
+     * @param strategy
+     * @return the scope in which this thread gets its ids from the strategy,
+     * closing it restores the one before
+     */
+    static Scope use(IdStrategy strategy) {
+        Scope scope = new Scope(Current.SCOPED.get());
+        Current.SCOPED.set(strategy);
+        return scope;
+    }
+
+    final class Scope implements AutoCloseable {
+
+        private final IdStrategy previous;
+
+        private Scope(IdStrategy previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (this.previous == null) {
+                Current.SCOPED.remove();
+            } else {
+                Current.SCOPED.set(this.previous);
+            }
+        }
+    }
+
+    static final class Current {
+
+        static private final ThreadLocal<IdStrategy> SCOPED = new ThreadLocal<>();
+        static private volatile IdStrategy fallback = Random.INSTANCE;
+
+        private Current() {
+        }
+    }
+
+    /**
+     * Version 4 UUIDs like UUID.randomUUID() but without its shared
+     * SecureRandom, these are element ids rather than secrets.
+     */
+    static final class Random implements IdStrategy {
+
+        static private final Random INSTANCE = new Random();
+        static private final AtomicLong SERIAL = new AtomicLong();
+
+        private Random() {
+        }
+
+        @Override
+        public String newId(String kind, String name) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return new UUID((random.nextLong() & ~0xF000L) | 0x4000L,
+                    (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L).toString();
+        }
+
+        @Override
+        public String copyOf(String id) {
+            return String.format("%s-%d", id, SERIAL.incrementAndGet());
+        }
+    }
+
+    static final class PerThread implements IdStrategy {
+
+        static private final PerThread INSTANCE = new PerThread();
+        static private final AtomicInteger THREADS = new AtomicInteger();
+        /*
+        [0] the thread's number, [1] its last id
+         */
+        static private final ThreadLocal<long[]> COUNTER = ThreadLocal.withInitial(
+                () -> new long[]{THREADS.incrementAndGet(), 0});
+
+        private PerThread() {
+        }
+
+        @Override
+        public String newId(String kind, String name) {
+            long[] counter = COUNTER.get();
+            return kind + "-" + counter[0] + "-" + ++counter[1];
+        }
+    }
+
+    static final class Sequence implements IdStrategy {
+
+        private final AtomicLong last = new AtomicLong();
+
+        private Sequence() {
+        }
+
+        @Override
+        public String newId(String kind, String name) {
+            return kind + "-" + this.last.incrementAndGet();
+        }
+    }
+
+    static final class Path implements IdStrategy {
+
+        static private final Pattern SEPARATORS = Pattern.compile("[^A-Za-z0-9_]");
+
+        private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+        private Path() {
+        }
+
+        @Override
+        public String newId(String kind, String name) {
+            String id = name == null || name.isEmpty() ? kind : kind + "-" + clean(name);
+            int count = this.counts.merge(id, 1, Integer::sum);
+            return count == 1 ? id : id + "-" + count;
+        }
+
+        /*
+        '-' only ever separates the parts, a name's own (and anything else
+        not a letter, digit or '_') become '_'
+         */
+        static private String clean(String name) {
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                    return SEPARATORS.matcher(name).replaceAll("_");
+                }
+            }
+            return name;
+        }
+
+        @Override
+        public String copyOf(String id) {
+            return this.newId(id, "copy");
+        }
+    }
+}
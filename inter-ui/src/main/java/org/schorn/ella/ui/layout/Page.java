@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.layout;
+
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.schorn.ella.ui.EllamentProvider;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ *
+ * @author bschorn
+ */
+public interface Page extends Container<Frame>, Item, Build {
+
+    static final Logger LGR = LoggerFactory.getLogger(Page.class);
+
+    static Page create() {
+        return EllamentProvider.provider().createPage();
+    }
+
+    public void setTitle(String title);
+
+    @Override
+    public void accept(Frame item);
+
+    @Override
+    public List<Frame> items();
+
+    public void setViewport(String width, String initialScale);
+
+    /**
+     * Opts in to rendering large pages on the pool (null to render on the
+     * calling thread, the default).
+     *
+     * @param pool
+     */
+    public void setRenderPool(ForkJoinPool pool);
+
+    /**
+     * Opts in to rendering from an immutable copy of the page in which
+     * identical subtrees (the same options, labels or icons built by many
+     * widgets) are one instance rendered once. The output is unchanged.
+     *
+     * @param sharedSubtrees
+     */
+    public void setSharedSubtrees(boolean sharedSubtrees);
+
+    /**
+     * Opts in to production output with short page-unique ids and class
+     * names, in the markup and the style sheet's selectors alike (see
+     * HTML.Compaction). Scripts naming them have to go through the mapping.
+     *
+     * @param compactNames
+     */
+    public void setCompactNames(boolean compactNames);
+
+    /**
+     * @return the short names of the page last produced with compact names
+     * mapped back to the original ones (for debugging), null if there is
+     * none
+     */
+    public HTML.Compaction compaction();
+
+    @Override
+    default Role type() {
+        return Role.PAGE;
+    }
+
+    public enum Selector implements Style.Selectors {
+        GLOBAL(CSS.Selector.createGlobal()),
+        CONTAINER(CSS.Selector.createType(HTML.BODY));
+
+        private final CSS.Selector selector;
+
+        Selector(CSS.Selector selector) {
+            this.selector = selector;
+        }
+
+        @Override
+        public CSS.Selector selector() {
+            return this.selector;
+        }
+    }
+
+    default String produce(Style styleSheet) throws Exception {
+        return this.produce(styleSheet, HTML.RenderMode.PRETTY);
+    }
+
+    default void produce(Style styleSheet, Appendable out) throws Exception {
+        this.produce(styleSheet, HTML.RenderMode.PRETTY, out);
+    }
+
+    default void produce(Style styleSheet, OutputStream outputStream) throws Exception {
+        this.produce(styleSheet, HTML.RenderMode.PRETTY, outputStream);
+    }
+
+    default void produce(Style styleSheet, WritableByteChannel channel) throws Exception {
+        this.produce(styleSheet, HTML.RenderMode.PRETTY, channel);
+    }
+
+    public String produce(Style styleSheet, HTML.RenderMode renderMode) throws Exception;
+
+    public void produce(Style styleSheet, HTML.RenderMode renderMode, Appendable out) throws Exception;
+
+    public void produce(Style styleSheet, HTML.RenderMode renderMode, OutputStream outputStream) throws Exception;
+
+    public void produce(Style styleSheet, HTML.RenderMode renderMode, WritableByteChannel channel) throws Exception;
+
+    /**
+     * Builds the page once into a template compiler which already has a hole
+     * for the value of every named input (the input's name), its label text
+     * (name + ".label") and its datalist options (name + ".options", each
+     * repetition taking a "value"). More holes may be declared before
+     * compiling.
+     *
+     * @param styleSheet
+     * @param renderMode
+     * @return
+     * @throws Exception
+     */
+    public HTML.Template.Compiler compile(Style styleSheet, HTML.RenderMode renderMode) throws Exception;
+
+    default Window newWindowFrame(Identifier name, String label) {
+        Frame frame = EllamentProvider.provider().createFrame(name);
+        Window window = EllamentProvider.provider().createWindow(name, label);
+        frame.accept(window);
+        this.accept(frame);
+        return window;
+    }
+}
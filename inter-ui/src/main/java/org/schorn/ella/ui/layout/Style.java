@@ -99,13 +99,13 @@ public interface Style {
 
     public class Sheet implements Style {
 
-        private final List<CSS.Style> styles;
+        private final Reset reset;
         private final Map<String, CSS.Block> blocksBySelector = new HashMap<>();
         private final List<String> blocksRenderOrder = new ArrayList<>();
 
         public Sheet() {
-            this.styles = new ArrayList<>();
-            this.styles.addAll(Reset.get().styles());
+            // the reset styles are only built once a sheet is rendered
+            this.reset = Reset.get();
         }
 
         final void map(CSS.Style style) {
@@ -134,7 +134,7 @@ public interface Style {
         @Override
         public List<CSS.Style> styles() {
             List<CSS.Style> temp = new ArrayList<>();
-            temp.addAll(this.styles);
+            temp.addAll(this.reset.styles());
             temp.addAll(this.blocksRenderOrder.stream()
                     .map(selectorKey -> (CSS.Style) blocksBySelector.get(selectorKey))
                     .collect(Collectors.toList()));
@@ -0,0 +1,269 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+
+/**
+ *
+ * The attributes of an element in insertion (render) order with their
+ * interned attribute name keys, scanned while there are few of them and
+ * indexed by an open-addressed table of the keys beyond that. The id
+ * attribute has its own slot and the class tokens are kept in a set so
+ * repeated addClass() calls are deduplicated without scanning.
+ *
+ * Elements keep a single attribute inline, the store starts out sized for
+ * the two it is created with.
+ *
+ * @author bschorn
+ */
+final class AttributeStore extends AbstractList<Attribute> {
+
+    static private final Map<String, Integer> KEYS = new ConcurrentHashMap<>();
+    static private final AtomicInteger NEXT_KEY = new AtomicInteger(1);
+    static final int ID = key(HTML.GlobalAttributes.ID.tag());
+    static final int CLASS = key(HTML.GlobalAttributes.CLASS.tag());
+
+    /**
+     * Interns the attribute name into a small positive int, stable for the
+     * life of the JVM.
+     *
+     * @param name
+     * @return
+     */
+    static int key(String name) {
+        Integer key = KEYS.get(name);
+        if (key == null) {
+            key = KEYS.computeIfAbsent(name, k -> NEXT_KEY.getAndIncrement());
+        }
+        return key;
+    }
+
+    static private final int SCAN = 8;
+
+    private Attribute[] ordered = new Attribute[2];
+    private int[] keys = new int[2];
+    private int size = 0;
+    /*
+    Open-addressed (linear probing) table of key -> position in ordered, kept
+    at most half full. Slots hold (key << 32 | position + 1), 0 being empty.
+    Only built once there are more than SCAN attributes.
+     */
+    private long[] table = null;
+    private Attribute id = null;
+    /*
+    Also made on first read, which may come from several threads rendering
+    or querying one tree.
+     */
+    private volatile Set<String> classTokens = null;
+
+    @Override
+    public Attribute get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, this.size));
+        }
+        return this.ordered[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    Attribute id() {
+        return this.id;
+    }
+
+    /**
+     * The tokens of the class attribute (empty if there is none).
+     *
+     * @return
+     */
+    Set<String> classTokens() {
+        int position = this.position(CLASS);
+        if (position < 0) {
+            return Collections.emptySet();
+        }
+        Set<String> classTokens = this.classTokens;
+        if (classTokens == null) {
+            this.classTokens = classTokens = tokens(this.ordered[position].value());
+        }
+        return Collections.unmodifiableSet(classTokens);
+    }
+
+    Attribute get(String name) {
+        int position = this.position(key(name));
+        return position < 0 ? null : this.ordered[position];
+    }
+
+    /**
+     * Adds the attribute or replaces the one with the same name in its
+     * original position.
+     *
+     * @param attribute
+     */
+    void put(Attribute attribute) {
+        int key = key(attribute.name());
+        int position = this.position(key);
+        if (position < 0) {
+            if (this.size == this.ordered.length) {
+                this.ordered = Arrays.copyOf(this.ordered, this.size * 2);
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            }
+            position = this.size++;
+            this.keys[position] = key;
+            if (this.table != null && this.size * 2 > this.table.length) {
+                this.rehash(this.table.length * 2);
+            } else if (this.table != null) {
+                this.insert(key, position);
+            } else if (this.size > SCAN) {
+                this.rehash(Integer.highestOneBit(this.size) * 4);
+            }
+        }
+        this.ordered[position] = attribute;
+        if (key == ID) {
+            this.id = attribute;
+        } else if (key == CLASS) {
+            this.classTokens = null;
+        }
+    }
+
+    /**
+     * Removes the attribute with the name, the ones after it keep their
+     * order.
+     *
+     * @param name
+     * @return false if there was none
+     */
+    boolean remove(String name) {
+        int key = key(name);
+        int position = this.position(key);
+        if (position < 0) {
+            return false;
+        }
+        int moved = this.size - position - 1;
+        System.arraycopy(this.ordered, position + 1, this.ordered, position, moved);
+        System.arraycopy(this.keys, position + 1, this.keys, position, moved);
+        this.ordered[--this.size] = null;
+        if (this.table != null) {
+            this.rehash(this.table.length);
+        }
+        if (key == ID) {
+            this.id = null;
+        } else if (key == CLASS) {
+            this.classTokens = null;
+        }
+        return true;
+    }
+
+    /**
+     * Adds the token to the class attribute unless it is already there.
+     *
+     * @param className
+     * @return false if the token was a duplicate
+     * @throws Exception
+     */
+    boolean addClass(String className) throws Exception {
+        int position = this.position(CLASS);
+        if (position < 0) {
+            this.put(Attribute.immutable(HTML.GlobalAttributes.CLASS, className));
+            return true;
+        }
+        Attribute attribute = this.ordered[position];
+        if (this.classTokens == null) {
+            this.classTokens = tokens(attribute.value());
+        }
+        if (!this.classTokens.add(className)) {
+            return false;
+        }
+        this.ordered[position] = Attribute.immutable(HTML.GlobalAttributes.CLASS, attribute.value() + ' ' + className);
+        return true;
+    }
+
+    static Set<String> tokens(String value) {
+        Set<String> tokens = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= value.length(); i++) {
+            if (i == value.length() || Character.isWhitespace(value.charAt(i))) {
+                if (start >= 0) {
+                    tokens.add(value.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return tokens;
+    }
+
+    private int position(int key) {
+        if (this.table == null) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = this.table.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            long slot = this.table[i];
+            if (slot == 0) {
+                return -1;
+            }
+            if ((int) (slot >>> 32) == key) {
+                return (int) (slot & 0xFFFFFFFFL) - 1;
+            }
+        }
+    }
+
+    private void insert(int key, int position) {
+        int mask = this.table.length - 1;
+        int i = hash(key) & mask;
+        while (this.table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        this.table[i] = ((long) key << 32) | (position + 1);
+    }
+
+    private void rehash(int capacity) {
+        this.table = new long[capacity];
+        for (int position = 0; position < this.size; position++) {
+            this.insert(this.keys[position], position);
+        }
+    }
+
+    static private int hash(int key) {
+        return key * 0x9E3779B9 >>> 16;
+    }
+}
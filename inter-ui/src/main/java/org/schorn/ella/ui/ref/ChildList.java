@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.schorn.ella.ui.html.HTML.Element;
+
+/**
+ *
+ * The children of an element as a doubly linked list threaded through the
+ * children themselves (ElementImpl.previousSibling/nextSibling), so that
+ * prepending, appending and detaching a child are O(1). Iteration follows
+ * the links, get(index) materializes an array on first use after a change.
+ * The list is read-only to everyone but the owning element. Iterators fail
+ * fast: a child added, removed or moved away while iterating would otherwise
+ * have the iteration follow the links of another list.
+ *
+ * @author bschorn
+ */
+final class ChildList extends AbstractList<Element> {
+
+    private HtmlFactoryImpl.ElementImpl first = null;
+    private HtmlFactoryImpl.ElementImpl last = null;
+    private int size = 0;
+    private volatile Element[] array = null;
+
+    HtmlFactoryImpl.ElementImpl first() {
+        return this.first;
+    }
+
+    HtmlFactoryImpl.ElementImpl last() {
+        return this.last;
+    }
+
+    void addFirst(HtmlFactoryImpl.ElementImpl element) {
+        element.previousSibling = null;
+        element.nextSibling = this.first;
+        if (this.first == null) {
+            this.last = element;
+        } else {
+            this.first.previousSibling = element;
+        }
+        this.first = element;
+        this.size++;
+        this.array = null;
+        this.modCount++;
+    }
+
+    void addLast(HtmlFactoryImpl.ElementImpl element) {
+        element.nextSibling = null;
+        element.previousSibling = this.last;
+        if (this.last == null) {
+            this.first = element;
+        } else {
+            this.last.nextSibling = element;
+        }
+        this.last = element;
+        this.size++;
+        this.array = null;
+        this.modCount++;
+    }
+
+    /**
+     * Unlinks the element, which must be in this list.
+     *
+     * @param element
+     */
+    void unlink(HtmlFactoryImpl.ElementImpl element) {
+        if (element.previousSibling == null) {
+            this.first = element.nextSibling;
+        } else {
+            element.previousSibling.nextSibling = element.nextSibling;
+        }
+        if (element.nextSibling == null) {
+            this.last = element.previousSibling;
+        } else {
+            element.nextSibling.previousSibling = element.previousSibling;
+        }
+        element.previousSibling = null;
+        element.nextSibling = null;
+        this.size--;
+        this.array = null;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.first == null;
+    }
+
+    @Override
+    public Element get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, this.size));
+        }
+        Element[] elements = this.array;
+        if (elements == null) {
+            elements = new Element[this.size];
+            int i = 0;
+            for (HtmlFactoryImpl.ElementImpl element = this.first; element != null; element = element.nextSibling) {
+                elements[i++] = element;
+            }
+            this.array = elements;
+        }
+        return elements[index];
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int i = 0;
+        for (HtmlFactoryImpl.ElementImpl element = this.first; element != null; element = element.nextSibling) {
+            if (element == o) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof HtmlFactoryImpl.ElementImpl
+                && ((HtmlFactoryImpl.ElementImpl) o).parent != o
+                && ((HtmlFactoryImpl.ElementImpl) ((HtmlFactoryImpl.ElementImpl) o).parent).children == this;
+    }
+
+    @Override
+    public Iterator<Element> iterator() {
+        return new Iterator<Element>() {
+            private HtmlFactoryImpl.ElementImpl next = ChildList.this.first;
+            private final int expectedModCount = ChildList.this.modCount;
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public Element next() {
+                if (ChildList.this.modCount != this.expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (this.next == null) {
+                    throw new NoSuchElementException();
+                }
+                HtmlFactoryImpl.ElementImpl element = this.next;
+                this.next = element.nextSibling;
+                return element;
+            }
+        };
+    }
+}
@@ -23,6 +23,7 @@
  */
 package org.schorn.ella.ui.ref;
 
+import org.schorn.ella.ui.Implements;
 import org.schorn.ella.ui.html.HTML;
 import org.schorn.ella.ui.widget.InputWidgets;
 
@@ -30,6 +31,7 @@ import org.schorn.ella.ui.widget.InputWidgets;
  *
  * @author bschorn
  */
+@Implements(type = InputWidgets.class, value = "COMBOBOX")
 class ComboBoxImpl extends InputWidgetImpl implements InputWidgets.ComboBox {
 
     public ComboBoxImpl(String name, String label, String[] datalist) {
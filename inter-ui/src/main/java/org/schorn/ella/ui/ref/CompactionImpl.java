@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Maps every id and class name of the page (those only its style blocks
+ * name as well, so no short name can be mistaken for one left as it was)
+ * to base-62 tokens, then rewrites the tree in place and copies the blocks
+ * whose selectors change.
+ *
+ * @author bschorn
+ */
+final class CompactionImpl implements HTML.Compaction {
+
+    static private final Logger LGR = LoggerFactory.getLogger(CompactionImpl.class);
+    static private final String FIRST = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    static private final String DIGITS = FIRST + "0123456789";
+
+    static HTML.Compaction compact(Element root, List<CSS.Block> blocks) {
+        if (!(root instanceof HtmlFactoryImpl.ElementImpl)) {
+            throw new UnsupportedOperationException(String.format("%s.compact() - %s can not be rewritten in place",
+                    CompactionImpl.class.getSimpleName(), root.getClass().getSimpleName()));
+        }
+        CompactionImpl compaction = new CompactionImpl();
+        compaction.collect(root);
+        for (CSS.Block block : blocks) {
+            for (CSS.Selector selector : block.selectors()) {
+                compaction.collect(selector.render());
+            }
+        }
+        compaction.assign();
+        IdRewriter ids = new IdRewriter(compaction.idTokens);
+        ((HtmlFactoryImpl.ElementImpl) root).rewriteAttributes(attribute -> {
+            if (attribute.name().equals(HTML.GlobalAttributes.CLASS.tag())) {
+                return compaction.classAttribute(attribute);
+            }
+            return ids.rewrite(attribute);
+        });
+        for (CSS.Block block : blocks) {
+            compaction.blocks.add(compaction.block(block));
+        }
+        return compaction;
+    }
+
+    /**
+     * Bijective: 0..51 are the single letters, after which come the letters
+     * followed by base-62 digits. Tokens never start with a digit so they are
+     * valid in selectors.
+     *
+     * @param number
+     * @return
+     */
+    static String token(int number) {
+        StringBuilder builder = new StringBuilder(4);
+        builder.append(FIRST.charAt(number % FIRST.length()));
+        for (int rest = number / FIRST.length(); rest > 0; rest = (rest - 1) / DIGITS.length()) {
+            builder.append(DIGITS.charAt((rest - 1) % DIGITS.length()));
+        }
+        return builder.toString();
+    }
+
+    /*
+    original -> short, in the order they were first seen (the class names
+    then by how often they are used)
+     */
+    private final Map<String, String> idTokens = new LinkedHashMap<>();
+    private final Map<String, String> classTokens = new LinkedHashMap<>();
+    private final Map<String, int[]> classCounts = new LinkedHashMap<>();
+    /*
+    short -> original
+     */
+    private final Map<String, String> ids = new LinkedHashMap<>();
+    private final Map<String, String> classNames = new LinkedHashMap<>();
+    private final List<CSS.Block> blocks = new ArrayList<>();
+    /*
+    class values repeat from widget to widget: rewrite each one once
+     */
+    private final Map<String, Attribute> classAttributes = new HashMap<>();
+
+    private CompactionImpl() {
+    }
+
+    private void collect(Element element) {
+        for (Attribute attribute : element.attributes()) {
+            if (!attribute.hasValue()) {
+                continue;
+            }
+            if (attribute.name().equals(HTML.GlobalAttributes.CLASS.tag())) {
+                for (String className : classNamesOf(attribute.value())) {
+                    this.countClass(className);
+                }
+            } else {
+                for (String id : IdRewriter.idsOf(attribute)) {
+                    this.countId(id);
+                }
+            }
+        }
+        for (Element child : element.children()) {
+            this.collect(child);
+        }
+    }
+
+    private void collect(String selector) {
+        names(selector, (prefix, name) -> {
+            if (prefix == '.') {
+                this.countClass(name);
+            } else {
+                this.countId(name);
+            }
+            return null;
+        });
+    }
+
+    private void countId(String id) {
+        if (!id.isEmpty()) {
+            this.idTokens.putIfAbsent(id, null);
+        }
+    }
+
+    private void countClass(String className) {
+        if (!className.isEmpty()) {
+            this.classCounts.computeIfAbsent(className, k -> new int[1])[0]++;
+        }
+    }
+
+    private void assign() {
+        int next = 0;
+        for (Map.Entry<String, String> entry : this.idTokens.entrySet()) {
+            entry.setValue(token(next++));
+            this.ids.put(entry.getValue(), entry.getKey());
+        }
+        List<Map.Entry<String, int[]>> byCount = new ArrayList<>(this.classCounts.entrySet());
+        byCount.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        next = 0;
+        for (Map.Entry<String, int[]> entry : byCount) {
+            String token = token(next++);
+            this.classTokens.put(entry.getKey(), token);
+            this.classNames.put(token, entry.getKey());
+        }
+    }
+
+    private Attribute classAttribute(Attribute attribute) {
+        if (!attribute.hasValue()) {
+            return null;
+        }
+        return this.classAttributes.computeIfAbsent(attribute.value(), value -> this.classAttribute(attribute.name(), value));
+    }
+
+    private Attribute classAttribute(String name, String value) {
+        StringBuilder builder = new StringBuilder();
+        for (String className : classNamesOf(value)) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(this.classTokens.getOrDefault(className, className));
+        }
+        try {
+            return Attribute.create(name, builder.toString());
+        } catch (Exception ex) {
+            LGR.error("{}.classAttribute() - Caught Exception: {}",
+                    this.getClass().getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+        return null;
+    }
+
+    private CSS.Block block(CSS.Block block) {
+        List<CSS.Selector> selectors = new ArrayList<>();
+        boolean rewritten = false;
+        for (CSS.Selector selector : block.selectors()) {
+            String rendered = selector.render();
+            String compacted = names(rendered, (prefix, name)
+                    -> (prefix == '.' ? this.classTokens : this.idTokens).get(name));
+            rewritten |= compacted != rendered;
+            selectors.add(compacted != rendered ? CSS.Selector.create(compacted) : selector);
+        }
+        if (!rewritten) {
+            return block;
+        }
+        CSS.Block copy = CSS.Block.create();
+        for (CSS.Selector selector : selectors) {
+            copy.append(selector);
+        }
+        for (CSS.Rule rule : block.rules()) {
+            copy.append(rule);
+        }
+        return copy;
+    }
+
+    /**
+     * Visits the .class and #id names of the selector (not those inside
+     * attribute selectors or quotes).
+     *
+     * @param selector
+     * @param replace given '.' or '#' and the name, the name to put in its
+     * place or null to keep it
+     * @return the selector, the same instance if nothing was replaced
+     */
+    static String names(String selector, BiFunction<Character, String, String> replace) {
+        StringBuilder builder = null;
+        int copied = 0;
+        char quote = 0;
+        int brackets = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (brackets == 0 && (c == '.' || c == '#')) {
+                int end = i + 1;
+                while (end < selector.length() && isNameChar(selector.charAt(end))) {
+                    end++;
+                }
+                String replacement = end > i + 1 ? replace.apply(c, selector.substring(i + 1, end)) : null;
+                if (replacement != null) {
+                    if (builder == null) {
+                        builder = new StringBuilder(selector.length());
+                    }
+                    builder.append(selector, copied, i + 1).append(replacement);
+                    copied = end;
+                }
+                i = end - 1;
+            }
+        }
+        return builder == null ? selector : builder.append(selector, copied, selector.length()).toString();
+    }
+
+    /**
+     * The whitespace separated names of a class attribute (without the cost
+     * of a regular expression, this runs for every element of the page).
+     *
+     * @param value
+     * @return
+     */
+    static List<String> classNamesOf(String value) {
+        List<String> names = new ArrayList<>(2);
+        int start = -1;
+        for (int i = 0; i <= value.length(); i++) {
+            if (i == value.length() || Character.isWhitespace(value.charAt(i))) {
+                if (start >= 0) {
+                    names.add(value.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return names;
+    }
+
+    static private boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c >= 0x80;
+    }
+
+    @Override
+    public List<CSS.Block> blocks() {
+        return Collections.unmodifiableList(this.blocks);
+    }
+
+    @Override
+    public Map<String, String> ids() {
+        return Collections.unmodifiableMap(this.ids);
+    }
+
+    @Override
+    public Map<String, String> classNames() {
+        return Collections.unmodifiableMap(this.classNames);
+    }
+}
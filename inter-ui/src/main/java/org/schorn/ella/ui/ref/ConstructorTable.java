@@ -0,0 +1,223 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * The constructors of an implementation class, resolved once by arity into
+ * direct calls: a LambdaMetafactory Supplier, Function or BiFunction for up
+ * to two parameters and a spreading MethodHandle beyond.
+ *
+ * The constructor called is still the first (in declaration order) of the
+ * arity whose parameter types accept the arguments, a null argument being
+ * accepted by any type. No matching constructor, or one that throws, gives
+ * null.
+ *
+ * @author bschorn
+ */
+final class ConstructorTable {
+
+    static private final Logger LGR = LoggerFactory.getLogger(ConstructorTable.class);
+    static private final Candidate[] NONE = new Candidate[0];
+
+    private final Class<?> type;
+    private final Candidate[][] byArity;
+
+    ConstructorTable(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException ex) {
+            lookup = null;
+        }
+        List<List<Candidate>> byArity = new ArrayList<>();
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            int arity = constructor.getParameterCount();
+            while (byArity.size() <= arity) {
+                byArity.add(new ArrayList<>());
+            }
+            byArity.get(arity).add(candidate(lookup, constructor));
+        }
+        this.byArity = new Candidate[byArity.size()][];
+        for (int arity = 0; arity < byArity.size(); arity++) {
+            this.byArity[arity] = byArity.get(arity).toArray(NONE);
+        }
+    }
+
+    /**
+     * @return the class the table was resolved for (the factories check it
+     * against the current implementation of their enum constant)
+     */
+    Class<?> type() {
+        return this.type;
+    }
+
+    Object newInstance(Object... params) {
+        if (params.length >= this.byArity.length) {
+            return null;
+        }
+        for (Candidate candidate : this.byArity[params.length]) {
+            if (candidate.accepts(params)) {
+                try {
+                    return candidate.create(params);
+                } catch (Throwable ex) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    static private Candidate candidate(MethodHandles.Lookup lookup, Constructor<?> constructor) {
+        Class<?>[] types = constructor.getParameterTypes();
+        if (lookup != null) {
+            try {
+                MethodHandle handle = lookup.unreflectConstructor(constructor);
+                if (types.length <= 2) {
+                    try {
+                        return lambda(lookup, handle, types);
+                    } catch (Throwable ex) {
+                        LGR.debug("{}.candidate() - Caught Exception: {}",
+                                ConstructorTable.class.getSimpleName(),
+                                ToString.stackTrace(ex));
+                    }
+                }
+                MethodHandle spreader = handle.asSpreader(Object[].class, types.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                return new Candidate(types) {
+                    @Override
+                    Object create(Object[] params) throws Throwable {
+                        return spreader.invokeExact(params);
+                    }
+                };
+            } catch (IllegalAccessException ex) {
+                LGR.debug("{}.candidate() - Caught Exception: {}",
+                        ConstructorTable.class.getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+        }
+        return new Candidate(types) {
+            @Override
+            Object create(Object[] params) throws Throwable {
+                try {
+                    return constructor.newInstance(params);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        };
+    }
+
+    /*
+     * Up to two parameters.
+     */
+    static private Candidate lambda(MethodHandles.Lookup lookup, MethodHandle handle, Class<?>[] types) throws Throwable {
+        switch (types.length) {
+            case 0: {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle, handle.type());
+                @SuppressWarnings("unchecked")
+                Supplier<Object> supplier = (Supplier<Object>) site.getTarget().invokeExact();
+                return new Candidate(types) {
+                    @Override
+                    Object create(Object[] params) {
+                        return supplier.get();
+                    }
+                };
+            }
+            case 1: {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type());
+                @SuppressWarnings("unchecked")
+                Function<Object, Object> function
+                        = (Function<Object, Object>) site.getTarget().invokeExact();
+                return new Candidate(types) {
+                    @Override
+                    Object create(Object[] params) {
+                        return function.apply(params[0]);
+                    }
+                };
+            }
+            default: {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(BiFunction.class),
+                        MethodType.methodType(Object.class, Object.class, Object.class),
+                        handle, handle.type());
+                @SuppressWarnings("unchecked")
+                BiFunction<Object, Object, Object> function
+                        = (BiFunction<Object, Object, Object>) site.getTarget().invokeExact();
+                return new Candidate(types) {
+                    @Override
+                    Object create(Object[] params) {
+                        return function.apply(params[0], params[1]);
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * A constructor and the parameter types it accepts.
+     */
+    static private abstract class Candidate {
+
+        private final Class<?>[] types;
+
+        Candidate(Class<?>[] types) {
+            this.types = types;
+        }
+
+        final boolean accepts(Object[] params) {
+            for (int i = 0; i < params.length; i++) {
+                if (params[i] != null && !this.types[i].isInstance(params[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        abstract Object create(Object[] params) throws Throwable;
+    }
+}
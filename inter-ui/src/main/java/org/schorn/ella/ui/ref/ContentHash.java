@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import org.schorn.ella.ui.html.HTML.Attribute;
+
+/**
+ *
+ * The content hash of an element, built bottom-up from its tag, rendered
+ * attributes, text and the content hashes of its children (or its style
+ * sheet's minified text). Every Element implementation hashes through here
+ * so that equal content hashes the same whichever tree it is in.
+ *
+ * Strings are hashed with 64-bit FNV-1a (length last, so that adjacent
+ * strings can not run into each other and text can be hashed as it streams) and the result is finished with the
+ * MurmurHash3 mixer, which children's hashes are combined from. Zero is not
+ * a hash, it marks one that has not been computed.
+ *
+ * @author bschorn
+ */
+final class ContentHash {
+
+    static private final long OFFSET = 0xcbf29ce484222325L;
+    static private final long PRIME = 0x100000001b3L;
+    static private final long ATTRIBUTE = 1;
+    static private final long TEXT = 2;
+    static private final long CHILD = 3;
+
+    private ContentHash() {
+    }
+
+    static long start(String tag) {
+        return string(OFFSET, tag);
+    }
+
+    static long attribute(long hash, Attribute attribute) {
+        return string((hash ^ ATTRIBUTE) * PRIME, attribute.render());
+    }
+
+    /**
+     * Null and empty text render the same and hash the same.
+     */
+    static long text(long hash, CharSequence text) {
+        return string((hash ^ TEXT) * PRIME, text == null ? "" : text);
+    }
+
+    /**
+     * Text hashed as it is appended, the same as text() of all of it.
+     */
+    static final class Text implements Appendable {
+
+        private long hash;
+        private long length = 0;
+
+        Text(long hash) {
+            this.hash = (hash ^ TEXT) * PRIME;
+        }
+
+        @Override
+        public Text append(CharSequence csq) {
+            return this.append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Text append(CharSequence csq, int start, int end) {
+            long hash = this.hash;
+            for (int i = start; i < end; i++) {
+                hash = (hash ^ csq.charAt(i)) * PRIME;
+            }
+            this.hash = hash;
+            this.length += end - start;
+            return this;
+        }
+
+        @Override
+        public Text append(char c) {
+            this.hash = (this.hash ^ c) * PRIME;
+            this.length++;
+            return this;
+        }
+
+        long hash() {
+            return (this.hash ^ this.length) * PRIME;
+        }
+    }
+
+    static long child(long hash, long child) {
+        return (Long.rotateLeft((hash ^ CHILD) * PRIME, 31) ^ child) * PRIME;
+    }
+
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    static private long string(long hash, CharSequence string) {
+        int length = string.length();
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ string.charAt(i)) * PRIME;
+        }
+        return (hash ^ length) * PRIME;
+    }
+}
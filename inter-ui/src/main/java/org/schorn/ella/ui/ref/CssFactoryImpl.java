@@ -23,16 +23,17 @@
  */
 package org.schorn.ella.ui.ref;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.StringJoiner;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import org.schorn.ella.ui.Implements;
 import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
 
 /**
  *
@@ -45,15 +46,19 @@ final class CssFactoryImpl implements CSS.CssFactory {
         return INSTANCE;
     }
 
+    /*
+    by CSS ordinal, for implementations set in place of the generated ones,
+    resolved on their first create()
+     */
+    private final ConstructorTable[] constructors = new ConstructorTable[CSS.values().length];
+
     private CssFactoryImpl() {
         this.register();
     }
 
     @Override
     public void register() {
-        CSS.BLOCK.setImpl(BlockImpl.class);
-        CSS.SELECTOR.setImpl(SelectorImpl.class);
-        CSS.RULE.setImpl(RuleImpl.class);
+        CSSConstructors.register();
     }
 
     @Override
@@ -63,50 +68,42 @@ final class CssFactoryImpl implements CSS.CssFactory {
             // ERROR
             return null;
         }
-        Constructor<?> constructor = null;
-        T newInstance = null;
-        for (Constructor<?> ctr : classFor.getDeclaredConstructors()) {
-            if (params.length == ctr.getParameterCount()) {
-                constructor = ctr;
-                for (int i = 0; i < params.length; i++) {
-                    Class<?> paramClass = ctr.getParameterTypes()[i];
-                    Object paramObj = params[i];
-                    if (paramObj == null || paramClass.isInstance(paramObj)) {
-                        continue;
-                    }
-                    constructor = null;
-                    break;
-                }
-            }
-            if (constructor != null) {
-                try {
-                    newInstance = (T) constructor.newInstance(params);
-                } catch (InvocationTargetException ite) {
-                    // ERROR
-                }
-                break;
+        if (classFor == CSSConstructors.implOf(css)) {
+            try {
+                @SuppressWarnings("unchecked")
+                T instance = (T) CSSConstructors.create(css, params);
+                return instance;
+            } catch (Exception ex) {
+                // ERROR
+                return null;
             }
         }
-        if (newInstance == null) {
-            StringJoiner joiner = new StringJoiner(", ", "[", "] ");
-            for (Object o : params) {
-                joiner.add(String.format("(%s) %s", o.getClass().getSimpleName(), o.toString()));
-            }
-            /*
-            LGR.error("{}.newInstance() - there is no constructor available to match the parameters {} specificed for interface {}",
-                CSS.class.getSimpleName(),
-                joiner.toString(),
-                css.interfaceOf.getSimpleName());
-             */
+        ConstructorTable table = this.constructors[css.ordinal()];
+        if (table == null || table.type() != classFor) {
+            table = new ConstructorTable(classFor);
+            this.constructors[css.ordinal()] = table;
         }
-        return newInstance;
+        @SuppressWarnings("unchecked")
+        T instance = (T) table.newInstance(params);
+        return instance;
     }
 
+    @Implements(type = CSS.class, value = "BLOCK")
     static public class BlockImpl implements CSS.Block {
 
-        private final String dummyKey = UUID.randomUUID().toString();
+        static private final AtomicLong BLOCKS = new AtomicLong();
+        /*
+        the key of a block without selectors, unique to the block and made
+        only when asked for
+         */
+        private String dummyKey = null;
         private final List<CSS.Selector> selectors = new ArrayList<>();
         private final List<CSS.Rule> rules = new ArrayList<>();
+        /*
+        Selectors and rules are immutable so the rendered block only changes
+        when one is appended (indexed by RenderMode.ordinal()).
+         */
+        private final String[] rendered = new String[HTML.RenderMode.values().length];
 
         @Override
         public void accept(CSS.Style style) {
@@ -126,6 +123,7 @@ final class CssFactoryImpl implements CSS.CssFactory {
         public CSS.Block append(CSS.Selector selector) {
             this.selectors.remove(selector);
             this.selectors.add(selector);
+            Arrays.fill(this.rendered, null);
             return this;
         }
 
@@ -133,12 +131,16 @@ final class CssFactoryImpl implements CSS.CssFactory {
         public CSS.Block append(CSS.Rule rule) {
             this.rules.remove(rule);
             this.rules.add(rule);
+            Arrays.fill(this.rendered, null);
             return this;
         }
 
         @Override
         public String selectorKey() {
             if (this.selectors.isEmpty()) {
+                if (this.dummyKey == null) {
+                    this.dummyKey = String.format("~%d", BLOCKS.incrementAndGet());
+                }
                 return this.dummyKey;
             }
             return this.selectors.stream()
@@ -158,22 +160,99 @@ final class CssFactoryImpl implements CSS.CssFactory {
 
         @Override
         public String render() {
-            StringJoiner sJoiner = new StringJoiner(", ", "    ", "");
-            this.selectors.forEach(s -> sJoiner.add(s.render()));
-            StringJoiner rJoiner = new StringJoiner("\n        ", " {\n        ", "\n    }\n");
-            this.rules.forEach(r -> rJoiner.add(r.render()));
-            StringBuilder builder = new StringBuilder();
-            builder.append("\n");
-            builder.append(sJoiner.toString());
-            builder.append(rJoiner.toString());
-            return builder.toString();
+            return this.render(HTML.RenderMode.PRETTY);
+        }
+
+        @Override
+        public void render(Appendable out) throws IOException {
+            out.append(this.render(HTML.RenderMode.PRETTY));
+        }
+
+        @Override
+        public void render(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            out.append(this.render(renderMode));
+        }
+
+        private String render(HTML.RenderMode renderMode) {
+            String text = this.rendered[renderMode.ordinal()];
+            if (text == null) {
+                StringBuilder builder = new StringBuilder();
+                try {
+                    if (renderMode == HTML.RenderMode.PRETTY) {
+                        this.renderPretty(builder);
+                    } else {
+                        this.renderCompact(builder, renderMode);
+                    }
+                } catch (IOException ex) {
+                    // StringBuilder does not throw
+                }
+                text = builder.toString();
+                this.rendered[renderMode.ordinal()] = text;
+            }
+            return text;
         }
+
+        private void renderPretty(Appendable out) throws IOException {
+            out.append("\n    ");
+            boolean first = true;
+            for (CSS.Selector selector : this.selectors) {
+                if (!first) {
+                    out.append(", ");
+                }
+                selector.render(out);
+                first = false;
+            }
+            out.append(" {\n        ");
+            first = true;
+            for (CSS.Rule rule : this.rules) {
+                if (!first) {
+                    out.append("\n        ");
+                }
+                rule.render(out);
+                first = false;
+            }
+            out.append("\n    }\n");
+        }
+
+        /**
+         * COMPACT writes each block on a single line, MINIFIED drops all the
+         * optional whitespace and the last semicolon.
+         *
+         * @param out
+         * @param renderMode
+         * @throws IOException
+         */
+        private void renderCompact(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            boolean first = true;
+            for (CSS.Selector selector : this.selectors) {
+                if (!first) {
+                    out.append(',');
+                }
+                selector.render(out);
+                first = false;
+            }
+            out.append('{');
+            first = true;
+            for (CSS.Rule rule : this.rules) {
+                if (!first) {
+                    out.append(';');
+                }
+                rule.render(out, renderMode);
+                first = false;
+            }
+            out.append('}');
+            if (renderMode == HTML.RenderMode.COMPACT) {
+                out.append('\n');
+            }
+        }
+
         @Override
         public String toString() {
             return this.render();
         }
     }
 
+    @Implements(type = CSS.class, value = "SELECTOR")
     static public class SelectorImpl implements CSS.Selector {
 
         private final String selector;
@@ -193,6 +272,7 @@ final class CssFactoryImpl implements CSS.CssFactory {
         }
     }
 
+    @Implements(type = CSS.class, value = "RULE")
     static public class RuleImpl implements CSS.Rule {
 
         @Override
@@ -237,6 +317,20 @@ final class CssFactoryImpl implements CSS.CssFactory {
             return String.format("%s: %s;", this.property.toString(), this.value);
         }
 
+        @Override
+        public void render(Appendable out) throws IOException {
+            out.append(this.property.toString()).append(": ").append(this.value).append(';');
+        }
+
+        @Override
+        public void render(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            if (renderMode == HTML.RenderMode.PRETTY) {
+                this.render(out);
+            } else {
+                out.append(this.property.toString()).append(':').append(this.value);
+            }
+        }
+
         @Override
         public String toString() {
             return this.render();
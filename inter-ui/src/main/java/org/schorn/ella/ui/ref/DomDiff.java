@@ -0,0 +1,402 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Computes the HTML.Patch operations that turn one element tree into another.
+ *
+ * Children are reconciled per parent: unmatched old children are removed,
+ * then the new children are placed right to left, each one inserted or moved
+ * in front of its (already placed) next sibling. Children on the longest
+ * run that is already in order are never moved. Matched children are then
+ * compared recursively, so every operation addresses a parent whose child
+ * list is final by the time the client applies it.
+ *
+ * Ids are not required to be the same from one build to the next: children
+ * left unmatched by id are paired by tag in document order, and an element
+ * whose id changed is addressed by its position until its new id is set.
+ *
+ * @author bschorn
+ */
+final class DomDiff {
+
+    static private final Logger LGR = LoggerFactory.getLogger(DomDiff.class);
+
+    private final List<HTML.Patch> patches = new ArrayList<>();
+
+    private DomDiff() {
+    }
+
+    static List<HTML.Patch> diff(Element before, Element after) {
+        DomDiff domDiff = new DomDiff();
+        if (before.tag().equals(after.tag())) {
+            domDiff.diffNode(before, after, Target.ROOT);
+        } else {
+            domDiff.add(HTML.Patch.Op.REPLACE, Target.ROOT, html(after));
+        }
+        return domDiff.patches;
+    }
+
+    private void diffNode(Element before, Element after, Target target) {
+        if (before.tag().equals("style")) {
+            // the CSS blocks are not elements, send it whole when it changed
+            if (!before.render().equals(after.render())) {
+                this.add(HTML.Patch.Op.REPLACE, target, html(after));
+            }
+            return;
+        }
+        this.diffAttributes(before, after, target);
+        String text = textOf(after);
+        if (!textOf(before).equals(text)) {
+            this.add(HTML.Patch.Op.SET_TEXT, target, text);
+        }
+        this.diffChildren(before, after, target);
+    }
+
+    private void diffAttributes(Element before, Element after, Target target) {
+        Map<String, String> beforeValues = new LinkedHashMap<>();
+        for (Attribute attribute : before.attributes()) {
+            beforeValues.put(attribute.name(), attribute.value());
+        }
+        for (Attribute attribute : after.attributes()) {
+            String value = attribute.value();
+            if (!Objects.equals(beforeValues.remove(attribute.name()), value)) {
+                this.add(HTML.Patch.Op.SET_ATTRIBUTE, target, attribute.name(), value);
+            }
+        }
+        for (String name : beforeValues.keySet()) {
+            this.add(HTML.Patch.Op.REMOVE_ATTRIBUTE, target, name);
+        }
+    }
+
+    private void diffChildren(Element before, Element after, Target target) {
+        List<Element> oldChildren = childrenOf(before);
+        List<Element> newChildren = childrenOf(after);
+        int[] matches = match(oldChildren, newChildren);
+
+        boolean[] kept = new boolean[oldChildren.size()];
+        for (int match : matches) {
+            if (match >= 0) {
+                kept[match] = true;
+            }
+        }
+        List<Element> current = new ArrayList<>(oldChildren);
+        for (int i = oldChildren.size() - 1; i >= 0; i--) {
+            if (!kept[i]) {
+                this.add(HTML.Patch.Op.REMOVE, target, i);
+                current.remove(i);
+            }
+        }
+
+        boolean[] stays = longestIncreasingRun(matches);
+        Element anchor = null;
+        for (int j = newChildren.size() - 1; j >= 0; j--) {
+            Element element;
+            if (matches[j] < 0) {
+                element = newChildren.get(j);
+                int index = indexOf(current, anchor);
+                this.add(HTML.Patch.Op.INSERT, target, index, html(element));
+                current.add(index, element);
+            } else {
+                element = oldChildren.get(matches[j]);
+                if (!stays[j]) {
+                    int from = indexOf(current, element);
+                    current.remove(from);
+                    int to = indexOf(current, anchor);
+                    this.add(HTML.Patch.Op.MOVE, target, from, to);
+                    current.add(to, element);
+                }
+            }
+            anchor = element;
+        }
+
+        for (int j = 0; j < newChildren.size(); j++) {
+            if (matches[j] >= 0) {
+                Element element = oldChildren.get(matches[j]);
+                this.diffNode(element, newChildren.get(j), target.child(element, newChildren.get(j), j));
+            }
+        }
+    }
+
+    /**
+     * Pairs each new child with an old one: first by id, then those left
+     * over (with no id, or one that is not among the old children) with the
+     * next old child of the same tag that is left over as well.
+     *
+     * @return for each new child the index of its old child or -1
+     */
+    static private int[] match(List<Element> oldChildren, List<Element> newChildren) {
+        Map<String, Integer> keyed = new HashMap<>();
+        for (int i = 0; i < oldChildren.size(); i++) {
+            String id = idOf(oldChildren.get(i));
+            if (!id.isEmpty()) {
+                keyed.putIfAbsent(id, i);
+            }
+        }
+        int[] matches = new int[newChildren.size()];
+        Arrays.fill(matches, -1);
+        boolean[] matched = new boolean[oldChildren.size()];
+        for (int j = 0; j < newChildren.size(); j++) {
+            Element element = newChildren.get(j);
+            String id = idOf(element);
+            Integer i = id.isEmpty() ? null : keyed.remove(id);
+            if (i != null && oldChildren.get(i).tag().equals(element.tag())) {
+                matches[j] = i;
+                matched[i] = true;
+            }
+        }
+        Map<String, ArrayDeque<Integer>> unmatched = new HashMap<>();
+        for (int i = 0; i < oldChildren.size(); i++) {
+            if (!matched[i]) {
+                unmatched.computeIfAbsent(oldChildren.get(i).tag(), k -> new ArrayDeque<>()).add(i);
+            }
+        }
+        for (int j = 0; j < newChildren.size(); j++) {
+            if (matches[j] < 0) {
+                ArrayDeque<Integer> queue = unmatched.get(newChildren.get(j).tag());
+                Integer i = queue == null ? null : queue.poll();
+                if (i != null) {
+                    matches[j] = i;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Marks the matched children that make up the longest run already in
+     * their old relative order (patience sorting, O(n log n)).
+     */
+    static private boolean[] longestIncreasingRun(int[] matches) {
+        int n = matches.length;
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int j = 0; j < n; j++) {
+            if (matches[j] < 0) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (matches[tails[mid]] < matches[j]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[j] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = j;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] stays = new boolean[n];
+        for (int j = length > 0 ? tails[length - 1] : -1; j >= 0; j = previous[j]) {
+            stays[j] = true;
+        }
+        return stays;
+    }
+
+    static private int indexOf(List<Element> elements, Element element) {
+        if (element == null) {
+            return elements.size();
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) == element) {
+                return i;
+            }
+        }
+        return elements.size();
+    }
+
+    static private List<Element> childrenOf(Element element) {
+        List<Element> children = new ArrayList<>(element.children().size());
+        for (Element child : element.children()) {
+            if (child.parent() == element) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    static private String idOf(Element element) {
+        String id = element.getId();
+        return id == null ? "" : id;
+    }
+
+    static private String textOf(Element element) {
+        String text = element.getTextContent();
+        return text == null ? "" : text;
+    }
+
+    static private String html(Element element) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            element.render(builder, HTML.RenderMode.MINIFIED);
+        } catch (IOException ex) {
+            LGR.error("{}.html() - Caught Exception: {}",
+                    DomDiff.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+        return builder.toString();
+    }
+
+    private void add(HTML.Patch.Op op, Target target, Object... args) {
+        this.patches.add(new PatchImpl(op, target, args));
+    }
+
+    /**
+     * The nearest element id (null for the root of the diff) followed by the
+     * child indexes from there.
+     */
+    static final class Target {
+
+        static final Target ROOT = new Target(null, new int[0]);
+
+        private final String id;
+        private final int[] path;
+
+        private Target(String id, int[] path) {
+            this.id = id;
+            this.path = path;
+        }
+
+        /**
+         * By id when the child keeps its id, otherwise by its index (the
+         * client only has the old id, or none, until the id is set).
+         */
+        Target child(Element before, Element after, int index) {
+            String childId = idOf(after);
+            if (!childId.isEmpty() && childId.equals(idOf(before))) {
+                return new Target(childId, new int[0]);
+            }
+            int[] childPath = Arrays.copyOf(this.path, this.path.length + 1);
+            childPath[this.path.length] = index;
+            return new Target(this.id, childPath);
+        }
+
+        void render(StringBuilder builder) {
+            builder.append('[');
+            if (this.id == null) {
+                builder.append("null");
+            } else {
+                json(builder, this.id);
+            }
+            for (int index : this.path) {
+                builder.append(',').append(index);
+            }
+            builder.append(']');
+        }
+    }
+
+    static final class PatchImpl implements HTML.Patch {
+
+        private final Op op;
+        private final Target target;
+        private final Object[] args;
+
+        PatchImpl(Op op, Target target, Object[] args) {
+            this.op = op;
+            this.target = target;
+            this.args = args;
+        }
+
+        @Override
+        public Op op() {
+            return this.op;
+        }
+
+        @Override
+        public String render() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("[\"").append(this.op.code()).append("\",");
+            this.target.render(builder);
+            for (Object arg : this.args) {
+                builder.append(',');
+                if (arg instanceof Integer) {
+                    builder.append(arg);
+                } else {
+                    json(builder, arg.toString());
+                }
+            }
+            return builder.append(']').toString();
+        }
+
+        @Override
+        public String toString() {
+            return this.render();
+        }
+    }
+
+    static private void json(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029 || c == '<') {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+}
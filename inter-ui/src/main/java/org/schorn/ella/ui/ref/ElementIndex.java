@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+
+/**
+ *
+ * The id, class and tag index of a tree, held by its root. Built with one walk on
+ * first lookup (and only then published to other threads) and from then on
+ * kept up to date by the elements as subtrees are appended, inserted or moved
+ * and as ids and classes are set.
+ *
+ * @author bschorn
+ */
+final class ElementIndex {
+
+    /*
+    Ids should be unique but nothing enforces it, the elements sharing an id
+    are all kept so that removing one leaves the others findable.
+     */
+    private final Map<String, Set<Element>> ids = new HashMap<>();
+    private final Map<String, Set<Element>> classes = new HashMap<>();
+    private final Map<String, Set<Element>> tags = new HashMap<>();
+
+    static ElementIndex build(HtmlFactoryImpl.ElementImpl root) {
+        ElementIndex index = new ElementIndex();
+        index.addSubtree(root);
+        return index;
+    }
+
+    Element byId(String id) {
+        Set<Element> elements = this.ids.get(id);
+        return elements == null ? null : elements.iterator().next();
+    }
+
+    List<Element> byClass(String className) {
+        Set<Element> elements = this.classes.get(className);
+        if (elements == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(elements));
+    }
+
+    /**
+     * The elements with the id, class or tag for the selector engine.
+     *
+     * @return the live set, null if there are none
+     */
+    Set<Element> withId(String id) {
+        return this.ids.get(id);
+    }
+
+    Set<Element> withClass(String className) {
+        return this.classes.get(className);
+    }
+
+    Set<Element> withTag(String tag) {
+        return this.tags.get(tag);
+    }
+
+    void add(HtmlFactoryImpl.ElementImpl element) {
+        this.addId(element, element.idAttribute());
+        for (String className : element.classTokens()) {
+            this.addClass(element, className);
+        }
+    }
+
+    void remove(HtmlFactoryImpl.ElementImpl element) {
+        this.removeId(element, element.idAttribute());
+        for (String className : element.classTokens()) {
+            this.removeClass(element, className);
+        }
+    }
+
+    void addSubtree(HtmlFactoryImpl.ElementImpl element) {
+        this.add(element);
+        put(this.tags, element.tag, element);
+        for (Element child : element.children()) {
+            this.addSubtree((HtmlFactoryImpl.ElementImpl) child);
+        }
+    }
+
+    void removeSubtree(HtmlFactoryImpl.ElementImpl element) {
+        this.remove(element);
+        remove(this.tags, element.tag, element);
+        for (Element child : element.children()) {
+            this.removeSubtree((HtmlFactoryImpl.ElementImpl) child);
+        }
+    }
+
+    void addId(Element element, Attribute id) {
+        if (id != null) {
+            put(this.ids, id.value(), element);
+        }
+    }
+
+    void removeId(Element element, Attribute id) {
+        if (id != null) {
+            remove(this.ids, id.value(), element);
+        }
+    }
+
+    void addClass(Element element, String className) {
+        put(this.classes, className, element);
+    }
+
+    void removeClass(Element element, String className) {
+        remove(this.classes, className, element);
+    }
+
+    static private void put(Map<String, Set<Element>> map, String key, Element element) {
+        map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(element);
+    }
+
+    static private void remove(Map<String, Set<Element>> map, String key, Element element) {
+        Set<Element> elements = map.get(key);
+        if (elements != null && elements.remove(element) && elements.isEmpty()) {
+            map.remove(key);
+        }
+    }
+}
@@ -0,0 +1,1062 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * HTML.FlatDocument, elements and attributes as rows of int columns.
+ *
+ * An element row holds its tag (index into the tag table), parent, first and
+ * last child, previous and next sibling (element rows, -1 for none), first
+ * attribute (attribute row) and text (offset and length in the text pool,
+ * a char buffer on or off heap like the columns). An
+ * attribute row holds its name (index into the name table), its rendered
+ * form (index into the interned value pool) and the next attribute of the
+ * element. Nothing is ever freed, an element that is appended elsewhere is
+ * relinked and a replaced text or attribute leaves its old value in the pool.
+ *
+ * @author bschorn
+ */
+final class FlatDocumentImpl implements HTML.FlatDocument {
+
+    static private final Logger LGR = LoggerFactory.getLogger(FlatDocumentImpl.class);
+    static private final Map<String, HTML.TagOmission> TAG_OMISSIONS = new ConcurrentHashMap<>();
+
+    static private final int TAG = 0;
+    static private final int PARENT = 1;
+    static private final int FIRST = 2;
+    static private final int LAST = 3;
+    static private final int PREVIOUS = 4;
+    static private final int NEXT = 5;
+    static private final int ATTRIBUTE = 6;
+    static private final int TEXT = 7;
+    static private final int TEXT_LENGTH = 8;
+    static private final int ELEMENT_COLUMNS = 9;
+
+    static private final int NAME = 0;
+    static private final int VALUE = 1;
+    static private final int NEXT_ATTRIBUTE = 2;
+    static private final int ATTRIBUTE_COLUMNS = 3;
+
+    static private final int NONE = -1;
+
+    static private final Set<String> VOID = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta",
+            "param", "source", "track", "wbr"));
+
+    /**
+     * The tag omission of an element created by the factory for the tag (or
+     * copied in), void elements and None for tags it can not create.
+     *
+     * @param tag
+     * @return
+     */
+    static private HTML.TagOmission tagOmission(String tag) {
+        HTML.TagOmission tagOmission = TAG_OMISSIONS.get(tag);
+        if (tagOmission == null) {
+            tagOmission = VOID.contains(tag) ? HTML.TagOmission.EndMustBeOmitted : HTML.TagOmission.None;
+            for (HTML html : HTML.values()) {
+                if (html.name().equalsIgnoreCase(tag) || html.name().equalsIgnoreCase(tag + "_")) {
+                    try {
+                        tagOmission = html.createElement().tagOmission();
+                    } catch (Exception ex) {
+                        // no element without params
+                    }
+                    break;
+                }
+            }
+            TAG_OMISSIONS.put(tag, tagOmission);
+        }
+        return tagOmission;
+    }
+
+    private final boolean offHeap;
+    private final IntBuffer[] elements = new IntBuffer[ELEMENT_COLUMNS];
+    private final IntBuffer[] attributes = new IntBuffer[ATTRIBUTE_COLUMNS];
+    private int elementCount = 0;
+    private int attributeCount = 0;
+    /*
+    tags and attribute names, with what rendering needs to know of each tag
+     */
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIndex = new HashMap<>();
+    private HTML.TagOmission[] tagOmissions = new HTML.TagOmission[16];
+    private boolean[] phrasing = new boolean[16];
+    /*
+    attribute values are interned (repeated across rows), texts are not
+     */
+    private String[] values = new String[64];
+    private int valueCount = 0;
+    private final Map<String, Integer> valueIndex = new HashMap<>();
+    private CharBuffer texts;
+    private int textLength = 0;
+    /*
+    style elements copied in with their (frozen) style sheets, by render mode
+     */
+    private final Map<Integer, String[]> css = new HashMap<>();
+    private final int root;
+
+    FlatDocumentImpl(String rootTag, int capacity, boolean offHeap) {
+        this.offHeap = offHeap;
+        capacity = Math.max(capacity, 16);
+        for (int column = 0; column < ELEMENT_COLUMNS; column++) {
+            this.elements[column] = this.allocate(capacity);
+        }
+        for (int column = 0; column < ATTRIBUTE_COLUMNS; column++) {
+            this.attributes[column] = this.allocate(capacity);
+        }
+        this.texts = this.allocateChars(capacity * 4);
+        this.root = this.newElement(rootTag);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										STORAGE
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    private IntBuffer allocate(int capacity) {
+        if (this.offHeap) {
+            return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return IntBuffer.allocate(capacity);
+    }
+
+    private CharBuffer allocateChars(int capacity) {
+        if (this.offHeap) {
+            return ByteBuffer.allocateDirect(capacity * Character.BYTES).order(ByteOrder.nativeOrder()).asCharBuffer();
+        }
+        return CharBuffer.allocate(capacity);
+    }
+
+    /**
+     * Doubles the columns when they are full.
+     */
+    private void grow(IntBuffer[] columns, int count) {
+        if (count < columns[0].capacity()) {
+            return;
+        }
+        this.resize(columns, count, Math.max(columns[0].capacity() * 2, 16));
+    }
+
+    private void resize(IntBuffer[] columns, int count, int capacity) {
+        for (int column = 0; column < columns.length; column++) {
+            IntBuffer resized = this.allocate(capacity);
+            IntBuffer old = columns[column].duplicate();
+            old.rewind();
+            old.limit(count);
+            resized.put(old);
+            resized.rewind();
+            columns[column] = resized;
+        }
+    }
+
+    private void resizeTexts(int capacity) {
+        CharBuffer resized = this.allocateChars(capacity);
+        CharBuffer old = this.texts.duplicate();
+        old.rewind();
+        old.limit(this.textLength);
+        resized.put(old);
+        resized.rewind();
+        this.texts = resized;
+    }
+
+    private int get(int element, int column) {
+        return this.elements[column].get(element);
+    }
+
+    private void set(int element, int column, int value) {
+        this.elements[column].put(element, value);
+    }
+
+    private int newElement(String tag) {
+        this.grow(this.elements, this.elementCount);
+        int element = this.elementCount++;
+        this.set(element, TAG, this.name(tag));
+        this.set(element, PARENT, NONE);
+        this.set(element, FIRST, NONE);
+        this.set(element, LAST, NONE);
+        this.set(element, PREVIOUS, NONE);
+        this.set(element, NEXT, NONE);
+        this.set(element, ATTRIBUTE, NONE);
+        this.set(element, TEXT, NONE);
+        this.set(element, TEXT_LENGTH, 0);
+        return element;
+    }
+
+    private int name(String name) {
+        Integer index = this.nameIndex.get(name);
+        if (index == null) {
+            index = this.names.size();
+            this.names.add(name);
+            this.nameIndex.put(name, index);
+            if (index == this.tagOmissions.length) {
+                this.tagOmissions = Arrays.copyOf(this.tagOmissions, index * 2);
+                this.phrasing = Arrays.copyOf(this.phrasing, index * 2);
+            }
+            this.tagOmissions[index] = tagOmission(name);
+            this.phrasing[index] = HtmlFactoryImpl.ElementImpl.isPhrasing(name);
+        }
+        return index;
+    }
+
+    private int value(String value) {
+        Integer index = this.valueIndex.get(value);
+        if (index == null) {
+            if (this.valueCount == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(this.valueCount * 2, 16));
+            }
+            index = this.valueCount++;
+            this.values[index] = value;
+            this.valueIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private String tag(int element) {
+        return this.names.get(this.get(element, TAG));
+    }
+
+    private HTML.TagOmission tagOmission(int element) {
+        return this.tagOmissions[this.get(element, TAG)];
+    }
+
+    private boolean isPhrasing(int element) {
+        return this.phrasing[this.get(element, TAG)];
+    }
+
+    private String text(int element) {
+        int text = this.get(element, TEXT);
+        return text == NONE ? "" : this.texts.subSequence(text, text + this.get(element, TEXT_LENGTH)).toString();
+    }
+
+    /**
+     * Overwrites the element's text in place when the new text fits, else
+     * adds it at the end of the pool.
+     */
+    private void setText(int element, String content) {
+        if (content == null || content.isEmpty()) {
+            this.set(element, TEXT, NONE);
+            this.set(element, TEXT_LENGTH, 0);
+            return;
+        }
+        int text = this.get(element, TEXT);
+        if (text == NONE || content.length() > this.get(element, TEXT_LENGTH)) {
+            if (this.textLength + content.length() > this.texts.capacity()) {
+                this.resizeTexts(Math.max(this.texts.capacity() * 2, this.textLength + content.length()));
+            }
+            text = this.textLength;
+            this.textLength += content.length();
+            this.set(element, TEXT, text);
+        }
+        for (int i = 0; i < content.length(); i++) {
+            this.texts.put(text + i, content.charAt(i));
+        }
+        this.set(element, TEXT_LENGTH, content.length());
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										ATTRIBUTES
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    private int findAttribute(int element, String name) {
+        Integer index = this.nameIndex.get(name);
+        if (index == null) {
+            return NONE;
+        }
+        for (int attribute = this.get(element, ATTRIBUTE); attribute != NONE;
+                attribute = this.attributes[NEXT_ATTRIBUTE].get(attribute)) {
+            if (this.attributes[NAME].get(attribute) == index) {
+                return attribute;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Replaces the rendered form of the attribute with the name, or adds it
+     * after the element's other attributes.
+     */
+    private void putAttribute(int element, String name, String rendered) {
+        int attribute = this.findAttribute(element, name);
+        if (attribute != NONE) {
+            this.attributes[VALUE].put(attribute, this.value(rendered));
+            return;
+        }
+        this.grow(this.attributes, this.attributeCount);
+        attribute = this.attributeCount++;
+        this.attributes[NAME].put(attribute, this.name(name));
+        this.attributes[VALUE].put(attribute, this.value(rendered));
+        this.attributes[NEXT_ATTRIBUTE].put(attribute, NONE);
+        int last = this.get(element, ATTRIBUTE);
+        if (last == NONE) {
+            this.set(element, ATTRIBUTE, attribute);
+        } else {
+            while (this.attributes[NEXT_ATTRIBUTE].get(last) != NONE) {
+                last = this.attributes[NEXT_ATTRIBUTE].get(last);
+            }
+            this.attributes[NEXT_ATTRIBUTE].put(last, attribute);
+        }
+    }
+
+    /**
+     * @return the value of the attribute from its rendered form (name='value'
+     * or name alone for flags)
+     */
+    private String attributeValue(int attribute) {
+        String name = this.names.get(this.attributes[NAME].get(attribute));
+        String rendered = this.values[this.attributes[VALUE].get(attribute)];
+        return rendered.length() > name.length() + 2
+                ? rendered.substring(name.length() + 2, rendered.length() - 1)
+                : "";
+    }
+
+    private void addClass(int element, String className) {
+        String name = HTML.GlobalAttributes.CLASS.tag();
+        int attribute = this.findAttribute(element, name);
+        if (attribute == NONE) {
+            this.putAttribute(element, name, String.format("%s='%s'", name, className));
+            return;
+        }
+        String value = this.attributeValue(attribute);
+        for (String token : value.split(" ")) {
+            if (token.equals(className)) {
+                return;
+            }
+        }
+        this.attributes[VALUE].put(attribute, this.value(value.isEmpty()
+                ? String.format("%s='%s'", name, className)
+                : String.format("%s='%s %s'", name, value, className)));
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										TREE
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    private void unlink(int element) {
+        int parent = this.get(element, PARENT);
+        if (parent == NONE) {
+            return;
+        }
+        int previous = this.get(element, PREVIOUS);
+        int next = this.get(element, NEXT);
+        if (previous == NONE) {
+            this.set(parent, FIRST, next);
+        } else {
+            this.set(previous, NEXT, next);
+        }
+        if (next == NONE) {
+            this.set(parent, LAST, previous);
+        } else {
+            this.set(next, PREVIOUS, previous);
+        }
+        this.set(element, PARENT, NONE);
+        this.set(element, PREVIOUS, NONE);
+        this.set(element, NEXT, NONE);
+    }
+
+    private void link(int parent, int element, boolean first) {
+        this.unlink(element);
+        this.set(element, PARENT, parent);
+        if (first) {
+            int next = this.get(parent, FIRST);
+            this.set(element, NEXT, next);
+            if (next == NONE) {
+                this.set(parent, LAST, element);
+            } else {
+                this.set(next, PREVIOUS, element);
+            }
+            this.set(parent, FIRST, element);
+        } else {
+            int previous = this.get(parent, LAST);
+            this.set(element, PREVIOUS, previous);
+            if (previous == NONE) {
+                this.set(parent, FIRST, element);
+            } else {
+                this.set(previous, NEXT, element);
+            }
+            this.set(parent, LAST, element);
+        }
+    }
+
+    /**
+     * An element of this document as is, anything else copied in.
+     */
+    private int adopt(Element element) {
+        if (element instanceof HTML.CustomElement) {
+            element = ((HTML.CustomElement) element).owner();
+        }
+        if (element instanceof View && ((View) element).document() == this) {
+            return ((View) element).element;
+        }
+        return this.copy(element);
+    }
+
+    private int copy(Element element) {
+        int copy = this.newElement(element.tag());
+        if (!(element instanceof View)) {
+            TAG_OMISSIONS.put(element.tag(), element.tagOmission());
+            this.tagOmissions[this.get(copy, TAG)] = element.tagOmission();
+        }
+        for (Attribute attribute : element.attributes()) {
+            if (attribute.hasValue()) {
+                this.putAttribute(copy, attribute.name(), attribute.render());
+            }
+        }
+        this.setText(copy, element.getTextContent());
+        if (element instanceof HtmlFactoryImpl.HtmlStyleImpl
+                && !((HtmlFactoryImpl.HtmlStyleImpl) element).cssBlocks().isEmpty()) {
+            this.css.put(copy, renderCss(((HtmlFactoryImpl.HtmlStyleImpl) element).cssBlocks()));
+        }
+        for (Element child : element.children()) {
+            this.link(copy, this.copy(child), false);
+        }
+        return copy;
+    }
+
+    static private String[] renderCss(List<CSS.Block> blocks) {
+        String[] css = new String[HTML.RenderMode.values().length];
+        for (HTML.RenderMode renderMode : HTML.RenderMode.values()) {
+            StringBuilder builder = new StringBuilder();
+            try {
+                for (CSS.Block block : blocks) {
+                    block.render(builder, renderMode);
+                }
+            } catch (IOException ex) {
+                LGR.error("{}.renderCss() - Caught Exception: {}",
+                        FlatDocumentImpl.class.getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            css[renderMode.ordinal()] = builder.toString();
+        }
+        return css;
+    }
+
+    /**
+     * Copies the element's subtree within the document, with the ids (and
+     * the references to them) rewritten.
+     */
+    private int cloneDeep(int element, IdRewriter ids) {
+        int copy = this.newElement(this.tag(element));
+        for (int attribute = this.get(element, ATTRIBUTE); attribute != NONE;
+                attribute = this.attributes[NEXT_ATTRIBUTE].get(attribute)) {
+            String name = this.names.get(this.attributes[NAME].get(attribute));
+            Attribute rewritten = ids.rewrite(new AttributeView(attribute));
+            this.putAttribute(copy, name, rewritten != null
+                    ? rewritten.render()
+                    : this.values[this.attributes[VALUE].get(attribute)]);
+        }
+        this.setText(copy, this.text(element));
+        if (this.css.containsKey(element)) {
+            this.css.put(copy, this.css.get(element));
+        }
+        for (int child = this.get(element, FIRST); child != NONE; child = this.get(child, NEXT)) {
+            this.link(copy, this.cloneDeep(child, ids), false);
+        }
+        return copy;
+    }
+
+    /**
+     * Not kept, the columns have no room for it: every call hashes the
+     * whole subtree.
+     */
+    private long contentHash(int element) {
+        long hash = ContentHash.start(this.tag(element));
+        for (int attribute = this.get(element, ATTRIBUTE); attribute != NONE;
+                attribute = this.attributes[NEXT_ATTRIBUTE].get(attribute)) {
+            hash = ContentHash.attribute(hash, new AttributeView(attribute));
+        }
+        hash = ContentHash.text(hash, this.text(element));
+        String[] css = this.css.isEmpty() ? null : this.css.get(element);
+        if (css != null) {
+            hash = ContentHash.text(hash, css[HTML.RenderMode.MINIFIED.ordinal()]);
+        }
+        for (int child = this.get(element, FIRST); child != NONE; child = this.get(child, NEXT)) {
+            hash = ContentHash.child(hash, this.contentHash(child));
+        }
+        return ContentHash.finish(hash);
+    }
+
+    private int top(int element) {
+        while (this.get(element, PARENT) != NONE) {
+            element = this.get(element, PARENT);
+        }
+        return element;
+    }
+
+    private int depth(int element) {
+        int depth = 0;
+        while ((element = this.get(element, PARENT)) != NONE) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * The elements below 'from' (in document order) for which the test
+     * holds.
+     */
+    private List<Element> collect(int from, IntPredicate test, boolean first) {
+        List<Element> found = new ArrayList<>();
+        int element = from;
+        while (element != NONE) {
+            if (test.test(element)) {
+                found.add(new View(element));
+                if (first) {
+                    break;
+                }
+            }
+            element = this.following(element, from);
+        }
+        return found;
+    }
+
+    /**
+     * @return the next element in document order within the subtree of
+     * 'top', NONE after the last one
+     */
+    private int following(int element, int top) {
+        int child = this.get(element, FIRST);
+        if (child != NONE) {
+            return child;
+        }
+        while (element != top) {
+            int next = this.get(element, NEXT);
+            if (next != NONE) {
+                return next;
+            }
+            element = this.get(element, PARENT);
+        }
+        return NONE;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										RENDER
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    /**
+     * Walks the columns from the element down and back up again (no
+     * recursion, report pages can be deep as well as wide) with the same
+     * whitespace and end tag omission rules as ElementImpl.
+     *
+     * @param out
+     * @param renderMode
+     * @param top
+     * @param level of top
+     * @throws IOException
+     */
+    private void render(Appendable out, HTML.RenderMode renderMode, int top, int level) throws IOException {
+        boolean pretty = renderMode == HTML.RenderMode.PRETTY;
+        boolean linefeeds = renderMode != HTML.RenderMode.MINIFIED;
+        boolean minified = !linefeeds;
+        int element = top;
+        while (true) {
+            /*
+            start tag, content and on down to the first child
+             */
+            HTML.TagOmission tagOmission = this.tagOmission(element);
+            if (pretty) {
+                out.append(indent(level));
+            }
+            out.append('<').append(this.tag(element));
+            for (int attribute = this.get(element, ATTRIBUTE); attribute != NONE;
+                    attribute = this.attributes[NEXT_ATTRIBUTE].get(attribute)) {
+                out.append(' ').append(this.values[this.attributes[VALUE].get(attribute)]);
+            }
+            out.append(tagOmission == HTML.TagOmission.EndMustBeOmitted ? " />" : ">");
+            int text = this.get(element, TEXT);
+            if (text != NONE) {
+                out.append(this.texts, text, text + this.get(element, TEXT_LENGTH));
+            }
+            int first = this.get(element, FIRST);
+            String[] css = this.css.isEmpty() ? null : this.css.get(element);
+            if (first != NONE || css != null) {
+                if (linefeeds) {
+                    out.append(HtmlFactoryImpl.ElementImpl.LINEFEED);
+                }
+                if (css == null) {
+                    if (minified && (text != NONE || this.isPhrasing(element)) && this.isPhrasing(first)) {
+                        out.append(' ');
+                    }
+                    element = first;
+                    level++;
+                    continue;
+                }
+                out.append(css[renderMode.ordinal()]);
+                if (pretty) {
+                    out.append(indent(level));
+                }
+            }
+            /*
+            end tag, then on to the next sibling or back up to the parent
+             */
+            while (true) {
+                int next = this.get(element, NEXT);
+                boolean omitEndTag = minified && element != top
+                        && HtmlFactoryImpl.ElementImpl.canOmitEndTag(this.tag(element), this.tagOmission(element),
+                                this.tag(this.get(element, PARENT)), next == NONE ? null : this.tag(next));
+                if (!omitEndTag && this.tagOmission(element) != HTML.TagOmission.EndMustBeOmitted) {
+                    out.append("</").append(this.tag(element)).append('>');
+                }
+                if (linefeeds) {
+                    out.append(HtmlFactoryImpl.ElementImpl.LINEFEED);
+                }
+                if (element == top) {
+                    return;
+                }
+                if (next != NONE) {
+                    if (minified && this.isPhrasing(element) && this.isPhrasing(next)) {
+                        out.append(' ');
+                    }
+                    element = next;
+                    break;
+                }
+                int parent = this.get(element, PARENT);
+                if (minified && this.isPhrasing(element) && this.isPhrasing(parent)
+                        && this.tagOmission(parent) != HTML.TagOmission.EndMustBeOmitted) {
+                    out.append(' ');
+                }
+                element = parent;
+                level--;
+                if (pretty) {
+                    out.append(indent(level));
+                }
+            }
+        }
+    }
+
+    static private String indent(int level) {
+        String[] indent = HtmlFactoryImpl.ElementImpl.INDENT;
+        return indent[Math.min(level, indent.length - 1)];
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										DOCUMENT
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    @Override
+    public Element root() {
+        return new View(this.root);
+    }
+
+    @Override
+    public Element createElement(String tag) {
+        return new View(this.newElement(tag));
+    }
+
+    @Override
+    public int size() {
+        return this.elementCount;
+    }
+
+    /**
+     * Trims the columns, the text pool and the value table to what is in
+     * use, they double again from there if the document grows.
+     */
+    @Override
+    public void compact() {
+        if (this.elements[0].capacity() > this.elementCount) {
+            this.resize(this.elements, this.elementCount, this.elementCount);
+        }
+        if (this.attributes[0].capacity() > this.attributeCount) {
+            this.resize(this.attributes, this.attributeCount, this.attributeCount);
+        }
+        if (this.texts.capacity() > this.textLength) {
+            this.resizeTexts(this.textLength);
+        }
+        if (this.values.length > this.valueCount) {
+            this.values = Arrays.copyOf(this.values, this.valueCount);
+        }
+    }
+
+    @Override
+    public long footprint() {
+        long bytes = 0;
+        for (IntBuffer column : this.elements) {
+            bytes += (long) column.capacity() * Integer.BYTES;
+        }
+        for (IntBuffer column : this.attributes) {
+            bytes += (long) column.capacity() * Integer.BYTES;
+        }
+        bytes += (long) this.texts.capacity() * Character.BYTES;
+        // references (compressed oops)
+        bytes += (long) this.values.length * 4;
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return this.render();
+    }
+
+    /**
+     * An element of the document, equal to every other view of the same row.
+     */
+    final class View implements Element {
+
+        final int element;
+
+        View(int element) {
+            this.element = element;
+        }
+
+        FlatDocumentImpl document() {
+            return FlatDocumentImpl.this;
+        }
+
+        @Override
+        public Element setId(String value) throws Exception {
+            if (value != null) {
+                this.addAttribute(Attribute.create(HTML.GlobalAttributes.ID, value));
+            }
+            return this;
+        }
+
+        @Override
+        public String getId() {
+            int attribute = findAttribute(this.element, HTML.GlobalAttributes.ID.tag());
+            return attribute == NONE ? "" : attributeValue(attribute);
+        }
+
+        @Override
+        public String tag() {
+            return FlatDocumentImpl.this.tag(this.element);
+        }
+
+        @Override
+        public HTML.TagOmission tagOmission() {
+            return FlatDocumentImpl.this.tagOmission(this.element);
+        }
+
+        @Override
+        public Element setTextContent(String content) {
+            setText(this.element, content);
+            return this;
+        }
+
+        @Override
+        public String getTextContent() {
+            return text(this.element);
+        }
+
+        @Override
+        public Element addAttribute(Attribute attribute) throws HTML.InvalidAttributeException {
+            if (attribute.hasValue()) {
+                putAttribute(this.element, attribute.name(), attribute.render());
+            }
+            return this;
+        }
+
+        @Override
+        public List<Attribute> attributes() {
+            List<Attribute> list = new ArrayList<>();
+            for (int attribute = get(this.element, ATTRIBUTE); attribute != NONE;
+                    attribute = FlatDocumentImpl.this.attributes[NEXT_ATTRIBUTE].get(attribute)) {
+                list.add(new AttributeView(attribute));
+            }
+            return list;
+        }
+
+        @Override
+        public Element addClass(String className) {
+            if (className != null) {
+                FlatDocumentImpl.this.addClass(this.element, className);
+            }
+            return this;
+        }
+
+        @Override
+        public Element append(Element element) {
+            if (element != null) {
+                link(this.element, adopt(element), false);
+            }
+            return this;
+        }
+
+        @Override
+        public Element insert(Element element) {
+            if (element != null) {
+                link(this.element, adopt(element), true);
+            }
+            return this;
+        }
+
+        @Override
+        public Element parent() {
+            int parent = get(this.element, PARENT);
+            return parent == NONE ? this : new View(parent);
+        }
+
+        @Override
+        public long contentHash() {
+            return FlatDocumentImpl.this.contentHash(this.element);
+        }
+
+        @Override
+        public List<Element> children() {
+            List<Element> children = new ArrayList<>();
+            for (int child = get(this.element, FIRST); child != NONE; child = get(child, NEXT)) {
+                children.add(new View(child));
+            }
+            return Collections.unmodifiableList(children);
+        }
+
+        @Override
+        public Optional<Element> getElementById(String id) {
+            Integer name = nameIndex.get(HTML.GlobalAttributes.ID.tag());
+            if (name == null || id == null) {
+                return Optional.empty();
+            }
+            List<Element> found = collect(top(this.element), element -> {
+                int attribute = findAttribute(element, HTML.GlobalAttributes.ID.tag());
+                return attribute != NONE && id.equals(attributeValue(attribute));
+            }, true);
+            return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+        }
+
+        @Override
+        public List<Element> getElementsByClass(String className) {
+            return collect(top(this.element), element -> {
+                int attribute = findAttribute(element, HTML.GlobalAttributes.CLASS.tag());
+                if (attribute == NONE) {
+                    return false;
+                }
+                for (String token : attributeValue(attribute).split(" ")) {
+                    if (token.equals(className)) {
+                        return true;
+                    }
+                }
+                return false;
+            }, false);
+        }
+
+        @Override
+        public Element cloneDeep() {
+            return new View(FlatDocumentImpl.this.cloneDeep(this.element, new IdRewriter(this)));
+        }
+
+        /**
+         * The rows below this one are walked in document order and each is
+         * matched right to left up the parent and sibling columns, there is
+         * no index to narrow the candidates.
+         *
+         * @param selector
+         * @return
+         */
+        @Override
+        public List<Element> querySelectorAll(String selector) {
+            SelectorQuery query = SelectorQuery.compile(selector);
+            Rows rows = new Rows();
+            return collect(this.element, element -> element != this.element && query.matches(rows, element), false);
+        }
+
+        @Override
+        public boolean matches(String selector) {
+            return SelectorQuery.compile(selector).matches(new Rows(), this.element);
+        }
+
+        @Override
+        public void throwException() throws Exception {
+        }
+
+        @Override
+        public String render() {
+            StringBuilder builder = new StringBuilder();
+            try {
+                this.render(builder);
+            } catch (IOException ex) {
+                LGR.error(ToString.stackTrace(ex));
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public void render(Appendable out) throws IOException {
+            this.render(out, HTML.RenderMode.PRETTY);
+        }
+
+        @Override
+        public void render(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            FlatDocumentImpl.this.render(out, renderMode, this.element, depth(this.element));
+        }
+
+        /**
+         * A single walk of the columns, there is nothing for the pool.
+         */
+        @Override
+        public void render(Appendable out, HTML.RenderMode renderMode, ForkJoinPool pool) throws IOException {
+            this.render(out, renderMode);
+        }
+
+        @Override
+        public void renderTo(OutputStream outputStream, HTML.RenderMode renderMode) throws IOException {
+            try (Utf8Sink sink = Utf8Sink.create(outputStream)) {
+                this.render(sink, renderMode);
+            }
+        }
+
+        @Override
+        public void renderTo(WritableByteChannel channel, HTML.RenderMode renderMode) throws IOException {
+            try (Utf8Sink sink = Utf8Sink.create(channel)) {
+                this.render(sink, renderMode);
+            }
+        }
+
+        @Override
+        public boolean equals(java.lang.Object object) {
+            return object instanceof View
+                    && ((View) object).document() == FlatDocumentImpl.this
+                    && ((View) object).element == this.element;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.element;
+        }
+
+        @Override
+        public String toString() {
+            return this.render();
+        }
+    }
+
+    /**
+     * The element rows as seen by selector queries.
+     */
+    final class Rows implements SelectorQuery.Rows {
+
+        @Override
+        public String tag(int element) {
+            return FlatDocumentImpl.this.tag(element);
+        }
+
+        @Override
+        public String attribute(int element, String name) {
+            int attribute = findAttribute(element, name);
+            return attribute == NONE ? null : attributeValue(attribute);
+        }
+
+        @Override
+        public int parent(int element) {
+            return get(element, PARENT);
+        }
+
+        @Override
+        public int previousSibling(int element) {
+            return get(element, PREVIOUS);
+        }
+    }
+
+    /**
+     * An attribute row, read only.
+     */
+    final class AttributeView implements Attribute {
+
+        final int attribute;
+
+        AttributeView(int attribute) {
+            this.attribute = attribute;
+        }
+
+        @Override
+        public String name() {
+            return names.get(attributes[NAME].get(this.attribute));
+        }
+
+        @Override
+        public String value() {
+            return attributeValue(this.attribute);
+        }
+
+        @Override
+        public boolean hasValue() {
+            return true;
+        }
+
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
+        @Override
+        public void setValue(String value) {
+            throw this.immutable();
+        }
+
+        @Override
+        public void addValue(Number value) {
+            throw this.immutable();
+        }
+
+        @Override
+        public void addValue(String value) {
+            throw this.immutable();
+        }
+
+        private UnsupportedOperationException immutable() {
+            return new UnsupportedOperationException(String.format("%s - attributes of flat documents are changed through the element",
+                    this.name()));
+        }
+
+        @Override
+        public String render() {
+            return values[attributes[VALUE].get(this.attribute)];
+        }
+
+        @Override
+        public String toString() {
+            return this.render();
+        }
+    }
+}
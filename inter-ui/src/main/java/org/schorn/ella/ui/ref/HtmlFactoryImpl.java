@@ -0,0 +1,2619 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.schorn.ella.ui.Implements;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.A;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.CustomElement;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.html.HTML.GlobalAttributes;
+import org.schorn.ella.ui.html.HTML.HtmlElement;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author bschorn
+ */
+class HtmlFactoryImpl implements HTML.HtmlFactory {
+
+    static private final Logger LGR = LoggerFactory.getLogger(HtmlFactoryImpl.class);
+
+    static private final HtmlFactoryImpl INSTANCE = new HtmlFactoryImpl();
+
+    static public HTML.HtmlFactory getFactory() {
+        return INSTANCE;
+    }
+
+    /*
+    by HTML ordinal, for implementations set in place of the generated ones,
+    resolved on their first create()
+     */
+    private final ConstructorTable[] constructors = new ConstructorTable[HTML.values().length];
+
+    /*
+    register() is left to the caller: a constant without an implementation
+    set creates through the generated table, so startup does not load the
+    120 implementation classes up front
+     */
+    private HtmlFactoryImpl() {
+    }
+
+    @Override
+    public void register() {
+        HTMLConstructors.register();
+    }
+
+    @Override
+    public <T> T createInstance(HTML html, Object... params) throws Exception {
+        Class<?> classFor = html.getImpl();
+        if (classFor == null || classFor == HTMLConstructors.implOf(html)) {
+            try {
+                @SuppressWarnings("unchecked")
+                T instance = (T) HTMLConstructors.create(html, params);
+                return instance;
+            } catch (Exception ex) {
+                // ERROR
+                return null;
+            }
+        }
+        ConstructorTable table = this.constructors[html.ordinal()];
+        if (table == null || table.type() != classFor) {
+            table = new ConstructorTable(classFor);
+            this.constructors[html.ordinal()] = table;
+        }
+        @SuppressWarnings("unchecked")
+        T instance = (T) table.newInstance(params);
+        return instance;
+    }
+
+    @Override
+    public List<HTML.Patch> diff(Element before, Element after) {
+        return DomDiff.diff(before, after);
+    }
+
+    @Override
+    public HTML.Template.Compiler templateCompiler(Element root, HTML.RenderMode renderMode) {
+        return new TemplateImpl.Compiler(root, renderMode);
+    }
+
+    @Override
+    public HTML.Persistent persistent(Element root) {
+        return PersistentImpl.of(root);
+    }
+
+    @Override
+    public HTML.Persistent persistent(Element root, boolean shareSubtrees) {
+        return PersistentImpl.of(root, shareSubtrees ? new PersistentImpl.Sharing() : null);
+    }
+
+    @Override
+    public HTML.FlatDocument flatDocument(String rootTag, int capacity, boolean offHeap) {
+        return new FlatDocumentImpl(rootTag, capacity, offHeap);
+    }
+
+    @Override
+    public HTML.TextContent textContent(CharSequence text, boolean escape) {
+        return TextContentImpl.of(text, escape);
+    }
+
+    @Override
+    public HTML.TextContent textContent(Supplier<Reader> reader, boolean escape) {
+        return TextContentImpl.of(reader, escape);
+    }
+
+    @Override
+    public HTML.TextContent textContent(Path path, long position, long count, boolean escape) {
+        return TextContentImpl.of(path, position, count, escape);
+    }
+
+    @Override
+    public HTML.Compaction compaction(Element root, List<CSS.Block> blocks) {
+        return CompactionImpl.compact(root, blocks);
+    }
+
+    static abstract class ElementImpl implements Element, Cloneable {
+
+        static private final AtomicInteger ID = new AtomicInteger(100);
+        static public final String[] INDENT = new String[]{"  ", "    ", "      ", "        ", "          ", "            ", "              ", "                ", "                  ", "                    "};
+        static public final String LINEFEED = "\n";
+        static private final Set<String> PHRASING = new HashSet<>(HTML.ContentCategory.Phrasing.members());
+        static private final Set<String> CLOSES_P = new HashSet<>(Arrays.asList(
+                "address", "article", "aside", "blockquote", "details", "div", "dl", "fieldset",
+                "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6",
+                "header", "hgroup", "hr", "main", "menu", "nav", "ol", "p", "pre", "section",
+                "table", "ul"));
+        static private final Set<String> KEEPS_P_END = new HashSet<>(Arrays.asList(
+                "a", "audio", "del", "ins", "map", "noscript", "video"));
+        private static final Logger LGR = LoggerFactory.getLogger(ElementImpl.class);
+
+        protected Element parent;
+        protected String tag;
+        /*
+        Most elements are leaves or wrappers with no or one attribute: a single
+        child is kept inline and the child list is created for the second (and
+        dropped with the last), likewise a single attribute is kept inline and
+        the store is created for the second.
+         */
+        protected ChildList children = null;
+        private ElementImpl child = null;
+        protected ElementImpl previousSibling = null;
+        protected ElementImpl nextSibling = null;
+        private Attribute attribute = null;
+        private AttributeStore attributes = null;
+        private volatile RenderCache renderCache = null;
+        private volatile long contentHash = 0;
+        private volatile ElementIndex index = null;
+        private boolean stable = false;
+        /*
+        Set when this element or one of its descendants is not memoizable,
+        their output can change without invalidate() so the element is not
+        captured either.
+         */
+        private boolean untracked;
+
+        ElementImpl(String tag) {
+            if (tag == null) {
+                this.tag = "root";
+            } else {
+                this.tag = tag;
+            }
+            this.parent = this;
+            this.untracked = !this.isMemoizable();
+        }
+
+        @Override
+        public String tag() {
+            return this.tag;
+        }
+
+        @Override
+        public Element insert(Element element) {
+            //validateContent(this, element);
+            if (element instanceof CustomElement) {
+                element = ((CustomElement) element).owner();
+            }
+            this.adopt((ElementImpl) element, true);
+            return this;
+        }
+
+        @Override
+        public Element append(Element element) {
+            //validateContent(this, element);
+            if (element instanceof CustomElement) {
+                element = ((CustomElement) element).owner();
+            }
+            this.adopt((ElementImpl) element, false);
+            return this;
+        }
+
+        /**
+         * Detaches the element from its tree and makes it the first or last
+         * child, moving its ids and classes from the old tree's index (if
+         * any) to this tree's index (if any).
+         *
+         * @param elementImpl
+         * @param first
+         */
+        private void adopt(ElementImpl elementImpl, boolean first) {
+            if (elementImpl == null) {
+                return;
+            }
+            if (elementImpl.parent != elementImpl) {
+                ElementIndex index = elementImpl.index();
+                if (index != null) {
+                    index.removeSubtree(elementImpl);
+                }
+                ((ElementImpl) elementImpl.parent).unlink(elementImpl);
+                ((ElementImpl) elementImpl.parent).invalidate();
+                if (elementImpl.untracked) {
+                    ((ElementImpl) elementImpl.parent).retrack();
+                }
+            }
+            elementImpl.parent = this;
+            elementImpl.index = null;
+            ElementIndex index = this.index();
+            if (index != null) {
+                index.addSubtree(elementImpl);
+            }
+            this.link(elementImpl, first);
+            if (elementImpl.untracked) {
+                this.untrack();
+            }
+            this.invalidate();
+        }
+
+        /**
+         * Marks this element and its ancestors as having output that is not
+         * tracked.
+         */
+        private void untrack() {
+            ElementImpl element = this;
+            while (!element.untracked) {
+                element.untracked = true;
+                if (element.parent == element) {
+                    break;
+                }
+                element = (ElementImpl) element.parent;
+            }
+        }
+
+        /**
+         * Clears the mark on this element and its ancestors once an untracked
+         * child is gone, up to the first one that is still untracked.
+         */
+        private void retrack() {
+            ElementImpl element = this;
+            while (element.untracked && element.isMemoizable()) {
+                for (ElementImpl child = element.firstChild(); child != null; child = child.nextSibling) {
+                    if (child.untracked) {
+                        return;
+                    }
+                }
+                element.untracked = false;
+                if (element.parent == element) {
+                    break;
+                }
+                element = (ElementImpl) element.parent;
+            }
+        }
+
+        private void link(ElementImpl child, boolean first) {
+            if (this.children == null) {
+                if (this.child == null) {
+                    child.previousSibling = null;
+                    child.nextSibling = null;
+                    this.child = child;
+                    return;
+                }
+                this.children = new ChildList();
+                this.children.addLast(this.child);
+                this.child = null;
+            }
+            if (first) {
+                this.children.addFirst(child);
+            } else {
+                this.children.addLast(child);
+            }
+        }
+
+        private void unlink(ElementImpl child) {
+            if (this.child == child) {
+                this.child = null;
+                return;
+            }
+            this.children.unlink(child);
+            if (this.children.isEmpty()) {
+                this.children = null;
+            }
+        }
+
+        final ElementImpl firstChild() {
+            return this.children == null ? this.child : this.children.first();
+        }
+
+        private ElementImpl root() {
+            ElementImpl element = this;
+            while (element.parent != element) {
+                element = (ElementImpl) element.parent;
+            }
+            return element;
+        }
+
+        /**
+         * @return the index of the tree, null if it has not been built
+         */
+        private ElementIndex index() {
+            return this.root().index;
+        }
+
+        /**
+         * The first lookups on a tree shared between threads can come at
+         * once, the index is built under the root's lock and only published
+         * once it is complete.
+         *
+         * @return the index of the tree, built if it has not been
+         */
+        final ElementIndex buildIndex() {
+            ElementImpl root = this.root();
+            ElementIndex index = root.index;
+            if (index == null) {
+                synchronized (root) {
+                    index = root.index;
+                    if (index == null) {
+                        root.index = index = ElementIndex.build(root);
+                    }
+                }
+            }
+            return index;
+        }
+
+        @Override
+        public Element cloneDeep() {
+            return this.cloneDeep(new IdRewriter(this));
+        }
+
+        /**
+         * Field by field copy (which carries over text content, the tag and
+         * the like) with its own children and attributes. Rendered output is
+         * kept unless an id in the subtree was rewritten.
+         *
+         * @param ids
+         * @return
+         */
+        private ElementImpl cloneDeep(IdRewriter ids) {
+            ElementImpl copy;
+            try {
+                copy = (ElementImpl) super.clone();
+            } catch (CloneNotSupportedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            int rewrites = ids.rewrites();
+            copy.parent = copy;
+            copy.previousSibling = null;
+            copy.nextSibling = null;
+            copy.index = null;
+            copy.attribute = null;
+            copy.attributes = null;
+            for (Attribute attribute : this.attributeList()) {
+                Attribute rewritten = ids.rewrite(attribute);
+                copy.putAttribute(rewritten != null ? rewritten : Attribute.copy(attribute));
+            }
+            copy.children = null;
+            copy.child = null;
+            for (ElementImpl child = this.firstChild(); child != null; child = child.nextSibling) {
+                ElementImpl childCopy = child.cloneDeep(ids);
+                childCopy.parent = copy;
+                copy.link(childCopy, false);
+            }
+            copy.cloned();
+            if (ids.rewrites() != rewrites) {
+                copy.renderCache = null;
+                copy.contentHash = 0;
+                copy.stable = false;
+            }
+            return copy;
+        }
+
+        /**
+         * Called on the copy once its children have been cloned, for
+         * subclasses with state of their own.
+         */
+        protected void cloned() {
+        }
+
+        /**
+         * Replaces in place, throughout the subtree, each attribute that the
+         * rewrite makes a new one of (null keeps it). The index of the tree
+         * is dropped, to be built again on its next use.
+         *
+         * @param rewrite
+         */
+        final void rewriteAttributes(UnaryOperator<Attribute> rewrite) {
+            this.root().index = null;
+            this.rewriteAttributes0(rewrite);
+        }
+
+        private void rewriteAttributes0(UnaryOperator<Attribute> rewrite) {
+            boolean rewritten = false;
+            for (Attribute attribute : this.attributeList()) {
+                Attribute newAttribute = rewrite.apply(attribute);
+                if (newAttribute != null) {
+                    this.putAttribute(newAttribute);
+                    rewritten = true;
+                }
+            }
+            if (rewritten) {
+                this.invalidate();
+            }
+            for (ElementImpl child = this.firstChild(); child != null; child = child.nextSibling) {
+                child.rewriteAttributes0(rewrite);
+            }
+        }
+
+        @Override
+        public Optional<Element> getElementById(String id) {
+            return Optional.ofNullable(this.buildIndex().byId(id));
+        }
+
+        @Override
+        public List<Element> getElementsByClass(String className) {
+            return this.buildIndex().byClass(className);
+        }
+
+        @Override
+        public List<Element> querySelectorAll(String selector) {
+            try {
+                return SelectorQuery.compile(selector).selectAll(this);
+            } catch (Exception ex) {
+                LGR.error("{}.querySelectorAll({}) - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        selector,
+                        ToString.stackTrace(ex));
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean matches(String selector) {
+            try {
+                return SelectorQuery.compile(selector).matches(this);
+            } catch (Exception ex) {
+                LGR.error("{}.matches({}) - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        selector,
+                        ToString.stackTrace(ex));
+            }
+            return false;
+        }
+
+        @Override
+        public Element addClass(String className) {
+            try {
+                if (className != null && this.addClass0(className)) {
+                    ElementIndex index = this.index();
+                    if (index != null) {
+                        index.addClass(this, className);
+                    }
+                    this.invalidate();
+                }
+            } catch (Exception ex) {
+                LGR.error(ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element addAttribute(HTML.Attribute attribute) throws HTML.InvalidAttributeException {
+            this.addAttribute0(attribute);
+            return this;
+        }
+
+        @Override
+        public List<Attribute> attributes() {
+            return new Attributes();
+        }
+
+        /**
+         * The attributes as they are now, for iterating over them here.
+         *
+         * @return
+         */
+        private List<Attribute> attributeList() {
+            if (this.attributes != null) {
+                return this.attributes;
+            }
+            return this.attribute == null ? Collections.emptyList() : Collections.singletonList(this.attribute);
+        }
+
+        /**
+         * The live, read-only attributes whether the one there is is held
+         * inline or they are in an attribute store.
+         */
+        private final class Attributes extends AbstractList<Attribute> {
+
+            @Override
+            public int size() {
+                AttributeStore attributes = ElementImpl.this.attributes;
+                if (attributes != null) {
+                    return attributes.size();
+                }
+                return ElementImpl.this.attribute == null ? 0 : 1;
+            }
+
+            @Override
+            public Attribute get(int index) {
+                AttributeStore attributes = ElementImpl.this.attributes;
+                if (attributes != null) {
+                    return attributes.get(index);
+                }
+                if (index != 0 || ElementImpl.this.attribute == null) {
+                    throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, this.size()));
+                }
+                return ElementImpl.this.attribute;
+            }
+        }
+
+        /**
+         * Adds (an immutable copy of) the attribute or replaces the one with
+         * the same name. Attributes are not changed in place, so what is
+         * handed out by attributes() can not change behind the render cache,
+         * the content hash or the index.
+         *
+         * @param attribute
+         */
+        private void putAttribute(Attribute attribute) {
+            attribute = Attribute.immutable(attribute);
+            if (this.attributes != null) {
+                this.attributes.put(attribute);
+            } else if (this.attribute == null || this.attribute.name().equals(attribute.name())) {
+                this.attribute = attribute;
+            } else {
+                this.promote();
+                this.attributes.put(attribute);
+            }
+        }
+
+        /**
+         * Moves the inline attribute into a new store.
+         */
+        private void promote() {
+            this.attributes = new AttributeStore();
+            this.attributes.put(this.attribute);
+            this.attribute = null;
+        }
+
+        /**
+         * @param className
+         * @return false if the class was already there
+         * @throws Exception
+         */
+        private boolean addClass0(String className) throws Exception {
+            if (this.attributes == null) {
+                Attribute attribute = this.attribute;
+                if (attribute == null) {
+                    this.attribute = Attribute.immutable(HTML.GlobalAttributes.CLASS, className);
+                    return true;
+                }
+                if (attribute.name().equals(HTML.GlobalAttributes.CLASS.tag())) {
+                    if (AttributeStore.tokens(attribute.value()).contains(className)) {
+                        return false;
+                    }
+                    this.attribute = Attribute.immutable(HTML.GlobalAttributes.CLASS,
+                            attribute.value() + ' ' + className);
+                    return true;
+                }
+                this.promote();
+            }
+            return this.attributes.addClass(className);
+        }
+
+        final Attribute idAttribute() {
+            if (this.attributes != null) {
+                return this.attributes.id();
+            }
+            Attribute attribute = this.attribute;
+            return attribute != null && attribute.name().equals(HTML.GlobalAttributes.ID.tag()) ? attribute : null;
+        }
+
+        /**
+         * @return the tokens of the class attribute (empty if there is none)
+         */
+        final Set<String> classTokens() {
+            if (this.attributes != null) {
+                return this.attributes.classTokens();
+            }
+            Attribute attribute = this.attribute;
+            return attribute != null && attribute.name().equals(HTML.GlobalAttributes.CLASS.tag())
+                    ? Collections.unmodifiableSet(AttributeStore.tokens(attribute.value()))
+                    : Collections.emptySet();
+        }
+
+        @Override
+        public Element setId(String value) throws Exception {
+            if (value != null) {
+                this.addAttribute0(Attribute.create(HTML.GlobalAttributes.ID, value));
+            }
+            return this;
+        }
+
+        @Override
+        public String getId() {
+            Attribute id = this.idAttribute();
+            if (id != null) {
+                return id.value();
+            }
+            return "";
+        }
+
+        @Override
+        public String render() {
+            StringBuilder builder = new StringBuilder();
+            try {
+                this.render(builder);
+            } catch (IOException ex) {
+                LGR.error(ToString.stackTrace(ex));
+            }
+            return builder.toString();
+        }
+
+        /**
+         * The number of ancestors, the indentation level of an element
+         * rendered on its own.
+         *
+         * @return
+         */
+        private int depth() {
+            int depth = 0;
+            for (ElementImpl element = this; element.parent != element; element = (ElementImpl) element.parent) {
+                depth++;
+            }
+            return depth;
+        }
+
+        @Override
+        public void render(Appendable out) throws IOException {
+            this.render(out, HTML.RenderMode.PRETTY);
+        }
+
+        @Override
+        public void render(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            this.render(out, renderMode, this.depth(), false);
+        }
+
+        @Override
+        public void render(Appendable out, HTML.RenderMode renderMode, ForkJoinPool pool) throws IOException {
+            ParallelRender.render(this, out, renderMode, this.depth(), pool);
+        }
+
+        @Override
+        public void renderTo(OutputStream outputStream, HTML.RenderMode renderMode) throws IOException {
+            try (Utf8Sink sink = Utf8Sink.create(outputStream)) {
+                this.render(sink, renderMode);
+            }
+        }
+
+        @Override
+        public void renderTo(WritableByteChannel channel, HTML.RenderMode renderMode) throws IOException {
+            try (Utf8Sink sink = Utf8Sink.create(channel)) {
+                this.render(sink, renderMode);
+            }
+        }
+
+        /**
+         * The level (depth) is passed down the render rather than stored on
+         * the elements so that rendering does not write any element state but
+         * the memoized output, and one tree can be rendered from several
+         * threads at once (not while it is being changed).
+         *
+         * An element that is rendered again without having been changed keeps
+         * its output, after which it is spliced in as-is. Only the outermost
+         * unchanged element captures, its descendants still splice in what
+         * they may already hold. Subtrees a parallel render forks are not
+         * captured (see ParallelRender), nor are elements that are not
+         * memoizable and their ancestors.
+         *
+         * @param out
+         * @param renderMode
+         * @param level
+         * @param omitEndTag
+         * @throws IOException
+         */
+        protected void render(Appendable out, HTML.RenderMode renderMode, int level, boolean omitEndTag) throws IOException {
+            RenderCache cache = this.renderCache;
+            boolean compiling = out instanceof TemplateImpl.Compiler.Builder;
+            if (cache != null && !compiling && cache.matches(renderMode, level, omitEndTag)) {
+                this.renderCache = cache.writeTo(out);
+            } else if (this.stable && !this.untracked && !compiling && !(out instanceof RenderCache.Capture)
+                    && !(out instanceof ParallelRender.Segments && ((ParallelRender.Segments) out).forks(this))) {
+                RenderCache.Capture capture = new RenderCache.Capture();
+                this.render0(capture, renderMode, level, omitEndTag);
+                this.renderCache = capture.toCache(renderMode, level, omitEndTag).writeTo(out);
+            } else {
+                this.render0(out, renderMode, level, omitEndTag);
+                this.stable = true;
+            }
+        }
+
+        private void render0(Appendable out, HTML.RenderMode renderMode, int level, boolean omitEndTag) throws IOException {
+            renderIndent(out, renderMode, level);
+            renderStartTag(out);
+            renderContent(out);
+            if (this.hasChildren()) {
+                renderLinefeed(out, renderMode);
+                if (!(out instanceof TemplateImpl.Compiler.Builder)
+                        || !((TemplateImpl.Compiler.Builder) out).repeat(this, renderMode, level)) {
+                    renderChildren(out, renderMode, level);
+                }
+                renderIndent(out, renderMode, level);
+            }
+            if (!omitEndTag) {
+                renderEndTag(out);
+            }
+            renderLinefeed(out, renderMode);
+        }
+
+        @Override
+        public Element parent() {
+            return this.parent;
+        }
+
+        @Override
+        public List<Element> children() {
+            return new Children();
+        }
+
+        /**
+         * The live, read-only children whether they are held inline or in a
+         * child list (which the element creates and drops as children come
+         * and go). Iterators fail fast as those of the child list do.
+         */
+        private final class Children extends AbstractList<Element> {
+
+            @Override
+            public int size() {
+                ChildList children = ElementImpl.this.children;
+                if (children != null) {
+                    return children.size();
+                }
+                return ElementImpl.this.child == null ? 0 : 1;
+            }
+
+            @Override
+            public Element get(int index) {
+                ChildList children = ElementImpl.this.children;
+                if (children != null) {
+                    return children.get(index);
+                }
+                if (index != 0 || ElementImpl.this.child == null) {
+                    throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, this.size()));
+                }
+                return ElementImpl.this.child;
+            }
+
+            @Override
+            public int indexOf(Object o) {
+                ChildList children = ElementImpl.this.children;
+                if (children != null) {
+                    return children.indexOf(o);
+                }
+                return o != null && o == ElementImpl.this.child ? 0 : -1;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof ElementImpl && o != ElementImpl.this
+                        && ((ElementImpl) o).parent == ElementImpl.this;
+            }
+
+            @Override
+            public Iterator<Element> iterator() {
+                ChildList children = ElementImpl.this.children;
+                if (children != null) {
+                    return children.iterator();
+                }
+                ElementImpl child = ElementImpl.this.child;
+                return new Iterator<Element>() {
+                    private boolean next = child != null;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next;
+                    }
+
+                    @Override
+                    public Element next() {
+                        if (ElementImpl.this.child != child || ElementImpl.this.children != null) {
+                            throw new ConcurrentModificationException();
+                        }
+                        if (!this.next) {
+                            throw new NoSuchElementException();
+                        }
+                        this.next = false;
+                        return child;
+                    }
+                };
+            }
+        }
+
+        @Override
+        public String toString() {
+            try {
+                return render();
+            } catch (Exception ex) {
+                LGR.error(ex.getMessage());
+            }
+            return "";
+        }
+
+        protected final void addAttribute0(Attribute attribute) {
+            if (attribute.hasValue()) {
+                ElementIndex index = null;
+                String name = attribute.name();
+                boolean indexed = name.equals(HTML.GlobalAttributes.ID.tag())
+                        || name.equals(HTML.GlobalAttributes.CLASS.tag());
+                if (indexed && (index = this.index()) != null) {
+                    index.remove(this);
+                }
+                /*
+                Replaced rather than updated, the existing attribute may be
+                a shared instance (or keep its typed value).
+                 */
+                this.putAttribute(attribute);
+                if (index != null) {
+                    index.add(this);
+                }
+                this.invalidate();
+            }
+        }
+
+        /**
+         * Removes the attribute with the name, if the element has one.
+         *
+         * @param name
+         */
+        protected final void removeAttribute0(String name) {
+            if (this.attributes == null
+                    && (this.attribute == null || !this.attribute.name().equals(name))) {
+                return;
+            }
+            ElementIndex index = null;
+            boolean indexed = name.equals(HTML.GlobalAttributes.ID.tag())
+                    || name.equals(HTML.GlobalAttributes.CLASS.tag());
+            if (indexed && (index = this.index()) != null) {
+                index.remove(this);
+            }
+            boolean removed = true;
+            if (this.attributes != null) {
+                removed = this.attributes.remove(name);
+            } else {
+                this.attribute = null;
+            }
+            if (index != null) {
+                index.add(this);
+            }
+            if (removed) {
+                this.invalidate();
+            }
+        }
+
+        /**
+         * Drops the cached output and content hash of this element and its
+         * ancestors. Stops at the first ancestor that is already dirty, whose
+         * ancestors are then dirty as well (a hash is only ever computed
+         * along with the hashes of all the descendants).
+         */
+        protected final void invalidate() {
+            ElementImpl element = this;
+            while (element.stable || element.renderCache != null || element.contentHash != 0) {
+                element.stable = false;
+                element.renderCache = null;
+                element.contentHash = 0;
+                if (element.parent == element) {
+                    break;
+                }
+                element = (ElementImpl) element.parent;
+            }
+        }
+
+        /**
+         * Kept until invalidate(), so only the path from a change up to the
+         * root is hashed again. Untracked elements (a style element and its
+         * ancestors) are hashed every time, only their tracked descendants
+         * keep theirs.
+         *
+         * @return
+         */
+        @Override
+        public long contentHash() {
+            long hash = this.contentHash;
+            if (hash == 0) {
+                hash = ContentHash.start(this.tag);
+                for (Attribute attribute : this.attributeList()) {
+                    hash = ContentHash.attribute(hash, attribute);
+                }
+                hash = this.hashText(hash);
+                hash = ContentHash.finish(this.hashChildren(hash));
+                if (!this.untracked) {
+                    this.contentHash = hash;
+                }
+            }
+            return hash;
+        }
+
+        protected long hashText(long hash) {
+            return ContentHash.text(hash, this.getTextContent());
+        }
+
+        protected long hashChildren(long hash) {
+            for (ElementImpl child = this.firstChild(); child != null; child = child.nextSibling) {
+                hash = ContentHash.child(hash, child.contentHash());
+            }
+            return hash;
+        }
+
+        /**
+         * Elements whose output depends on something the element can not
+         * track (i.e. mutable CSS blocks) should not be memoized. Neither
+         * are their ancestors, which would otherwise capture that output.
+         * Called from the constructor, so it can not depend on state.
+         *
+         * @return
+         */
+        protected boolean isMemoizable() {
+            return true;
+        }
+
+        protected void renderIndent(Appendable out, HTML.RenderMode renderMode, int level) throws IOException {
+            if (renderMode != HTML.RenderMode.PRETTY) {
+                return;
+            }
+            if (level >= INDENT.length) {
+                out.append(INDENT[INDENT.length - 1]);
+            } else {
+                out.append(INDENT[level]);
+            }
+        }
+
+        protected void renderLinefeed(Appendable out, HTML.RenderMode renderMode) throws IOException {
+            if (renderMode != HTML.RenderMode.MINIFIED) {
+                out.append(LINEFEED);
+            }
+        }
+
+        protected void renderAttributes(Appendable out) throws IOException {
+            TemplateImpl.Compiler.Builder template = out instanceof TemplateImpl.Compiler.Builder
+                    ? (TemplateImpl.Compiler.Builder) out
+                    : null;
+            for (Attribute attribute : this.attributeList()) {
+                if (template == null || !template.attribute(this, attribute)) {
+                    out.append(' ');
+                    attribute.render(out);
+                }
+            }
+            if (template != null) {
+                template.attributes(this);
+            }
+        }
+
+        protected boolean hasChildren() {
+            return this.children != null || this.child != null;
+        }
+
+        protected boolean hasTextContent() {
+            return false;
+        }
+
+        /**
+         * When minified the whitespace between two elements is dropped unless
+         * both sides are phrasing content, where it is collapsed to a single
+         * space (it would otherwise be visible). Optional end tags are left
+         * out when what follows allows it.
+         *
+         * @param out
+         * @param renderMode
+         * @param level of this element
+         * @throws IOException
+         */
+        protected void renderChildren(Appendable out, HTML.RenderMode renderMode, int level) throws IOException {
+            boolean minified = renderMode == HTML.RenderMode.MINIFIED;
+            Element previous = null;
+            for (ElementImpl element = this.firstChild(); element != null; element = element.nextSibling) {
+                boolean omitEndTag = false;
+                if (minified) {
+                    boolean phrasingBefore = previous == null
+                            ? this.hasTextContent() || isPhrasing(this)
+                            : isPhrasing(previous);
+                    if (phrasingBefore && isPhrasing(element)) {
+                        out.append(' ');
+                    }
+                    omitEndTag = element.canOmitEndTag(element.nextSibling);
+                }
+                if (!(out instanceof ParallelRender.Segments)
+                        || !((ParallelRender.Segments) out).fork(element, renderMode, level + 1, omitEndTag)) {
+                    element.render(out, renderMode, level + 1, omitEndTag);
+                }
+                previous = element;
+            }
+            if (minified && previous != null && isPhrasing(previous) && isPhrasing(this)
+                    && this.tagOmission() != HTML.TagOmission.EndMustBeOmitted) {
+                out.append(' ');
+            }
+        }
+
+        /**
+         * The HTML end tag omission rules for an element followed by 'next'
+         * (null when it is the last child of its parent).
+         *
+         * @param next
+         * @return
+         */
+        protected boolean canOmitEndTag(Element next) {
+            return canOmitEndTag(this.tag, this.tagOmission(), this.parent.tag(), next);
+        }
+
+        static boolean canOmitEndTag(String tag, HTML.TagOmission tagOmission, String parentTag, Element next) {
+            return canOmitEndTag(tag, tagOmission, parentTag, next == null ? null : next.tag());
+        }
+
+        /**
+         * @param tag
+         * @param tagOmission
+         * @param parentTag
+         * @param nextTag null when the element is the last child
+         * @return
+         */
+        static boolean canOmitEndTag(String tag, HTML.TagOmission tagOmission, String parentTag, String nextTag) {
+            if (tagOmission != HTML.TagOmission.EndOptional) {
+                return false;
+            }
+            switch (tag) {
+                case "li":
+                    return nextTag == null || nextTag.equals("li");
+                case "dt":
+                    return nextTag != null && (nextTag.equals("dt") || nextTag.equals("dd"));
+                case "dd":
+                    return nextTag == null || nextTag.equals("dd") || nextTag.equals("dt");
+                case "p":
+                    return nextTag == null
+                            ? !KEEPS_P_END.contains(parentTag)
+                            : CLOSES_P.contains(nextTag);
+                case "rt":
+                case "rp":
+                    return nextTag == null || nextTag.equals("rt") || nextTag.equals("rp");
+                case "optgroup":
+                    return nextTag == null || nextTag.equals("optgroup");
+                case "option":
+                    return nextTag == null || nextTag.equals("option") || nextTag.equals("optgroup");
+                case "colgroup":
+                    return true;
+                case "thead":
+                    return nextTag != null && (nextTag.equals("tbody") || nextTag.equals("tfoot"));
+                case "tbody":
+                    return nextTag == null || nextTag.equals("tbody") || nextTag.equals("tfoot");
+                case "tfoot":
+                    return nextTag == null;
+                case "tr":
+                    return nextTag == null || nextTag.equals("tr");
+                case "td":
+                case "th":
+                    return nextTag == null || nextTag.equals("td") || nextTag.equals("th");
+                default:
+                    return false;
+            }
+        }
+
+        static boolean isPhrasing(Element element) {
+            return isPhrasing(element.tag());
+        }
+
+        static boolean isPhrasing(String tag) {
+            // autonomous custom elements are phrasing content
+            return PHRASING.contains(tag) || tag.indexOf('-') > 0;
+        }
+
+        protected void renderEndTag(Appendable out) throws IOException {
+            switch (this.tagOmission()) {
+                case EndMustBeOmitted:
+                    break;
+                //case None:
+                default:
+                    if (out instanceof Utf8Sink) {
+                        ((Utf8Sink) out).write(this.tagBytes().close);
+                    } else {
+                        out.append("</").append(this.tag).append('>');
+                    }
+                    break;
+            }
+        }
+
+        protected void renderStartTag(Appendable out) throws IOException {
+            if (out instanceof Utf8Sink) {
+                ((Utf8Sink) out).write(this.tagBytes().open);
+            } else {
+                out.append('<').append(this.tag);
+            }
+            renderAttributes(out);
+            switch (this.tagOmission()) {
+                case EndMustBeOmitted:
+                    out.append(" />");
+                    break;
+                //case None:
+                default:
+                    out.append('>');
+                    break;
+            }
+        }
+
+        protected void renderContent(Appendable out) throws IOException {
+        }
+
+        /**
+         * Looked up rather than kept, a field for it would cost every
+         * element more than the lookup costs a render into a byte sink.
+         */
+        private Utf8Sink.TagBytes tagBytes() {
+            return Utf8Sink.tagBytes(this.tag);
+        }
+
+        @Override
+        public void throwException() throws Exception {
+        }
+    }
+
+    @Implements(type = HTML.class)
+    static class HtmlElementImpl extends ElementImpl implements HtmlElement {
+
+        protected String textContent = "";
+        protected HTML.Style style = null;
+        protected HTML.TextContent textSource = null;
+
+        public HtmlElementImpl(String tag) {
+            super(tag);
+        }
+
+        @Override
+        public HtmlElement setTextContent(String content) {
+            this.textContent = content;
+            this.textSource = null;
+            this.invalidate();
+            return this;
+        }
+
+        @Override
+        public HtmlElement setTextContent(HTML.TextContent content) {
+            this.textContent = "";
+            this.textSource = content;
+            this.invalidate();
+            return this;
+        }
+
+        @Override
+        public String getTextContent() {
+            return this.textSource != null ? this.textSource.toString() : this.textContent;
+        }
+
+        /**
+         * Streamed text content is hashed as it renders, without reading it
+         * into a String.
+         */
+        @Override
+        protected long hashText(long hash) {
+            if (this.textSource == null) {
+                return super.hashText(hash);
+            }
+            ContentHash.Text text = new ContentHash.Text(hash);
+            try {
+                this.textSource.render(text);
+            } catch (IOException ex) {
+                LGR.error("{}.hashText() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return text.hash();
+        }
+
+        @Override
+        public HtmlElement setAutoCapitalize(HTML.AutoCapitalize autoCapitalize) {
+            this.addAttribute0(autoCapitalize.asAttribute());
+            return this;
+        }
+
+        @Override
+        public HtmlElement setContentEditable(boolean flag) {
+            try {
+                this.addAttribute0(HTML.Attribute.shared(HTML.GlobalAttributes.CONTENTEDITABLE, flag ? "true" : "false"));
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            return this;
+        }
+
+        @Override
+        public HtmlElement setDraggable(boolean flag) {
+            try {
+                this.addAttribute(HTML.Attribute.shared(HTML.GlobalAttributes.DRAGGABLE, flag ? "true" : "false"));
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            return this;
+        }
+
+        @Override
+        public HtmlElement setHidden(boolean flag) {
+            try {
+                this.addAttribute(HTML.Attribute.shared(HTML.GlobalAttributes.HIDDEN, flag ? "true" : "false"));
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            return this;
+        }
+
+        @Override
+        public HtmlElement setInputMode(HTML.InputMode inputMode) {
+            try {
+                this.addAttribute(inputMode.asAttribute());
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            return this;
+        }
+
+        @Override
+        public HtmlElement setStyle(HTML.Style style) {
+            // TODO
+            // Convert <style></style> into <tag style=''>
+            return this;
+        }
+        @Override
+        protected void renderContent(Appendable out) throws IOException {
+            if (out instanceof TemplateImpl.Compiler.Builder
+                    && ((TemplateImpl.Compiler.Builder) out).text(this, this.textContent)) {
+                return;
+            }
+            if (this.textSource != null) {
+                if (out instanceof RenderCache.Capture) {
+                    ((RenderCache.Capture) out).stream(this.textSource);
+                } else {
+                    this.textSource.render(out);
+                }
+            } else if (this.textContent != null) {
+                out.append(this.textContent);
+            }
+        }
+
+        @Override
+        protected boolean hasTextContent() {
+            return this.textSource != null || (this.textContent != null && !this.textContent.isEmpty());
+        }
+
+    }
+
+    @Implements(type = HTML.class, value = "HTML")
+    static class HtmlPageImpl extends HtmlElementImpl implements HTML.Page {
+        //private static final Logger LGR = LoggerFactory.getLogger(ElementImpl.class);
+
+        private HTML.Head head;
+        private HTML.Body body;
+
+        HtmlPageImpl() {
+            super("html");
+            HTML.Head head0 = null;
+            HTML.Body body0 = null;
+            try {
+                head0 = HTML.Head.create();
+                body0 = HTML.Body.create();
+                super.append(head0);
+                super.append(body0);
+
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            this.head = head0;
+            this.body = body0;
+        }
+
+        @Override
+        public HTML.Head head() {
+            return this.head;
+        }
+
+        @Override
+        protected void cloned() {
+            for (Element child : this.children()) {
+                if (child instanceof HTML.Head) {
+                    this.head = (HTML.Head) child;
+                } else if (child instanceof HTML.Body) {
+                    this.body = (HTML.Body) child;
+                }
+            }
+        }
+
+        @Override
+        public HTML.Body body() {
+            return this.body;
+        }
+
+        @Override
+        public Element insert(Element element) {
+            List<HTML.ContentCategory> contentCategories = HTML.ContentCategory.parse(HTML.valueOf(element.tag()));
+            if (contentCategories.contains(HTML.ContentCategory.Metadata)) {
+                this.head.insert(element);
+            } else {
+                this.body.insert(element);
+            }
+            return this;
+        }
+
+        @Override
+        public Element append(Element element) {
+            List<HTML.ContentCategory> contentCategories = HTML.ContentCategory.parse(HTML.valueOf(element.tag().toUpperCase()));
+            if (contentCategories.contains(HTML.ContentCategory.Metadata)) {
+                this.head.append(element);
+            } else {
+                this.body.append(element);
+            }
+            return this;
+        }
+    }
+
+    @Implements(type = HTML.class, value = "A_")
+    static class HtmlAImpl extends HtmlElementImpl implements A {
+
+        public HtmlAImpl() {
+            super("a");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "ABBR")
+    static class HtmlAbbrImpl extends HtmlElementImpl implements HTML.Abbr {
+
+        public HtmlAbbrImpl() {
+            super("abbr");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "ADDRESS")
+    static class HtmlAddressImpl extends HtmlElementImpl implements HTML.Address {
+
+        public HtmlAddressImpl() {
+            super("address");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "APPLET")
+    static class HtmlAppletImpl extends HtmlElementImpl implements HTML.Applet {
+
+        public HtmlAppletImpl() {
+            super("applet");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "AREA")
+    static class HtmlAreaImpl extends HtmlElementImpl implements HTML.Area {
+
+        public HtmlAreaImpl() {
+            super("area");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "ARTICLE")
+    static class HtmlArticleImpl extends HtmlElementImpl implements HTML.Article {
+
+        public HtmlArticleImpl() {
+            super("article");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "ASIDE")
+    static class HtmlAsideImpl extends HtmlElementImpl implements HTML.Aside {
+
+        public HtmlAsideImpl() {
+            super("aside");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "AUDIO")
+    static class HtmlAudioImpl extends HtmlElementImpl implements HTML.Audio {
+
+        public HtmlAudioImpl() {
+            super("audio");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "B_")
+    static class HtmlBImpl extends HtmlElementImpl implements HTML.B {
+
+        public HtmlBImpl() {
+            super("b");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BASE")
+    static class HtmlBaseImpl extends HtmlElementImpl implements HTML.Base {
+
+        public HtmlBaseImpl() {
+            super("base");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BASEFONT")
+    static class HtmlBasefontImpl extends HtmlElementImpl implements HTML.Basefont {
+
+        public HtmlBasefontImpl() {
+            super("basefont");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BB")
+    static class HtmlBbImpl extends HtmlElementImpl implements HTML.Bb {
+
+        public HtmlBbImpl() {
+            super("bb");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BDO")
+    static class HtmlBdoImpl extends HtmlElementImpl implements HTML.Bdo {
+
+        public HtmlBdoImpl() {
+            super("bdo");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BIG")
+    static class HtmlBigImpl extends HtmlElementImpl implements HTML.Big {
+
+        public HtmlBigImpl() {
+            super("big");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BLOCKQUOTE")
+    static class HtmlBlockquoteImpl extends HtmlElementImpl implements HTML.Blockquote {
+
+        public HtmlBlockquoteImpl() {
+            super("blockquote");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BODY")
+    static class HtmlBodyImpl extends HtmlElementImpl implements HTML.Body {
+
+        public HtmlBodyImpl() {
+            super("body");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BR")
+    static class HtmlBrImpl extends HtmlElementImpl implements HTML.Br {
+
+        public HtmlBrImpl() {
+            super("br");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "BUTTON")
+    static class HtmlButtonImpl extends HtmlElementImpl implements HTML.Button {
+
+        public HtmlButtonImpl() {
+            super("button");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "CANVAS")
+    static class HtmlCanvasImpl extends HtmlElementImpl implements HTML.Canvas {
+
+        public HtmlCanvasImpl() {
+            super("canvas");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "CAPTION")
+    static class HtmlCaptionImpl extends HtmlElementImpl implements HTML.Caption {
+
+        public HtmlCaptionImpl() {
+            super("caption");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "CENTER")
+    static class HtmlCenterImpl extends HtmlElementImpl implements HTML.Center {
+
+        public HtmlCenterImpl() {
+            super("center");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "CITE")
+    static class HtmlCiteImpl extends HtmlElementImpl implements HTML.Cite {
+
+        public HtmlCiteImpl() {
+            super("cite");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "CODE")
+    static class HtmlCodeImpl extends HtmlElementImpl implements HTML.Code {
+
+        public HtmlCodeImpl() {
+            super("code");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "COL")
+    static class HtmlColImpl extends HtmlElementImpl implements HTML.Col {
+
+        public HtmlColImpl() {
+            super("col");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "COLGROUP")
+    static class HtmlColgroupImpl extends HtmlElementImpl implements HTML.Colgroup {
+
+        public HtmlColgroupImpl() {
+            super("colgroup");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "COMMAND")
+    static class HtmlCommandImpl extends HtmlElementImpl implements HTML.Command {
+
+        public HtmlCommandImpl() {
+            super("command");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DATAGRID")
+    static class HtmlDatagridImpl extends HtmlElementImpl implements HTML.Datagrid {
+
+        public HtmlDatagridImpl() {
+            super("datagrid");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DATALIST")
+    static class HtmlDatalistImpl extends HtmlElementImpl implements HTML.Datalist {
+
+        public HtmlDatalistImpl() {
+            super("datalist");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DD")
+    static class HtmlDdImpl extends HtmlElementImpl implements HTML.Dd {
+
+        public HtmlDdImpl() {
+            super("dd");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DEL")
+    static class HtmlDelImpl extends HtmlElementImpl implements HTML.Del {
+
+        public HtmlDelImpl() {
+            super("del");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DETAILS")
+    static class HtmlDetailsImpl extends HtmlElementImpl implements HTML.Details {
+
+        public HtmlDetailsImpl() {
+            super("details");
+        }
+
+        public HTML.Details setSummary(HTML.Summary summary) {
+            this.insert(summary);
+            return this;
+        }
+
+    }
+
+    @Implements(type = HTML.class, value = "DIALOG")
+    static class HtmlDialogImpl extends HtmlElementImpl implements HTML.Dialog {
+
+        public HtmlDialogImpl() {
+            super("dialog");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DIR")
+    static class HtmlDirImpl extends HtmlElementImpl implements HTML.Dir {
+
+        public HtmlDirImpl() {
+            super("dir");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DIV")
+    static class HtmlDivImpl extends HtmlElementImpl implements HTML.Div {
+
+        public HtmlDivImpl() {
+            super("div");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DFN")
+    static class HtmlDfnImpl extends HtmlElementImpl implements HTML.Dfn {
+
+        public HtmlDfnImpl() {
+            super("dfn");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DL")
+    static class HtmlDlImpl extends HtmlElementImpl implements HTML.Dl {
+
+        public HtmlDlImpl() {
+            super("dl");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "DT")
+    static class HtmlDtImpl extends HtmlElementImpl implements HTML.Dt {
+
+        public HtmlDtImpl() {
+            super("dt");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "EM")
+    static class HtmlEmImpl extends HtmlElementImpl implements HTML.Em {
+
+        public HtmlEmImpl() {
+            super("em");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "EMBED")
+    static class HtmlEmbedImpl extends HtmlElementImpl implements HTML.Embed {
+
+        public HtmlEmbedImpl() {
+            super("embed");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FIELDSET")
+    static class HtmlFieldsetImpl extends HtmlElementImpl implements HTML.Fieldset {
+
+        public HtmlFieldsetImpl() {
+            super("fieldset");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FIGURE")
+    static class HtmlFigureImpl extends HtmlElementImpl implements HTML.Figure {
+
+        public HtmlFigureImpl() {
+            super("figure");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FONT")
+    static class HtmlFontImpl extends HtmlElementImpl implements HTML.Font {
+
+        public HtmlFontImpl() {
+            super("font");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FOOTER")
+    static class HtmlFooterImpl extends HtmlElementImpl implements HTML.Footer {
+
+        public HtmlFooterImpl() {
+            super("footer");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FORM")
+    static class HtmlFormImpl extends HtmlElementImpl implements HTML.Form {
+
+        public HtmlFormImpl() {
+            super("form");
+        }
+
+        @Override
+        public HTML.Form setAction(String actionURL) {
+            try {
+                this.addAttribute0(HTML.Attribute.create(HTML.Form.FormAttributes.ACTION, actionURL));
+            } catch (Exception ex) {
+                LGR.error("{}.setAction() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public HTML.Form setMethod(HTML.Method method) {
+            try {
+                this.addAttribute0(HTML.Attribute.create(HTML.Form.FormAttributes.METHOD, method.value()));
+            } catch (Exception ex) {
+                LGR.error("{}.setMethod() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public HTML.Form setEnctype(HTML.Enctype enctype) {
+            try {
+                this.addAttribute0(HTML.Attribute.create(HTML.Form.FormAttributes.ENCTYPE, enctype.value()));
+            } catch (Exception ex) {
+                LGR.error("{}.setEnctype() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public HTML.Form setTarget(HTML.Target target) {
+            try {
+                this.addAttribute0(HTML.Attribute.create(HTML.Form.FormAttributes.TARGET, target.value()));
+            } catch (Exception ex) {
+                LGR.error("{}.setTarget() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FRAME")
+    static class HtmlFrameImpl extends HtmlElementImpl implements HTML.Frame {
+
+        public HtmlFrameImpl() {
+            super("frame");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "FRAMESET")
+    static class HtmlFramesetImpl extends HtmlElementImpl implements HTML.Frameset {
+
+        public HtmlFramesetImpl() {
+            super("frameset");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "H1")
+    static class HtmlH1Impl extends HtmlElementImpl implements HTML.H1 {
+
+        public HtmlH1Impl() {
+            super("h1");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "H2")
+    static class HtmlH2Impl extends HtmlElementImpl implements HTML.H2 {
+
+        public HtmlH2Impl() {
+            super("h2");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "H3")
+    static class HtmlH3Impl extends HtmlElementImpl implements HTML.H3 {
+
+        public HtmlH3Impl() {
+            super("h3");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "H4")
+    static class HtmlH4Impl extends HtmlElementImpl implements HTML.H4 {
+
+        public HtmlH4Impl() {
+            super("h4");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "H5")
+    static class HtmlH5Impl extends HtmlElementImpl implements HTML.H5 {
+
+        public HtmlH5Impl() {
+            super("h5");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "H6")
+    static class HtmlH6Impl extends HtmlElementImpl implements HTML.H6 {
+
+        public HtmlH6Impl() {
+            super("h6");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "HEAD")
+    static class HtmlHeadImpl extends HtmlElementImpl implements HTML.Head {
+
+        public HtmlHeadImpl() {
+            super("head");
+        }
+
+    }
+
+    @Implements(type = HTML.class, value = "HEADER")
+    static class HtmlHeaderImpl extends HtmlElementImpl implements HTML.Header {
+
+        public HtmlHeaderImpl() {
+            super("header");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "HGROUP")
+    static class HtmlHgroupImpl extends HtmlElementImpl implements HTML.Hgroup {
+
+        public HtmlHgroupImpl() {
+            super("hgroup");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "HR")
+    static class HtmlHrImpl extends HtmlElementImpl implements HTML.Hr {
+
+        public HtmlHrImpl() {
+            super("hr");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "I_")
+    static class HtmlIImpl extends HtmlElementImpl implements HTML.I {
+
+        public HtmlIImpl() {
+            super("i");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "IFRAME")
+    static class HtmlIframeImpl extends HtmlElementImpl implements HTML.Iframe {
+
+        public HtmlIframeImpl() {
+            super("iframe");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "IMG")
+    static class HtmlImgImpl extends HtmlElementImpl implements HTML.Img {
+
+        public HtmlImgImpl() {
+            super("img");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "INPUT")
+    static class HtmlInputImpl extends HtmlElementImpl implements HTML.Input {
+
+        public HtmlInputImpl() {
+            super("input");
+        }
+
+        @Override
+        public Element setName(String name) {
+            try {
+                this.addAttribute(HTML.Attribute.create("name", name));
+            } catch (Exception ex) {
+                LGR.error("{}.setName() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public HTML.TagOmission tagOmission() {
+            return HTML.TagOmission.EndMustBeOmitted;
+        }
+
+        @Override
+        public Element setAccept(String... acceptTypes) {
+
+            String acceptType = Arrays.asList(acceptTypes).stream()
+                    .collect(Collectors.joining(","));
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.ACCEPT,
+                        acceptType));
+            } catch (Exception ex) {
+                LGR.error("{}.setAccept() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setValue(Object value) {
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.VALUE,
+                        value.toString()));
+            } catch (Exception ex) {
+                LGR.error("{}.setValue() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setPattern(Pattern pattern) {
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.PATTERN,
+                        pattern.toString()));
+            } catch (Exception ex) {
+                LGR.error("{}.setPattern() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setMinLength(int minLength) {
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.MINLENGTH,
+                        (Integer) minLength));
+            } catch (Exception ex) {
+                LGR.error("{}.setMinLength() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setMaxLength(int maxLength) {
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.MAXLENGTH,
+                        (Integer) maxLength));
+            } catch (Exception ex) {
+                LGR.error("{}.setMaxLength() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setPlaceholder(String placeholder) {
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.PLACEHOLDER,
+                        placeholder));
+            } catch (Exception ex) {
+                LGR.error("{}.setPlaceholder() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setReadonly(boolean readonly) {
+            try {
+                if (readonly) {
+                    this.addAttribute(HTML.Attribute.flag(InputAttributes.READONLY));
+                } else {
+                    this.removeAttribute0(InputAttributes.READONLY.tag());
+                }
+            } catch (Exception ex) {
+                LGR.error("{}.setReadonly() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setSize(int size) {
+            try {
+                this.addAttribute(HTML.Attribute.create(InputAttributes.SIZE,
+                        (Integer) size));
+            } catch (Exception ex) {
+                LGR.error("{}.setSize() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+        @Override
+        public Element setSpellcheck(boolean spellcheck) {
+            try {
+                this.addAttribute(HTML.Attribute.create(GlobalAttributes.SPELLCHECK,
+                        GlobalAttributes.SPELLCHECK.convertFlag(spellcheck)));
+            } catch (Exception ex) {
+                LGR.error("{}.setSpellcheck() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return this;
+        }
+
+    }
+
+    @Implements(type = HTML.class, value = "INS")
+    static class HtmlInsImpl extends HtmlElementImpl implements HTML.Ins {
+
+        public HtmlInsImpl() {
+            super("ins");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "ISINDEX")
+    static class HtmlIsindexImpl extends HtmlElementImpl implements HTML.Isindex {
+
+        public HtmlIsindexImpl() {
+            super("isindex");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "KBD")
+    static class HtmlKdbImpl extends HtmlElementImpl implements HTML.Kdb {
+
+        public HtmlKdbImpl() {
+            super("kdb");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "LABEL")
+    static class HtmlLabelImpl extends HtmlElementImpl implements HTML.Label {
+
+        public HtmlLabelImpl() {
+            super("label");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "LEGEND")
+    static class HtmlLegendImpl extends HtmlElementImpl implements HTML.Legend {
+
+        public HtmlLegendImpl() {
+            super("legend");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "LI")
+    static class HtmlLiImpl extends HtmlElementImpl implements HTML.Li {
+
+        public HtmlLiImpl() {
+            super("li");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "LINK")
+    static class HtmlLinkImpl extends HtmlElementImpl implements HTML.Link {
+
+        public HtmlLinkImpl() {
+            super("link");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "MARK")
+    static class HtmlMarkImpl extends HtmlElementImpl implements HTML.Mark {
+
+        public HtmlMarkImpl() {
+            super("mark");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "MAP")
+    static class HtmlMapImpl extends HtmlElementImpl implements HTML.Map {
+
+        public HtmlMapImpl() {
+            super("map");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "MENU")
+    static class HtmlMenuImpl extends HtmlElementImpl implements HTML.Menu {
+
+        public HtmlMenuImpl() {
+            super("menu");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "META")
+    static class HtmlMetaImpl extends HtmlElementImpl implements HTML.Meta {
+
+        static private final Logger LGR = LoggerFactory.getLogger(HtmlMetaImpl.class);
+
+        public HtmlMetaImpl(String attributeName, String param1, String param2) {
+            super("meta");
+            try {
+                HTML.Attribute attribute1 = null;
+                HTML.Attribute attribute2 = null;
+                if (attributeName.equalsIgnoreCase("viewport")) {
+                    attribute1 = HTML.Attribute.create("name", "viewport");
+                    attribute2 = HTML.Attribute.create("content", String.format("width=%s, initial-scale=%s", param1, param2));
+                }
+                if (attribute1 != null && attribute2 != null) {
+                    this.addAttribute(attribute1);
+                    this.addAttribute(attribute2);
+                }
+            } catch (Exception ex) {
+                LGR.error("{}.ctor() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+        }
+
+        @Override
+        public HTML.Meta setCharset(String charset) throws Exception {
+            this.addAttribute(HTML.Attribute.create("charset", charset));
+            return this;
+        }
+
+        @Override
+        public HTML.Meta setName(String value) throws Exception {
+            this.addAttribute(HTML.Attribute.create("name", value));
+            return this;
+        }
+    }
+
+    @Implements(type = HTML.class, value = "METER")
+    static class HtmlMeterImpl extends HtmlElementImpl implements HTML.Meter {
+
+        public HtmlMeterImpl() {
+            super("meter");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "NAV")
+    static class HtmlNavImpl extends HtmlElementImpl implements HTML.Nav {
+
+        public HtmlNavImpl() {
+            super("nav");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "NOFRAMES")
+    static class HtmlNoframesImpl extends HtmlElementImpl implements HTML.Noframes {
+
+        public HtmlNoframesImpl() {
+            super("noframes");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "NOSCRIPT")
+    static class HtmlNoscriptImpl extends HtmlElementImpl implements HTML.Noscript {
+
+        public HtmlNoscriptImpl() {
+            super("noscript");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "OBJECT")
+    static class HtmlObjectImpl extends HtmlElementImpl implements HTML.Objectt {
+
+        public HtmlObjectImpl() {
+            super("object");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "OL")
+    static class HtmlOlImpl extends HtmlElementImpl implements HTML.Ol {
+
+        public HtmlOlImpl() {
+            super("ol");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "OPTGROUP")
+    static class HtmlOptgroupImpl extends HtmlElementImpl implements HTML.Optgroup {
+
+        public HtmlOptgroupImpl() {
+            super("optgroup");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "OPTION")
+    static class HtmlOptionImpl extends HtmlElementImpl implements HTML.Option {
+
+        public HtmlOptionImpl() {
+            super("option");
+        }
+
+        public Element setValue(String value) {
+            try {
+                this.addAttribute(HTML.Attribute.create("value", value));
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            return this;
+        }
+        public Element setLabel(String label) {
+            try {
+                this.setTextContent(label);
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            return this;
+        }
+
+        @Override
+        public HtmlElement setTextContent(String content) {
+            this.textContent = content;
+            this.textSource = null;
+            this.invalidate();
+            return this;
+        }
+
+    }
+
+    @Implements(type = HTML.class, value = "OUTPUT")
+    static class HtmlOutputImpl extends HtmlElementImpl implements HTML.Output {
+
+        public HtmlOutputImpl() {
+            super("output");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "P_")
+    static class HtmlPImpl extends HtmlElementImpl implements HTML.P {
+
+        public HtmlPImpl() {
+            super("p");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "PARAM")
+    static class HtmlParamImpl extends HtmlElementImpl implements HTML.Param {
+
+        public HtmlParamImpl() {
+            super("param");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "PRE")
+    static class HtmlPreImpl extends HtmlElementImpl implements HTML.Pre {
+
+        public HtmlPreImpl() {
+            super("pre");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "PROGRESS")
+    static class HtmlProgressImpl extends HtmlElementImpl implements HTML.Progress {
+
+        public HtmlProgressImpl() {
+            super("progress");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "Q_")
+    static class HtmlQImpl extends HtmlElementImpl implements HTML.Q {
+
+        public HtmlQImpl() {
+            super("q");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "RUBY")
+    static class HtmlRubyImpl extends HtmlElementImpl implements HTML.Ruby {
+
+        public HtmlRubyImpl() {
+            super("ruby");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "RP")
+    static class HtmlRpImpl extends HtmlElementImpl implements HTML.Rp {
+
+        public HtmlRpImpl() {
+            super("rp");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "RT")
+    static class HtmlRtImpl extends HtmlElementImpl implements HTML.Rt {
+
+        public HtmlRtImpl() {
+            super("rt");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "S_")
+    static class HtmlSImpl extends HtmlElementImpl implements HTML.S {
+
+        public HtmlSImpl() {
+            super("s");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SAMP")
+    static class HtmlSampImpl extends HtmlElementImpl implements HTML.Samp {
+
+        public HtmlSampImpl() {
+            super("samp");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SCRIPT")
+    static class HtmlScriptImpl extends HtmlElementImpl implements HTML.Script {
+
+        public HtmlScriptImpl() {
+            super("script");
+        }
+
+        @Override
+        public void append(String code) {
+
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SECTION")
+    static class HtmlSectionImpl extends HtmlElementImpl implements HTML.Section {
+
+        public HtmlSectionImpl() {
+            super("section");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SELECT")
+    static class HtmlSelectImpl extends HtmlElementImpl implements HTML.Select {
+
+        public HtmlSelectImpl() {
+            super("select");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SMALL")
+    static class HtmlSmallImpl extends HtmlElementImpl implements HTML.Small {
+
+        public HtmlSmallImpl() {
+            super("small");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SOURCE")
+    static class HtmlSourceImpl extends HtmlElementImpl implements HTML.Source {
+
+        public HtmlSourceImpl() {
+            super("source");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SPAN")
+    static class HtmlSpanImpl extends HtmlElementImpl implements HTML.Span {
+
+        public HtmlSpanImpl() {
+            super("span");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "STRIKE")
+    static class HtmlStrikeImpl extends HtmlElementImpl implements HTML.Strike {
+
+        public HtmlStrikeImpl() {
+            super("strike");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "STRONG")
+    static class HtmlStrongImpl extends HtmlElementImpl implements HTML.Strong {
+
+        public HtmlStrongImpl() {
+            super("strong");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "STYLE")
+    static class HtmlStyleImpl extends HtmlElementImpl implements HTML.Style {
+
+        private List<CSS.Block> cssElements = new ArrayList<>();
+
+        public HtmlStyleImpl() {
+            super("style");
+        }
+
+        @Override
+        public void append(CSS.Block cssElement) {
+            this.cssElements.add(cssElement);
+            this.invalidate();
+        }
+
+        List<CSS.Block> cssBlocks() {
+            return this.cssElements;
+        }
+
+        @Override
+        protected void cloned() {
+            this.cssElements = new ArrayList<>(this.cssElements);
+        }
+
+        @Override
+        protected boolean isMemoizable() {
+            return false;
+        }
+
+        @Override
+        protected long hashChildren(long hash) {
+            if (this.cssElements.isEmpty()) {
+                return hash;
+            }
+            StringBuilder builder = new StringBuilder();
+            try {
+                for (CSS.Block cssElement : this.cssElements) {
+                    cssElement.render(builder, HTML.RenderMode.MINIFIED);
+                }
+            } catch (IOException ex) {
+                LGR.error("{}.hashChildren() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return ContentHash.text(hash, builder);
+        }
+
+        @Override
+        protected boolean hasChildren() {
+            return !this.cssElements.isEmpty();
+        }
+
+        @Override
+        protected void renderChildren(Appendable out, HTML.RenderMode renderMode, int level) throws IOException {
+            for (CSS.Block cssElement : this.cssElements) {
+                cssElement.render(out, renderMode);
+            }
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SUB")
+    static class HtmlSubImpl extends HtmlElementImpl implements HTML.Sub {
+
+        public HtmlSubImpl() {
+            super("sub");
+        }
+    }
+
+    static class HtmlSummaryImpl extends HtmlElementImpl implements HTML.Summary {
+
+        public HtmlSummaryImpl() {
+            super("summary");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "SUP")
+    static class HtmlSupImpl extends HtmlElementImpl implements HTML.Sup {
+
+        public HtmlSupImpl() {
+            super("sup");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TABLE")
+    static class HtmlTableImpl extends HtmlElementImpl implements HTML.Table {
+
+        public HtmlTableImpl() {
+            super("table");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TBODY")
+    static class HtmlTbodyImpl extends HtmlElementImpl implements HTML.Tbody {
+
+        public HtmlTbodyImpl() {
+            super("tbody");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TD")
+    static class HtmlTdImpl extends HtmlElementImpl implements HTML.Td {
+
+        public HtmlTdImpl() {
+            super("td");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TEXTAREA")
+    static class HtmlTextareaImpl extends HtmlElementImpl implements HTML.Textarea {
+
+        public HtmlTextareaImpl() {
+            super("textarea");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TFOOT")
+    static class HtmlTfootImpl extends HtmlElementImpl implements HTML.Tfoot {
+
+        public HtmlTfootImpl() {
+            super("tfoot");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TH")
+    static class HtmlThImpl extends HtmlElementImpl implements HTML.Th {
+
+        public HtmlThImpl() {
+            super("th");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "THEAD")
+    static class HtmlTheadImpl extends HtmlElementImpl implements HTML.Thead {
+
+        public HtmlTheadImpl() {
+            super("thead");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TIME")
+    static class HtmlTimeImpl extends HtmlElementImpl implements HTML.Time {
+
+        public HtmlTimeImpl() {
+            super("time");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TITLE")
+    static class HtmlTitleImpl extends HtmlElementImpl implements HTML.Title {
+
+        public HtmlTitleImpl() {
+            super("title");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TR")
+    static class HtmlTrImpl extends HtmlElementImpl implements HTML.Tr {
+
+        public HtmlTrImpl() {
+            super("tr");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "TT")
+    static class HtmlTtImpl extends HtmlElementImpl implements HTML.Tt {
+
+        public HtmlTtImpl() {
+            super("tt");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "U_")
+    static class HtmlUImpl extends HtmlElementImpl implements HTML.U {
+
+        public HtmlUImpl() {
+            super("u");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "UL")
+    static class HtmlUlImpl extends HtmlElementImpl implements HTML.Ul {
+
+        public HtmlUlImpl() {
+            super("ul");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "VAR")
+    static class HtmlVarImpl extends HtmlElementImpl implements HTML.Var {
+
+        public HtmlVarImpl() {
+            super("var");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "VIDEO")
+    static class HtmlVideoImpl extends HtmlElementImpl implements HTML.Video {
+
+        public HtmlVideoImpl() {
+            super("video");
+        }
+    }
+
+    @Implements(type = HTML.class, value = "XMP")
+    static class HtmlXmpImpl extends HtmlElementImpl implements HTML.Xmp {
+
+        public HtmlXmpImpl() {
+            super("xmp");
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.layout.IdStrategy;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * The new ids of a subtree being cloned. Each UUID found in the subtree's ids
+ * is replaced by one new id everywhere it appears (so that 'x' and 'x-label'
+ * stay related), other ids are copies of their own. Both come from the
+ * thread's IdStrategy.
+ *
+ * @author bschorn
+ */
+final class IdRewriter {
+
+    static private final Logger LGR = LoggerFactory.getLogger(IdRewriter.class);
+    static private final int UUID_LENGTH = 36;
+    /*
+    Attributes whose (space separated) values are ids, and those that refer to
+    an id as a fragment.
+     */
+    static private final Set<String> IDREFS = new HashSet<>(Arrays.asList(
+            "for", "list", "form", "headers", "itemref", "popovertarget", "anchor",
+            "aria-activedescendant", "aria-controls", "aria-describedby", "aria-details",
+            "aria-errormessage", "aria-flowto", "aria-labelledby", "aria-owns"));
+    static private final Set<String> FRAGMENTS = new HashSet<>(Arrays.asList("href", "usemap"));
+
+    /**
+     * @param attribute
+     * @return whether the attribute is an id or refers to one
+     */
+    static boolean isIdentity(Attribute attribute) {
+        String name = attribute.name();
+        return name.equals(HTML.GlobalAttributes.ID.tag())
+                || IDREFS.contains(name)
+                || (FRAGMENTS.contains(name) && attribute.hasValue() && attribute.value().startsWith("#"));
+    }
+
+    /**
+     * @param attribute
+     * @return the ids the attribute holds or refers to, none if it is not
+     * an identity attribute
+     */
+    static List<String> idsOf(Attribute attribute) {
+        if (!isIdentity(attribute) || !attribute.hasValue()) {
+            return Collections.emptyList();
+        }
+        String value = attribute.value();
+        if (FRAGMENTS.contains(attribute.name())) {
+            return Collections.singletonList(value.substring(1));
+        }
+        if (IDREFS.contains(attribute.name())) {
+            return Arrays.asList(value.split(" "));
+        }
+        return Collections.singletonList(value);
+    }
+
+    private final IdStrategy strategy = IdStrategy.current();
+    private final Map<String, String> ids = new HashMap<>();
+    private final Map<String, String> uuids = new HashMap<>();
+    private int rewrites = 0;
+
+    IdRewriter(Element root) {
+        this.collect(root);
+    }
+
+    /**
+     * @param ids the new ids by the old
+     */
+    IdRewriter(Map<String, String> ids) {
+        this.ids.putAll(ids);
+    }
+
+    private void collect(Element element) {
+        String id = element.getId();
+        if (id != null && !id.isEmpty() && !this.ids.containsKey(id)) {
+            this.ids.put(id, this.newId(id));
+        }
+        for (Element child : element.children()) {
+            this.collect(child);
+        }
+    }
+
+    private String newId(String id) {
+        int start = uuidAt(id, 0);
+        if (start < 0) {
+            return this.strategy.copyOf(id);
+        }
+        StringBuilder builder = new StringBuilder(id.length());
+        int end = 0;
+        do {
+            builder.append(id, end, start);
+            end = start + UUID_LENGTH;
+            builder.append(this.uuids.computeIfAbsent(id.substring(start, end),
+                    k -> this.strategy.newId("copy", null)));
+            start = uuidAt(id, end);
+        } while (start >= 0);
+        return builder.append(id, end, id.length()).toString();
+    }
+
+    /**
+     * Scanned for rather than matched with a pattern, this runs for every id
+     * of the subtree.
+     *
+     * @param text
+     * @param from
+     * @return the position of the next 8-4-4-4-12 hex UUID, -1 if there is
+     * none
+     */
+    static private int uuidAt(String text, int from) {
+        for (int start = from; start + UUID_LENGTH <= text.length(); start++) {
+            if (text.charAt(start + 8) != '-' || text.charAt(start + 23) != '-') {
+                continue;
+            }
+            int i = 0;
+            for (; i < UUID_LENGTH; i++) {
+                char c = text.charAt(start + i);
+                boolean ok = (i == 8 || i == 13 || i == 18 || i == 23)
+                        ? c == '-'
+                        : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+                if (!ok) {
+                    break;
+                }
+            }
+            if (i == UUID_LENGTH) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    boolean isEmpty() {
+        return this.ids.isEmpty();
+    }
+
+    /**
+     * @return the number of attributes rewritten so far
+     */
+    int rewrites() {
+        return this.rewrites;
+    }
+
+    String id(String id) {
+        String newId = id == null ? null : this.ids.get(id);
+        if (newId != null) {
+            this.rewrites++;
+            return newId;
+        }
+        return id;
+    }
+
+    /**
+     * @param attribute
+     * @return the attribute with its ids replaced, null if it has none
+     */
+    Attribute rewrite(Attribute attribute) {
+        String name = attribute.name();
+        boolean id = name.equals(HTML.GlobalAttributes.ID.tag());
+        if (this.ids.isEmpty()
+                || !(id || IDREFS.contains(name) || FRAGMENTS.contains(name))
+                || !attribute.hasValue()) {
+            return null;
+        }
+        String value = attribute.value();
+        String newValue = null;
+        if (id) {
+            newValue = this.ids.get(value);
+        } else if (IDREFS.contains(name)) {
+            String[] tokens = value.split(" ");
+            boolean changed = false;
+            for (int i = 0; i < tokens.length; i++) {
+                String newId = this.ids.get(tokens[i]);
+                if (newId != null) {
+                    tokens[i] = newId;
+                    changed = true;
+                }
+            }
+            newValue = changed ? String.join(" ", tokens) : null;
+        } else if (value.startsWith("#")) {
+            String newId = this.ids.get(value.substring(1));
+            newValue = newId == null ? null : "#" + newId;
+        }
+        if (newValue == null) {
+            return null;
+        }
+        try {
+            this.rewrites++;
+            return Attribute.create(name, newValue);
+        } catch (Exception ex) {
+            LGR.error("{}.rewrite() - Caught Exception: {}",
+                    this.getClass().getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+        return null;
+    }
+}
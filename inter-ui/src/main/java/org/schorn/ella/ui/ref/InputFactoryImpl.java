@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import org.schorn.ella.ui.util.ToString;
+import org.schorn.ella.ui.widget.InputWidgets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author bschorn
+ */
+public class InputFactoryImpl implements InputWidgets.InputFactory {
+
+    static private final Logger LGR = LoggerFactory.getLogger(InputFactoryImpl.class);
+    static private final InputFactoryImpl INSTANCE = new InputFactoryImpl();
+
+    static public InputWidgets.InputFactory getFactory() {
+        return INSTANCE;
+    }
+
+    /*
+    by InputWidgets ordinal, for implementations set in place of the generated ones,
+    resolved on their first create()
+     */
+    private final ConstructorTable[] constructors = new ConstructorTable[InputWidgets.values().length];
+
+    private InputFactoryImpl() {
+        this.register();
+    }
+
+    @Override
+    public void register() {
+        InputWidgetsConstructors.register();
+    }
+
+    @Override
+    public <T> T createInstance(InputWidgets input, Object... params) throws Exception {
+        Class<?> classFor = input.getImpl();
+        if (classFor == null) {
+            // ERROR
+            return null;
+        }
+        if (classFor == InputWidgetsConstructors.implOf(input)) {
+            try {
+                @SuppressWarnings("unchecked")
+                T instance = (T) InputWidgetsConstructors.create(input, params);
+                return instance;
+            } catch (Exception ex) {
+                LGR.error("{}.createInstance() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+                return null;
+            }
+        }
+        ConstructorTable table = this.constructors[input.ordinal()];
+        if (table == null || table.type() != classFor) {
+            table = new ConstructorTable(classFor);
+            this.constructors[input.ordinal()] = table;
+        }
+        @SuppressWarnings("unchecked")
+        T instance = (T) table.newInstance(params);
+        return instance;
+    }
+
+}
@@ -27,9 +27,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import org.schorn.ella.ui.html.CSS;
 import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.IdStrategy;
 import org.schorn.ella.ui.layout.Item;
 import org.schorn.ella.ui.layout.Widget.Input;
 import org.schorn.ella.ui.support.SupportItem;
@@ -48,7 +48,7 @@ abstract class InputWidgetImpl implements Input {
 
     protected final String tag;
     protected final HTML.Input.InputType inputType;
-    protected final String widgetId = UUID.randomUUID().toString();
+    protected final String widgetId;
     protected final List<String> datalist = new ArrayList<>();
     protected Exception exception = null;
     protected boolean readonly = false;
@@ -57,7 +57,9 @@ abstract class InputWidgetImpl implements Input {
     InputWidgetImpl(String tag, HTML.Input.InputType inputType, String name, String label) {
         this.tag = tag;
         this.inputType = inputType;
-        support.properties().put(Item.Properties.ID, UUID.randomUUID().toString());
+        IdStrategy ids = IdStrategy.current();
+        this.widgetId = ids.newId("input", name);
+        support.properties().put(Item.Properties.ID, ids.newId(this.type().className(), name));
         support.properties().put(Item.Properties.NAME, name);
         support.properties().put(Item.Properties.LABEL, label);
         support.properties().put(Item.Properties.VISIBLE, Boolean.TRUE);
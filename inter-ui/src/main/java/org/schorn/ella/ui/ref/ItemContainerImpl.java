@@ -28,10 +28,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import org.schorn.ella.ui.html.HTML;
 import org.schorn.ella.ui.layout.Build;
 import org.schorn.ella.ui.layout.Container;
+import org.schorn.ella.ui.layout.IdStrategy;
 import org.schorn.ella.ui.layout.Item;
 import org.schorn.ella.ui.support.SupportItem;
 import org.slf4j.Logger;
@@ -51,7 +51,7 @@ abstract class ItemContainerImpl<T extends Item> implements Container<T>, Item,
     private Exception exception = null;
 
     ItemContainerImpl(String name, String label) {
-        support.properties().put(Item.Properties.ID, UUID.randomUUID().toString());
+        support.properties().put(Item.Properties.ID, IdStrategy.current().newId(this.type().className(), name));
         support.properties().put(Item.Properties.NAME, name);
         support.properties().put(Item.Properties.LABEL, label);
         support.properties().put(Item.Properties.VISIBLE, Boolean.TRUE);
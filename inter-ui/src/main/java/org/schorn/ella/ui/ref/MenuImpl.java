@@ -25,6 +25,7 @@ package org.schorn.ella.ui.ref;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.schorn.ella.ui.Implements;
 import org.schorn.ella.ui.html.HTML;
 import org.schorn.ella.ui.widget.ControlWidgets;
 import org.schorn.ella.ui.widget.ControlWidgets.MenuItem;
@@ -34,6 +35,7 @@ import org.schorn.ella.ui.widget.ControlWidgets.MenuItem;
  *
  * @author bschorn
  */
+@Implements(type = ControlWidgets.class, value = "MENU")
 class MenuImpl extends ControlWidgetImpl implements ControlWidgets.Menu {
 
     private final List<MenuItem> items = new ArrayList<>();
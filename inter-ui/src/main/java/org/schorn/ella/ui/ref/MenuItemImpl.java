@@ -24,13 +24,16 @@
 package org.schorn.ella.ui.ref;
 
 import java.net.URL;
+import org.schorn.ella.ui.Implements;
 import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.widget.ControlWidgets;
 import org.schorn.ella.ui.widget.ControlWidgets.MenuItem;
 
 /**
  *
  * @author bschorn
  */
+@Implements(type = ControlWidgets.class, value = "MENU_ITEM")
 class MenuItemImpl extends ControlWidgetImpl implements MenuItem {
 
     private URL menuURL = null;
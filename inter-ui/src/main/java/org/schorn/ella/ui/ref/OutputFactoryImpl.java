@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import org.schorn.ella.ui.widget.OutputWidgets;
+
+/**
+ *
+ * @author bschorn
+ */
+public class OutputFactoryImpl implements OutputWidgets.OutputFactory {
+
+    static private final OutputFactoryImpl INSTANCE = new OutputFactoryImpl();
+
+    static public OutputWidgets.OutputFactory getFactory() {
+        return INSTANCE;
+    }
+
+    /*
+    by OutputWidgets ordinal, for implementations set in place of the generated ones,
+    resolved on their first create()
+     */
+    private final ConstructorTable[] constructors = new ConstructorTable[OutputWidgets.values().length];
+
+    private OutputFactoryImpl() {
+        this.register();
+    }
+
+    @Override
+    public void register() {
+        OutputWidgetsConstructors.register();
+    }
+
+    @Override
+    public <T> T createInstance(OutputWidgets output, Object... params) throws Exception {
+        Class<?> classFor = output.getImpl();
+        if (classFor == null) {
+            // ERROR
+            return null;
+        }
+        if (classFor == OutputWidgetsConstructors.implOf(output)) {
+            try {
+                @SuppressWarnings("unchecked")
+                T instance = (T) OutputWidgetsConstructors.create(output, params);
+                return instance;
+            } catch (Exception ex) {
+                // ERROR
+                return null;
+            }
+        }
+        ConstructorTable table = this.constructors[output.ordinal()];
+        if (table == null || table.type() != classFor) {
+            table = new ConstructorTable(classFor);
+            this.constructors[output.ordinal()] = table;
+        }
+        @SuppressWarnings("unchecked")
+        T instance = (T) table.newInstance(params);
+        return instance;
+    }
+
+}
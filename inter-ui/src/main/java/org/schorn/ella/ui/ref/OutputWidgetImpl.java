@@ -27,8 +27,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.IdStrategy;
 import org.schorn.ella.ui.layout.Item;
 import org.schorn.ella.ui.layout.Widget.Output;
 import org.schorn.ella.ui.support.SupportItem;
@@ -46,13 +46,15 @@ abstract class OutputWidgetImpl implements Output {
     protected final SupportItem support = new SupportItem(LGR);
 
     protected final String tag;
-    protected final String widgetId = UUID.randomUUID().toString();
+    protected final String widgetId;
     protected final List<String> datalist = new ArrayList<>();
     protected Exception exception = null;
 
     OutputWidgetImpl(String tag, String name, String label) {
         this.tag = tag;
-        support.properties().put(Item.Properties.ID, UUID.randomUUID().toString());
+        IdStrategy ids = IdStrategy.current();
+        this.widgetId = ids.newId("output", name);
+        support.properties().put(Item.Properties.ID, ids.newId(this.type().className(), name));
         support.properties().put(Item.Properties.NAME, name);
         support.properties().put(Item.Properties.LABEL, label);
         support.properties().put(Item.Properties.VISIBLE, Boolean.TRUE);
@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.Frame;
+import org.schorn.ella.ui.layout.Page;
+import org.schorn.ella.ui.layout.Style;
+
+/**
+ *
+ * @author bschorn
+ */
+class PageImpl extends ItemContainerImpl<Frame> implements Page {
+
+    static private final String ERROR_PAGE = "<html><body><p>ERROR<p></body></html>";
+
+    private String title = "stage";
+    private boolean isViewport = false;
+    private String viewportWidth = "";
+    private String viewportScale = "";
+    private ForkJoinPool renderPool = null;
+    private boolean sharedSubtrees = false;
+    private boolean compactNames = false;
+    private volatile HTML.Compaction compaction = null;
+
+    public PageImpl() {
+        super("", "");
+    }
+
+    @Override
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @Override
+    public void setViewport(String width, String scale) {
+        this.isViewport = true;
+        this.viewportWidth = width;
+        this.viewportScale = scale;
+    }
+
+    @Override
+    public void setRenderPool(ForkJoinPool pool) {
+        this.renderPool = pool;
+    }
+
+    @Override
+    public void setSharedSubtrees(boolean sharedSubtrees) {
+        this.sharedSubtrees = sharedSubtrees;
+    }
+
+    @Override
+    public void setCompactNames(boolean compactNames) {
+        this.compactNames = compactNames;
+    }
+
+    @Override
+    public HTML.Compaction compaction() {
+        return this.compaction;
+    }
+
+    /*
+    the page element, or its copy with identical subtrees shared
+     */
+    private HTML.Element rendered(HTML.Page pageElement) {
+        return this.sharedSubtrees ? HTML.Persistent.shared(pageElement) : pageElement;
+    }
+
+    @Override
+    public String produce(Style styleSheet, HTML.RenderMode renderMode) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        this.produce(styleSheet, renderMode, builder);
+        return builder.toString();
+    }
+
+    @Override
+    public void produce(Style styleSheet, HTML.RenderMode renderMode, Appendable out) throws Exception {
+        Optional<HTML.Page> optPageElement = this.producePage(styleSheet);
+        if (optPageElement.isPresent()) {
+            this.rendered(optPageElement.get()).render(out, renderMode, this.renderPool);
+        } else {
+            out.append(ERROR_PAGE);
+        }
+    }
+
+    @Override
+    public void produce(Style styleSheet, HTML.RenderMode renderMode, OutputStream outputStream) throws Exception {
+        Optional<HTML.Page> optPageElement = this.producePage(styleSheet);
+        if (optPageElement.isPresent()) {
+            try (Utf8Sink sink = Utf8Sink.create(outputStream)) {
+                this.rendered(optPageElement.get()).render(sink, renderMode, this.renderPool);
+            }
+        } else {
+            outputStream.write(ERROR_PAGE.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public void produce(Style styleSheet, HTML.RenderMode renderMode, WritableByteChannel channel) throws Exception {
+        Optional<HTML.Page> optPageElement = this.producePage(styleSheet);
+        if (optPageElement.isPresent()) {
+            try (Utf8Sink sink = Utf8Sink.create(channel)) {
+                this.rendered(optPageElement.get()).render(sink, renderMode, this.renderPool);
+            }
+        } else {
+            channel.write(ByteBuffer.wrap(ERROR_PAGE.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Override
+    public HTML.Template.Compiler compile(Style styleSheet, HTML.RenderMode renderMode) throws Exception {
+        Optional<HTML.Page> optPageElement = this.producePage(styleSheet);
+        if (!optPageElement.isPresent()) {
+            throw new Exception(String.format("%s.compile() - page did not build",
+                    this.getClass().getSimpleName()));
+        }
+        HTML.Template.Compiler compiler = HTML.Template.compiler(optPageElement.get(), renderMode);
+        declareHoles(compiler, optPageElement.get());
+        return compiler;
+    }
+
+    static private void declareHoles(HTML.Template.Compiler compiler, HTML.Element element) {
+        if (element instanceof HTML.Input) {
+            String name = null;
+            for (HTML.Attribute attribute : element.attributes()) {
+                if (attribute.name().equals("name") && attribute.hasValue()) {
+                    name = attribute.value();
+                }
+            }
+            if (name != null) {
+                compiler.attribute(name, element, "value");
+                if (element.parent() instanceof HTML.Label) {
+                    compiler.text(name + ".label", element.parent());
+                }
+                for (HTML.Element child : element.children()) {
+                    if (child instanceof HTML.Datalist && !child.children().isEmpty()) {
+                        compiler.repeat(name + ".options", child);
+                        compiler.attribute("value", child.children().get(0), "value");
+                    }
+                }
+            }
+        }
+        for (HTML.Element child : element.children()) {
+            declareHoles(compiler, child);
+        }
+    }
+
+    private Optional<HTML.Page> producePage(Style styleSheet) throws Exception {
+        Optional<HTML.Element> optPageElement = this.build();
+        this.throwException();
+        if (optPageElement.isPresent()) {
+            HTML.Page pageElement = (HTML.Page) optPageElement.get();
+            List<CSS.Block> blocks = new ArrayList<>();
+            for (CSS.Style cssStyle : styleSheet.styles()) {
+                if (cssStyle instanceof CSS.Block) {
+                    blocks.add((CSS.Block) cssStyle);
+                }
+            }
+            if (this.compactNames) {
+                HTML.Compaction pageCompaction = HTML.Compaction.compact(pageElement, blocks);
+                blocks = pageCompaction.blocks();
+                this.compaction = pageCompaction;
+            }
+            HTML.Style style = HTML.Style.create();
+            pageElement.append(style);
+            for (CSS.Block cssBlock : blocks) {
+                style.append(cssBlock);
+            }
+            return Optional.of(pageElement);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected HTML.Element build0() throws Exception {
+        HTML.Page pageElement = HTML.Page.create();
+        if (this.isViewport) {
+            HTML.Meta metaViewport = HTML.Meta.createViewport(this.viewportWidth, this.viewportScale);
+            pageElement.append(metaViewport);
+        }
+        HTML.Title titleElement = HTML.Title.create();
+        titleElement.setTextContent(this.title);
+        pageElement.append(titleElement);
+
+        for (Frame item : this.items()) {
+            Optional<HTML.Element> optElement = item.build();
+            item.throwException();
+            if (optElement.isPresent()) {
+                pageElement.append(optElement.get());
+            }
+        }
+        return pageElement;
+    }
+
+    @Override
+    public boolean visible() {
+        return true;
+    }
+
+}
+
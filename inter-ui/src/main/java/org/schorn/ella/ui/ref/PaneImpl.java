@@ -27,8 +27,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.IdStrategy;
 import org.schorn.ella.ui.layout.Item;
 import org.schorn.ella.ui.layout.Pane;
 import org.schorn.ella.ui.layout.Widget;
@@ -53,8 +53,9 @@ class PaneImpl implements Pane {
     private Exception exception = null;
 
     PaneImpl(String name, String label) {
-        this.formId = UUID.randomUUID().toString();
-        support.properties().put(Item.Properties.ID, UUID.randomUUID().toString());
+        IdStrategy ids = IdStrategy.current();
+        this.formId = ids.newId("form", name);
+        support.properties().put(Item.Properties.ID, ids.newId(this.type().className(), name));
         support.properties().put(Item.Properties.NAME, name);
         support.properties().put(Item.Properties.LABEL, label);
         support.properties().put(Item.Properties.VISIBLE, Boolean.TRUE);
@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Element;
+
+/**
+ *
+ * Fork/join rendering of an element tree. Every subtree of at least GRAIN
+ * elements is rendered by its own task into its own buffer, the buffers are
+ * then written into the sink in document order by the calling thread.
+ *
+ * Subtrees large enough to fork do not keep their output (RenderCache) when
+ * rendered this way, keeping it would render them on one thread every time
+ * they are rendered after a change. The smaller subtrees inside them keep
+ * theirs as in a serial render.
+ *
+ * @author bschorn
+ */
+final class ParallelRender {
+
+    /**
+     * Trees smaller than this are rendered on the calling thread.
+     */
+    static final int THRESHOLD = 4096;
+    /**
+     * Smallest subtree that is worth a task of its own.
+     */
+    static final int GRAIN = 512;
+
+    private final Map<Element, Integer> sizes = new IdentityHashMap<>();
+
+    private ParallelRender() {
+    }
+
+    static void render(HtmlFactoryImpl.ElementImpl element, Appendable out, HTML.RenderMode renderMode,
+            int level, ForkJoinPool pool) throws IOException {
+        ParallelRender parallelRender = new ParallelRender();
+        if (pool == null || parallelRender.measure(element) < THRESHOLD) {
+            element.render(out, renderMode, level, false);
+            return;
+        }
+        Segments segments;
+        try {
+            segments = pool.invoke(parallelRender.new Task(element, renderMode, level, false));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        segments.writeTo(out);
+    }
+
+    /**
+     * Counts the elements of the subtree, remembering the ones that are large
+     * enough to fork.
+     *
+     * @param element
+     * @return
+     */
+    private int measure(Element element) {
+        int size = 1;
+        for (Element child : element.children()) {
+            if (child.parent() == element) {
+                size += this.measure(child);
+            }
+        }
+        if (size >= GRAIN) {
+            this.sizes.put(element, size);
+        }
+        return size;
+    }
+
+    private final class Task extends RecursiveTask<Segments> {
+
+        static private final long serialVersionUID = 1L;
+
+        private final HtmlFactoryImpl.ElementImpl element;
+        private final HTML.RenderMode renderMode;
+        private final int level;
+        private final boolean omitEndTag;
+
+        Task(HtmlFactoryImpl.ElementImpl element, HTML.RenderMode renderMode, int level, boolean omitEndTag) {
+            this.element = element;
+            this.renderMode = renderMode;
+            this.level = level;
+            this.omitEndTag = omitEndTag;
+        }
+
+        @Override
+        protected Segments compute() {
+            Segments segments = new Segments();
+            try {
+                this.element.render(segments, this.renderMode, this.level, this.omitEndTag);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return segments;
+        }
+    }
+
+    /**
+     * The output of one task: text rendered in place interleaved with the
+     * tasks forked for large child subtrees.
+     */
+    final class Segments implements Appendable {
+
+        private final List<Object> parts = new ArrayList<>();
+        private StringBuilder current = new StringBuilder(1024);
+
+        /**
+         * @param element
+         * @return whether the subtree is large enough for a task of its own
+         */
+        boolean forks(HtmlFactoryImpl.ElementImpl element) {
+            return ParallelRender.this.sizes.containsKey(element);
+        }
+
+        /**
+         * Hands the child subtree to a task of its own if it is large enough.
+         *
+         * @param child
+         * @param renderMode
+         * @param level
+         * @param omitEndTag
+         * @return false when the caller should render the child in place
+         */
+        boolean fork(HtmlFactoryImpl.ElementImpl child, HTML.RenderMode renderMode, int level, boolean omitEndTag) {
+            if (!this.forks(child)) {
+                return false;
+            }
+            if (this.current.length() > 0) {
+                this.parts.add(this.current);
+                this.current = new StringBuilder(1024);
+            }
+            Task task = new Task(child, renderMode, level, omitEndTag);
+            task.fork();
+            this.parts.add(task);
+            return true;
+        }
+
+        void writeTo(Appendable out) throws IOException {
+            for (Object part : this.parts) {
+                if (part instanceof Task) {
+                    Segments segments;
+                    try {
+                        segments = ((Task) part).join();
+                    } catch (UncheckedIOException ex) {
+                        throw ex.getCause();
+                    }
+                    segments.writeTo(out);
+                } else {
+                    out.append((CharSequence) part);
+                }
+            }
+            out.append(this.current);
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            this.current.append(csq);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            this.current.append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            this.current.append(c);
+            return this;
+        }
+    }
+}
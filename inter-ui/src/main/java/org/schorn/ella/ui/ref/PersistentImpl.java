@@ -0,0 +1,748 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * HTML.Persistent, an element whose tag, attributes (immutable instances),
+ * text and children never change after construction.
+ *
+ * Rendering keeps, on every element it renders, its own start tag (with the
+ * attributes and text content) and the UTF-8 bytes of it once it has been
+ * written into a byte sink. A new version of the tree only renders the start
+ * tags of the elements it does not share with an older version, and what is
+ * kept grows with the elements rather than with the versions. The tree is
+ * still walked on every render, the indentation, whitespace and end tags
+ * depend on where an element sits and are written as it goes.
+ *
+ * A copy taken with sharing is hash-consed: identical subtrees (apart from
+ * ids and references to ids, which are unique) are one instance, with one
+ * kept start tag wherever they appear.
+ *
+ * @author bschorn
+ */
+final class PersistentImpl implements HTML.Persistent {
+
+    static private final Logger LGR = LoggerFactory.getLogger(PersistentImpl.class);
+    static private final PersistentImpl[] NO_CHILDREN = new PersistentImpl[0];
+    static private final Attribute[] NO_ATTRIBUTES = new Attribute[0];
+
+    /**
+     * The immutable copy of the tree (or the tree itself if it is already
+     * persistent).
+     *
+     * @param element
+     * @return
+     */
+    static PersistentImpl of(Element element) {
+        return of(element, null);
+    }
+
+    /**
+     * @param element
+     * @param sharing the subtrees copied so far, null to copy without
+     * sharing
+     * @return
+     */
+    static PersistentImpl of(Element element, Sharing sharing) {
+        if (element instanceof PersistentImpl) {
+            return (PersistentImpl) element;
+        }
+        if (element instanceof HTML.CustomElement) {
+            element = ((HTML.CustomElement) element).owner();
+        }
+        List<Attribute> attributes = new ArrayList<>(element.attributes().size());
+        for (Attribute attribute : element.attributes()) {
+            if (attribute.hasValue()) {
+                attributes.add(Attribute.immutable(attribute));
+            }
+        }
+        List<Element> children = element.children();
+        PersistentImpl[] copies = children.isEmpty() ? NO_CHILDREN : new PersistentImpl[children.size()];
+        int i = 0;
+        for (Element child : children) {
+            copies[i++] = of(child, sharing);
+        }
+        if (sharing != null) {
+            copies = sharing.children(copies);
+        }
+        String[] css = null;
+        if (element instanceof HtmlFactoryImpl.HtmlStyleImpl
+                && !((HtmlFactoryImpl.HtmlStyleImpl) element).cssBlocks().isEmpty()) {
+            css = renderCss(((HtmlFactoryImpl.HtmlStyleImpl) element).cssBlocks());
+        }
+        PersistentImpl copy = new PersistentImpl(element.tag(), element.tagOmission(),
+                attributes.isEmpty() ? NO_ATTRIBUTES : attributes.toArray(new Attribute[attributes.size()]),
+                element.getTextContent(), copies, css);
+        return sharing == null ? copy : sharing.node(copy);
+    }
+
+    /**
+     * Style sheets are mutable, they are frozen as their rendered text in
+     * each render mode.
+     */
+    static private String[] renderCss(List<CSS.Block> blocks) {
+        String[] css = new String[HTML.RenderMode.values().length];
+        for (HTML.RenderMode renderMode : HTML.RenderMode.values()) {
+            StringBuilder builder = new StringBuilder();
+            try {
+                for (CSS.Block block : blocks) {
+                    block.render(builder, renderMode);
+                }
+            } catch (IOException ex) {
+                LGR.error("{}.renderCss() - Caught Exception: {}",
+                        PersistentImpl.class.getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            css[renderMode.ordinal()] = builder.toString();
+        }
+        return css;
+    }
+
+    private final String tag;
+    private final HTML.TagOmission tagOmission;
+    private final Attribute[] attributes;
+    private final String textContent;
+    private final PersistentImpl[] children;
+    private final String[] css;
+    private volatile String startTag = null;
+    private volatile byte[] startTagBytes = null;
+    private volatile long contentHash = 0;
+    /*
+    id -> path, built on the first pathOf() and handed on to the new root by
+    updates that change neither the shape of the tree nor any id.
+     */
+    private volatile Map<String, int[]> paths = null;
+
+    private PersistentImpl(String tag, HTML.TagOmission tagOmission, Attribute[] attributes,
+            String textContent, PersistentImpl[] children, String[] css) {
+        this.tag = tag;
+        this.tagOmission = tagOmission;
+        this.attributes = attributes;
+        this.textContent = textContent;
+        this.children = children;
+        this.css = css;
+    }
+
+    private PersistentImpl with(Attribute[] attributes, String textContent, PersistentImpl[] children) {
+        return new PersistentImpl(this.tag, this.tagOmission, attributes, textContent, children, this.css);
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										READ
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    @Override
+    public String tag() {
+        return this.tag;
+    }
+
+    @Override
+    public HTML.TagOmission tagOmission() {
+        return this.tagOmission;
+    }
+
+    @Override
+    public String getId() {
+        int index = this.indexOf(HTML.GlobalAttributes.ID.tag());
+        return index < 0 ? "" : this.attributes[index].value();
+    }
+
+    @Override
+    public String getTextContent() {
+        return this.textContent;
+    }
+
+    @Override
+    public List<Attribute> attributes() {
+        return Collections.unmodifiableList(Arrays.asList(this.attributes));
+    }
+
+    @Override
+    public Element parent() {
+        return this;
+    }
+
+    @Override
+    public List<Element> children() {
+        return Collections.unmodifiableList(Arrays.asList(this.children));
+    }
+
+    @Override
+    public PersistentImpl child(int index) {
+        return this.children[index];
+    }
+
+    @Override
+    public void throwException() throws Exception {
+    }
+
+    @Override
+    public Optional<int[]> pathOf(String id) {
+        Map<String, int[]> map = this.paths;
+        if (map == null) {
+            map = new HashMap<>();
+            this.collectPaths(map, new int[0]);
+            this.paths = map;
+        }
+        int[] path = map.get(id);
+        return path == null ? Optional.empty() : Optional.of(path.clone());
+    }
+
+    private void collectPaths(Map<String, int[]> map, int[] path) {
+        String id = this.getId();
+        if (!id.isEmpty()) {
+            map.putIfAbsent(id, path);
+        }
+        for (int i = 0; i < this.children.length; i++) {
+            int[] childPath = Arrays.copyOf(path, path.length + 1);
+            childPath[path.length] = i;
+            this.children[i].collectPaths(map, childPath);
+        }
+    }
+
+    @Override
+    public Optional<Element> getElementById(String id) {
+        Optional<int[]> path = this.pathOf(id);
+        if (!path.isPresent()) {
+            return Optional.empty();
+        }
+        PersistentImpl element = this;
+        for (int index : path.get()) {
+            element = element.children[index];
+        }
+        return Optional.of(element);
+    }
+
+    @Override
+    public List<Element> getElementsByClass(String className) {
+        List<Element> elements = new ArrayList<>();
+        this.collectClass(className, elements);
+        return Collections.unmodifiableList(elements);
+    }
+
+    private void collectClass(String className, List<Element> elements) {
+        int index = this.indexOf(HTML.GlobalAttributes.CLASS.tag());
+        if (index >= 0 && Arrays.asList(this.attributes[index].value().split("\\s+")).contains(className)) {
+            elements.add(this);
+        }
+        for (PersistentImpl child : this.children) {
+            child.collectClass(className, elements);
+        }
+    }
+
+    /**
+     * The element is the root of the tree the selector is matched in, so a
+     * combinator never reaches outside of it.
+     *
+     * @param selector
+     * @return
+     */
+    @Override
+    public List<Element> querySelectorAll(String selector) {
+        return SelectorQuery.compile(selector).selectAll(this);
+    }
+
+    @Override
+    public boolean matches(String selector) {
+        return SelectorQuery.compile(selector).matches(this);
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < this.attributes.length; i++) {
+            if (this.attributes[i].name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										UPDATE
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    @Override
+    public HTML.Persistent update(int[] path, UnaryOperator<HTML.Persistent> update) {
+        PersistentImpl target = this;
+        for (int index : path) {
+            target = target.children[index];
+        }
+        PersistentImpl updated = of(update.apply(target));
+        if (updated == target) {
+            return this;
+        }
+        PersistentImpl root = this.replace(path, 0, updated);
+        if (updated.children == target.children && updated.getId().equals(target.getId())) {
+            root.paths = this.paths;
+        }
+        return root;
+    }
+
+    private PersistentImpl replace(int[] path, int depth, PersistentImpl updated) {
+        if (depth == path.length) {
+            return updated;
+        }
+        PersistentImpl[] children = this.children.clone();
+        children[path[depth]] = children[path[depth]].replace(path, depth + 1, updated);
+        return this.with(this.attributes, this.textContent, children);
+    }
+
+    @Override
+    public HTML.Persistent withTextContent(String content) {
+        if (Objects.equals(content, this.textContent)) {
+            return this;
+        }
+        return this.with(this.attributes, content, this.children);
+    }
+
+    @Override
+    public HTML.Persistent withAttribute(Attribute attribute) {
+        Attribute[] attributes;
+        int index = this.indexOf(attribute.name());
+        if (!attribute.hasValue()) {
+            return index < 0 ? this : this.withoutAttribute(attribute.name());
+        }
+        if (index < 0) {
+            attributes = Arrays.copyOf(this.attributes, this.attributes.length + 1);
+            index = this.attributes.length;
+        } else {
+            attributes = this.attributes.clone();
+        }
+        attributes[index] = Attribute.immutable(attribute);
+        return this.with(attributes, this.textContent, this.children);
+    }
+
+    @Override
+    public HTML.Persistent withoutAttribute(String name) {
+        int index = this.indexOf(name);
+        if (index < 0) {
+            return this;
+        }
+        Attribute[] attributes = new Attribute[this.attributes.length - 1];
+        System.arraycopy(this.attributes, 0, attributes, 0, index);
+        System.arraycopy(this.attributes, index + 1, attributes, index, attributes.length - index);
+        return this.with(attributes, this.textContent, this.children);
+    }
+
+    @Override
+    public HTML.Persistent withClass(String className) {
+        int index = this.indexOf(HTML.GlobalAttributes.CLASS.tag());
+        String value = className;
+        if (index >= 0) {
+            String classes = this.attributes[index].value();
+            if (Arrays.asList(classes.split("\\s+")).contains(className)) {
+                return this;
+            }
+            value = classes + " " + className;
+        }
+        try {
+            return this.withAttribute(Attribute.create(HTML.GlobalAttributes.CLASS, value));
+        } catch (Exception ex) {
+            LGR.error("{}.withClass() - Caught Exception: {}",
+                    this.getClass().getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+        return this;
+    }
+
+    @Override
+    public HTML.Persistent withChild(int index, Element child) {
+        PersistentImpl[] children = new PersistentImpl[this.children.length + 1];
+        System.arraycopy(this.children, 0, children, 0, index);
+        children[index] = of(child);
+        System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+        return this.with(this.attributes, this.textContent, children);
+    }
+
+    @Override
+    public HTML.Persistent withoutChild(int index) {
+        PersistentImpl[] children = new PersistentImpl[this.children.length - 1];
+        System.arraycopy(this.children, 0, children, 0, index);
+        System.arraycopy(this.children, index + 1, children, index, children.length - index);
+        return this.with(this.attributes, this.textContent, children.length == 0 ? NO_CHILDREN : children);
+    }
+
+    @Override
+    public HTML.Persistent withChildReplaced(int index, Element child) {
+        PersistentImpl replacement = of(child);
+        if (replacement == this.children[index]) {
+            return this;
+        }
+        PersistentImpl[] children = this.children.clone();
+        children[index] = replacement;
+        return this.with(this.attributes, this.textContent, children);
+    }
+
+    /**
+     * Nodes are immutable, only those on a path to a (re)id'd element are
+     * copied, everything else is shared with this tree.
+     *
+     * @return
+     */
+    @Override
+    public Element cloneDeep() {
+        IdRewriter ids = new IdRewriter(this);
+        return ids.isEmpty() ? this : this.cloneDeep(ids);
+    }
+
+    private PersistentImpl cloneDeep(IdRewriter ids) {
+        Attribute[] attributes = this.attributes;
+        for (int i = 0; i < attributes.length; i++) {
+            Attribute rewritten = ids.rewrite(attributes[i]);
+            if (rewritten != null) {
+                if (attributes == this.attributes) {
+                    attributes = attributes.clone();
+                }
+                attributes[i] = Attribute.immutable(rewritten);
+            }
+        }
+        PersistentImpl[] children = this.children;
+        for (int i = 0; i < children.length; i++) {
+            PersistentImpl child = children[i].cloneDeep(ids);
+            if (child != children[i]) {
+                if (children == this.children) {
+                    children = children.clone();
+                }
+                children[i] = child;
+            }
+        }
+        if (attributes == this.attributes && children == this.children) {
+            return this;
+        }
+        return this.with(attributes, this.textContent, children);
+    }
+
+    @Override
+    public Element setId(String value) {
+        throw this.immutable("setId");
+    }
+
+    @Override
+    public Element setTextContent(String content) {
+        throw this.immutable("setTextContent");
+    }
+
+    @Override
+    public Element addAttribute(Attribute attribute) {
+        throw this.immutable("addAttribute");
+    }
+
+    @Override
+    public Element addClass(String className) {
+        throw this.immutable("addClass");
+    }
+
+    @Override
+    public Element append(Element element) {
+        throw this.immutable("append");
+    }
+
+    @Override
+    public Element insert(Element element) {
+        throw this.immutable("insert");
+    }
+
+    private UnsupportedOperationException immutable(String method) {
+        return new UnsupportedOperationException(String.format("%s.%s() - persistent elements are immutable",
+                this.getClass().getSimpleName(), method));
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										RENDER
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    @Override
+    public String render() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            this.render(builder);
+        } catch (IOException ex) {
+            LGR.error(ToString.stackTrace(ex));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void render(Appendable out) throws IOException {
+        this.render(out, HTML.RenderMode.PRETTY);
+    }
+
+    @Override
+    public void render(Appendable out, HTML.RenderMode renderMode) throws IOException {
+        this.render(out, renderMode, 0, false);
+    }
+
+    /**
+     * The tree is rendered on the calling thread, there is little left for
+     * the pool to do once the start tags are kept.
+     */
+    @Override
+    public void render(Appendable out, HTML.RenderMode renderMode, ForkJoinPool pool) throws IOException {
+        this.render(out, renderMode);
+    }
+
+    @Override
+    public void renderTo(OutputStream outputStream, HTML.RenderMode renderMode) throws IOException {
+        try (Utf8Sink sink = Utf8Sink.create(outputStream)) {
+            this.render(sink, renderMode);
+        }
+    }
+
+    @Override
+    public void renderTo(WritableByteChannel channel, HTML.RenderMode renderMode) throws IOException {
+        try (Utf8Sink sink = Utf8Sink.create(channel)) {
+            this.render(sink, renderMode);
+        }
+    }
+
+    private void render(Appendable out, HTML.RenderMode renderMode, int level, boolean omitEndTag)
+            throws IOException {
+        boolean pretty = renderMode == HTML.RenderMode.PRETTY;
+        boolean linefeeds = renderMode != HTML.RenderMode.MINIFIED;
+        if (pretty) {
+            out.append(indent(level));
+        }
+        this.writeStartTag(out);
+        if (this.children.length > 0 || this.css != null) {
+            if (linefeeds) {
+                out.append(HtmlFactoryImpl.ElementImpl.LINEFEED);
+            }
+            if (this.css != null) {
+                out.append(this.css[renderMode.ordinal()]);
+            } else {
+                this.renderChildren(out, renderMode, level);
+            }
+            if (pretty) {
+                out.append(indent(level));
+            }
+        }
+        if (!omitEndTag && this.tagOmission != HTML.TagOmission.EndMustBeOmitted) {
+            if (out instanceof Utf8Sink) {
+                ((Utf8Sink) out).write(Utf8Sink.tagBytes(this.tag).close);
+            } else {
+                out.append("</").append(this.tag).append('>');
+            }
+        }
+        if (linefeeds) {
+            out.append(HtmlFactoryImpl.ElementImpl.LINEFEED);
+        }
+    }
+
+    /**
+     * The start tag does not depend on the render mode or on where the
+     * element sits, it is rendered once (and encoded once) for every version
+     * of the tree the element is in.
+     */
+    private void writeStartTag(Appendable out) throws IOException {
+        String text = this.startTag;
+        if (text == null) {
+            StringBuilder builder = new StringBuilder(64);
+            builder.append('<').append(this.tag);
+            for (Attribute attribute : this.attributes) {
+                builder.append(' ');
+                attribute.render(builder);
+            }
+            builder.append(this.tagOmission == HTML.TagOmission.EndMustBeOmitted ? " />" : ">");
+            if (this.textContent != null) {
+                builder.append(this.textContent);
+            }
+            this.startTag = text = builder.toString();
+        }
+        if (out instanceof Utf8Sink) {
+            byte[] bytes = this.startTagBytes;
+            if (bytes == null) {
+                this.startTagBytes = bytes = text.getBytes(StandardCharsets.UTF_8);
+            }
+            ((Utf8Sink) out).write(bytes);
+        } else {
+            out.append(text);
+        }
+    }
+
+    /**
+     * Same whitespace and end tag omission rules as ElementImpl.
+     */
+    private void renderChildren(Appendable out, HTML.RenderMode renderMode, int level) throws IOException {
+        boolean minified = renderMode == HTML.RenderMode.MINIFIED;
+        PersistentImpl previous = null;
+        for (int i = 0; i < this.children.length; i++) {
+            PersistentImpl element = this.children[i];
+            boolean omitEndTag = false;
+            if (minified) {
+                boolean phrasingBefore = previous == null
+                        ? (this.textContent != null && !this.textContent.isEmpty())
+                        || HtmlFactoryImpl.ElementImpl.isPhrasing(this)
+                        : HtmlFactoryImpl.ElementImpl.isPhrasing(previous);
+                if (phrasingBefore && HtmlFactoryImpl.ElementImpl.isPhrasing(element)) {
+                    out.append(' ');
+                }
+                omitEndTag = HtmlFactoryImpl.ElementImpl.canOmitEndTag(element.tag, element.tagOmission, this.tag,
+                        i + 1 < this.children.length ? this.children[i + 1] : null);
+            }
+            element.render(out, renderMode, level + 1, omitEndTag);
+            previous = element;
+        }
+        if (minified && previous != null && HtmlFactoryImpl.ElementImpl.isPhrasing(previous)
+                && HtmlFactoryImpl.ElementImpl.isPhrasing(this)
+                && this.tagOmission != HTML.TagOmission.EndMustBeOmitted) {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Computed once, a new version only hashes the nodes it does not share
+     * with the version it was derived from.
+     */
+    @Override
+    public long contentHash() {
+        long hash = this.contentHash;
+        if (hash == 0) {
+            hash = ContentHash.start(this.tag);
+            for (Attribute attribute : this.attributes) {
+                hash = ContentHash.attribute(hash, attribute);
+            }
+            hash = ContentHash.text(hash, this.textContent);
+            if (this.css != null) {
+                hash = ContentHash.text(hash, this.css[HTML.RenderMode.MINIFIED.ordinal()]);
+            }
+            for (PersistentImpl child : this.children) {
+                hash = ContentHash.child(hash, child.contentHash());
+            }
+            this.contentHash = hash = ContentHash.finish(hash);
+        }
+        return hash;
+    }
+
+    static private String indent(int level) {
+        String[] indent = HtmlFactoryImpl.ElementImpl.INDENT;
+        return indent[Math.min(level, indent.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return this.render();
+    }
+
+    /**
+     * Hash-consing of one copy. A node whose tag, attributes, text and
+     * (already shared) children equal those of a node copied before is
+     * replaced by that node. Nodes with an id or a reference to one keep
+     * their own instance, they still share their children.
+     */
+    static final class Sharing {
+
+        private final Map<Shape, PersistentImpl> nodes = new HashMap<>();
+        private final Map<List<PersistentImpl>, PersistentImpl[]> children = new HashMap<>();
+
+        PersistentImpl[] children(PersistentImpl[] copies) {
+            if (copies.length == 0) {
+                return NO_CHILDREN;
+            }
+            return this.children.computeIfAbsent(Arrays.asList(copies), k -> copies);
+        }
+
+        PersistentImpl node(PersistentImpl copy) {
+            for (Attribute attribute : copy.attributes) {
+                if (IdRewriter.isIdentity(attribute)) {
+                    return copy;
+                }
+            }
+            PersistentImpl existing = this.nodes.putIfAbsent(new Shape(copy), copy);
+            return existing == null ? copy : existing;
+        }
+    }
+
+    /**
+     * Structural equality of a node whose children have been shared (so
+     * that they compare by identity).
+     */
+    static private final class Shape {
+
+        final PersistentImpl node;
+        final int hash;
+
+        Shape(PersistentImpl node) {
+            this.node = node;
+            int hash = node.tag.hashCode();
+            for (Attribute attribute : node.attributes) {
+                hash = hash * 31 + attribute.render().hashCode();
+            }
+            hash = hash * 31 + Objects.hashCode(node.textContent);
+            hash = hash * 31 + System.identityHashCode(node.children);
+            this.hash = hash * 31 + Arrays.hashCode(node.css);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(java.lang.Object object) {
+            if (!(object instanceof Shape) || ((Shape) object).hash != this.hash) {
+                return false;
+            }
+            PersistentImpl other = ((Shape) object).node;
+            if (other.children != this.node.children
+                    || !other.tag.equals(this.node.tag)
+                    || other.tagOmission != this.node.tagOmission
+                    || !Objects.equals(other.textContent, this.node.textContent)
+                    || !Arrays.equals(other.css, this.node.css)
+                    || other.attributes.length != this.node.attributes.length) {
+                return false;
+            }
+            for (int i = 0; i < this.node.attributes.length; i++) {
+                if (!other.attributes[i].render().equals(this.node.attributes[i].render())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.schorn.ella.ui.html.HTML;
+
+/**
+ *
+ * The rendered output of an unchanged element subtree along with what it was
+ * rendered for. The UTF-8 bytes are only encoded once the fragment is written
+ * into a byte sink.
+ *
+ * Streamed text content is not kept, the fragment is then the kept output
+ * around each one and the text content itself, streamed again every time.
+ *
+ * @author bschorn
+ */
+final class RenderCache {
+
+    private final HTML.RenderMode renderMode;
+    private final int level;
+    private final boolean omitEndTag;
+    private final String text;
+    private final byte[] bytes;
+    /*
+    the kept output (String) and streamed text (HTML.TextContent) in order,
+    null when there is no streamed text
+     */
+    private final java.lang.Object[] parts;
+    private final byte[][] partBytes;
+
+    RenderCache(HTML.RenderMode renderMode, int level, boolean omitEndTag, String text, byte[] bytes) {
+        this(renderMode, level, omitEndTag, text, bytes, null, null);
+    }
+
+    private RenderCache(HTML.RenderMode renderMode, int level, boolean omitEndTag, String text, byte[] bytes,
+            java.lang.Object[] parts, byte[][] partBytes) {
+        this.renderMode = renderMode;
+        this.level = level;
+        this.omitEndTag = omitEndTag;
+        this.text = text;
+        this.bytes = bytes;
+        this.parts = parts;
+        this.partBytes = partBytes;
+    }
+
+    boolean matches(HTML.RenderMode renderMode, int level, boolean omitEndTag) {
+        return this.renderMode == renderMode
+                && this.omitEndTag == omitEndTag
+                && (renderMode != HTML.RenderMode.PRETTY || this.level == level);
+    }
+
+    /**
+     * Writes the fragment, returns the instance to keep (which has the bytes
+     * if they had to be encoded).
+     *
+     * @param out
+     * @return
+     * @throws IOException
+     */
+    RenderCache writeTo(Appendable out) throws IOException {
+        if (this.parts != null) {
+            return this.writePartsTo(out);
+        }
+        if (out instanceof Utf8Sink) {
+            RenderCache cache = this;
+            if (cache.bytes == null) {
+                cache = new RenderCache(this.renderMode, this.level, this.omitEndTag,
+                        this.text, this.text.getBytes(StandardCharsets.UTF_8));
+            }
+            ((Utf8Sink) out).write(cache.bytes);
+            return cache;
+        }
+        out.append(this.text);
+        return this;
+    }
+
+    private RenderCache writePartsTo(Appendable out) throws IOException {
+        RenderCache cache = this;
+        if (out instanceof Utf8Sink && cache.partBytes == null) {
+            byte[][] partBytes = new byte[this.parts.length][];
+            for (int i = 0; i < this.parts.length; i++) {
+                if (this.parts[i] instanceof String) {
+                    partBytes[i] = ((String) this.parts[i]).getBytes(StandardCharsets.UTF_8);
+                }
+            }
+            cache = new RenderCache(this.renderMode, this.level, this.omitEndTag,
+                    null, null, this.parts, partBytes);
+        }
+        for (int i = 0; i < this.parts.length; i++) {
+            java.lang.Object part = this.parts[i];
+            if (part instanceof String) {
+                if (out instanceof Utf8Sink) {
+                    ((Utf8Sink) out).write(cache.partBytes[i]);
+                } else {
+                    out.append((String) part);
+                }
+            } else if (out instanceof Capture) {
+                ((Capture) out).stream((HTML.TextContent) part);
+            } else {
+                ((HTML.TextContent) part).render(out);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * The sink an element renders into while its output is being kept.
+     */
+    static final class Capture implements Appendable {
+
+        private final StringBuilder builder = new StringBuilder(256);
+        private List<java.lang.Object> parts = null;
+
+        /**
+         * Keeps a reference to the text content where its output would go.
+         *
+         * @param text
+         */
+        void stream(HTML.TextContent text) {
+            if (this.parts == null) {
+                this.parts = new ArrayList<>();
+            }
+            this.parts.add(this.builder.toString());
+            this.builder.setLength(0);
+            this.parts.add(text);
+        }
+
+        RenderCache toCache(HTML.RenderMode renderMode, int level, boolean omitEndTag) {
+            if (this.parts == null) {
+                return new RenderCache(renderMode, level, omitEndTag, this.builder.toString(), null);
+            }
+            this.parts.add(this.builder.toString());
+            return new RenderCache(renderMode, level, omitEndTag, null, null, this.parts.toArray(), null);
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            this.builder.append(csq);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            this.builder.append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            this.builder.append(c);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return this.builder.toString();
+        }
+    }
+}
@@ -0,0 +1,671 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+
+/**
+ *
+ * A compiled selector list. Each selector is a chain of compound selectors
+ * which is matched right to left: the candidates for the rightmost compound
+ * come from the id, class or tag index of the tree (the narrowest one the
+ * compound has) and only those are walked back through the combinators.
+ *
+ * @author bschorn
+ */
+final class SelectorQuery {
+
+    /*
+    the most recently used selectors, selectors made from per-page ids would
+    otherwise be kept forever
+     */
+    static final int COMPILED_LIMIT = 256;
+    static private final Map<String, SelectorQuery> COMPILED = Collections.synchronizedMap(
+            new LinkedHashMap<String, SelectorQuery>(COMPILED_LIMIT * 2, 0.75f, true) {
+        static private final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SelectorQuery> eldest) {
+            return this.size() > COMPILED_LIMIT;
+        }
+    });
+
+    static SelectorQuery compile(String selector) {
+        SelectorQuery query = COMPILED.get(selector);
+        if (query == null) {
+            query = new Parser(selector).parse();
+            COMPILED.put(selector, query);
+        }
+        return query;
+    }
+
+    private final Compound[][] selectors;
+
+    private SelectorQuery(List<Compound[]> selectors) {
+        this.selectors = selectors.toArray(new Compound[selectors.size()][]);
+    }
+
+    boolean matches(HtmlFactoryImpl.ElementImpl element) {
+        for (Compound[] selector : this.selectors) {
+            if (matches(selector, selector.length - 1, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<Element> selectAll(HtmlFactoryImpl.ElementImpl scope) {
+        ElementIndex index = scope.buildIndex();
+        Set<Element> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Compound[] selector : this.selectors) {
+            Compound subject = selector[selector.length - 1];
+            if (subject.never) {
+                continue;
+            }
+            Collection<Element> candidates = subject.candidates(index);
+            if (candidates == null) {
+                continue;
+            }
+            if (candidates == Compound.ALL) {
+                candidates = new ArrayList<>();
+                descendants(scope, candidates);
+            }
+            for (Element candidate : candidates) {
+                HtmlFactoryImpl.ElementImpl element = (HtmlFactoryImpl.ElementImpl) candidate;
+                if (!selected.contains(element)
+                        && isDescendant(element, scope)
+                        && matches(selector, selector.length - 1, element)) {
+                    selected.add(element);
+                }
+            }
+        }
+        return DocumentOrder.sort(selected);
+    }
+
+    static private void descendants(HtmlFactoryImpl.ElementImpl element, Collection<Element> out) {
+        for (Element child : element.children()) {
+            out.add(child);
+            descendants((HtmlFactoryImpl.ElementImpl) child, out);
+        }
+    }
+
+    static private boolean isDescendant(HtmlFactoryImpl.ElementImpl element, HtmlFactoryImpl.ElementImpl scope) {
+        while (element.parent != element) {
+            element = (HtmlFactoryImpl.ElementImpl) element.parent;
+            if (element == scope) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the element matches selector[0..at], selector[at] being the
+     * compound the element itself has to match.
+     */
+    static private boolean matches(Compound[] selector, int at, HtmlFactoryImpl.ElementImpl element) {
+        Compound compound = selector[at];
+        if (!compound.matches(element)) {
+            return false;
+        }
+        if (at == 0) {
+            return true;
+        }
+        switch (compound.combinator) {
+            case '>':
+                return element.parent != element
+                        && matches(selector, at - 1, (HtmlFactoryImpl.ElementImpl) element.parent);
+            case ' ':
+                while (element.parent != element) {
+                    element = (HtmlFactoryImpl.ElementImpl) element.parent;
+                    if (matches(selector, at - 1, element)) {
+                        return true;
+                    }
+                }
+                return false;
+            case '+':
+            case '~':
+                for (HtmlFactoryImpl.ElementImpl sibling = element.previousSibling; sibling != null; sibling = sibling.previousSibling) {
+                    if (matches(selector, at - 1, sibling)) {
+                        return true;
+                    }
+                    if (compound.combinator == '+') {
+                        break;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Matching for trees whose elements do not know their parent or siblings
+     * (HTML.Persistent, flat document views). The element is the root of
+     * the tree the selector is matched in.
+     *
+     * @param element
+     * @return
+     */
+    boolean matches(Element element) {
+        Walk walk = new Walk(element);
+        for (Compound[] selector : this.selectors) {
+            if (matches(selector, selector.length - 1, walk, 0, 0, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the scope's subtree in document order, the ancestors and the
+     * preceding siblings of an element being those of the walk.
+     *
+     * @param scope
+     * @return
+     */
+    List<Element> selectAll(Element scope) {
+        List<Element> selected = new ArrayList<>();
+        Walk walk = new Walk(scope);
+        this.selectAll(walk, selected);
+        return Collections.unmodifiableList(selected);
+    }
+
+    private void selectAll(Walk walk, List<Element> selected) {
+        int depth = walk.depth;
+        List<Element> children = walk.path[depth].children();
+        for (int i = 0; i < children.size(); i++) {
+            Element child = children.get(i);
+            walk.push(child, i);
+            for (Compound[] selector : this.selectors) {
+                if (matches(selector, selector.length - 1, walk, depth + 1, i, child)) {
+                    selected.add(child);
+                    break;
+                }
+            }
+            this.selectAll(walk, selected);
+            walk.depth = depth;
+        }
+    }
+
+    /**
+     * Whether the element, at depth in the walk and index among its
+     * siblings, matches selector[0..at].
+     */
+    static private boolean matches(Compound[] selector, int at, Walk walk, int depth, int index, Element element) {
+        Compound compound = selector[at];
+        if (!compound.matches(element)) {
+            return false;
+        }
+        if (at == 0) {
+            return true;
+        }
+        switch (compound.combinator) {
+            case '>':
+                return depth > 0
+                        && matches(selector, at - 1, walk, depth - 1, walk.index[depth - 1], walk.path[depth - 1]);
+            case ' ':
+                for (int ancestor = depth - 1; ancestor >= 0; ancestor--) {
+                    if (matches(selector, at - 1, walk, ancestor, walk.index[ancestor], walk.path[ancestor])) {
+                        return true;
+                    }
+                }
+                return false;
+            case '+':
+            case '~':
+                if (depth == 0) {
+                    return false;
+                }
+                List<Element> siblings = walk.path[depth - 1].children();
+                for (int sibling = index - 1; sibling >= 0; sibling--) {
+                    if (matches(selector, at - 1, walk, depth, sibling, siblings.get(sibling))) {
+                        return true;
+                    }
+                    if (compound.combinator == '+') {
+                        break;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The path from the scope to the element being matched, and the index
+     * of each one among its siblings.
+     */
+    static private final class Walk {
+
+        Element[] path = new Element[16];
+        int[] index = new int[16];
+        int depth = 0;
+
+        Walk(Element scope) {
+            this.path[0] = scope;
+        }
+
+        void push(Element element, int index) {
+            if (++this.depth == this.path.length) {
+                this.path = Arrays.copyOf(this.path, this.depth * 2);
+                this.index = Arrays.copyOf(this.index, this.depth * 2);
+            }
+            this.path[this.depth] = element;
+            this.index[this.depth] = index;
+        }
+    }
+
+    /**
+     * A tree of int rows (FlatDocumentImpl), NONE for no element.
+     */
+    interface Rows {
+
+        int NONE = -1;
+
+        String tag(int element);
+
+        /**
+         * @return the value of the element's attribute, null if it has none
+         */
+        String attribute(int element, String name);
+
+        int parent(int element);
+
+        int previousSibling(int element);
+    }
+
+    /**
+     * Matching straight off the rows, the element's ancestors reach up to
+     * the top of its tree as they do for ElementImpl.
+     *
+     * @param rows
+     * @param element
+     * @return
+     */
+    boolean matches(Rows rows, int element) {
+        for (Compound[] selector : this.selectors) {
+            if (matches(selector, selector.length - 1, rows, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static private boolean matches(Compound[] selector, int at, Rows rows, int element) {
+        Compound compound = selector[at];
+        if (!compound.matches(rows, element)) {
+            return false;
+        }
+        if (at == 0) {
+            return true;
+        }
+        switch (compound.combinator) {
+            case '>':
+                element = rows.parent(element);
+                return element != Rows.NONE && matches(selector, at - 1, rows, element);
+            case ' ':
+                while ((element = rows.parent(element)) != Rows.NONE) {
+                    if (matches(selector, at - 1, rows, element)) {
+                        return true;
+                    }
+                }
+                return false;
+            case '+':
+            case '~':
+                while ((element = rows.previousSibling(element)) != Rows.NONE) {
+                    if (matches(selector, at - 1, rows, element)) {
+                        return true;
+                    }
+                    if (compound.combinator == '+') {
+                        break;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * A type/universal selector with its id and class selectors, and the
+     * combinator joining it to the compound on its left.
+     */
+    static final class Compound {
+
+        /*
+        a sentinel of its own (compared by identity), no index lookup can
+        return it
+         */
+        static final Collection<Element> ALL = Collections.unmodifiableList(new ArrayList<>(0));
+
+        String tag = null;
+        String id = null;
+        final List<String> classes = new ArrayList<>(2);
+        char combinator = ' ';
+        boolean never = false;
+
+        /**
+         * @return the narrowest indexed set containing every match, null if
+         * nothing can match, ALL if the compound has nothing indexed
+         */
+        Collection<Element> candidates(ElementIndex index) {
+            if (this.id != null) {
+                return index.withId(this.id);
+            }
+            Collection<Element> narrowest = ALL;
+            for (String className : this.classes) {
+                Set<Element> elements = index.withClass(className);
+                if (elements == null) {
+                    return null;
+                }
+                if (narrowest == ALL || elements.size() < narrowest.size()) {
+                    narrowest = elements;
+                }
+            }
+            if (this.tag != null) {
+                Set<Element> elements = index.withTag(this.tag);
+                if (elements == null) {
+                    return null;
+                }
+                if (narrowest == ALL || elements.size() < narrowest.size()) {
+                    narrowest = elements;
+                }
+            }
+            return narrowest;
+        }
+
+        boolean matches(HtmlFactoryImpl.ElementImpl element) {
+            if (this.never) {
+                return false;
+            }
+            if (this.tag != null && !this.tag.equalsIgnoreCase(element.tag)) {
+                return false;
+            }
+            if (this.id != null) {
+                Attribute id = element.idAttribute();
+                if (id == null || !this.id.equals(id.value())) {
+                    return false;
+                }
+            }
+            if (!this.classes.isEmpty()) {
+                Set<String> classTokens = element.classTokens();
+                for (String className : this.classes) {
+                    if (!classTokens.contains(className)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        boolean matches(Element element) {
+            if (this.never) {
+                return false;
+            }
+            if (this.tag != null && !this.tag.equalsIgnoreCase(element.tag())) {
+                return false;
+            }
+            if (this.id == null && this.classes.isEmpty()) {
+                return true;
+            }
+            String id = null;
+            String classNames = null;
+            for (Attribute attribute : element.attributes()) {
+                if (attribute.name().equals(HTML.GlobalAttributes.ID.tag())) {
+                    id = attribute.value();
+                } else if (attribute.name().equals(HTML.GlobalAttributes.CLASS.tag())) {
+                    classNames = attribute.value();
+                }
+            }
+            return this.matches(id, classNames);
+        }
+
+        boolean matches(Rows rows, int element) {
+            if (this.never) {
+                return false;
+            }
+            if (this.tag != null && !this.tag.equalsIgnoreCase(rows.tag(element))) {
+                return false;
+            }
+            if (this.id == null && this.classes.isEmpty()) {
+                return true;
+            }
+            return this.matches(
+                    this.id == null ? null : rows.attribute(element, HTML.GlobalAttributes.ID.tag()),
+                    this.classes.isEmpty() ? null : rows.attribute(element, HTML.GlobalAttributes.CLASS.tag()));
+        }
+
+        private boolean matches(String id, String classNames) {
+            if (this.id != null && !this.id.equals(id)) {
+                return false;
+            }
+            for (String className : this.classes) {
+                if (classNames == null || !containsToken(classNames, className)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static private boolean containsToken(String tokens, String token) {
+            for (int at = tokens.indexOf(token); at >= 0; at = tokens.indexOf(token, at + 1)) {
+                int end = at + token.length();
+                if ((at == 0 || Character.isWhitespace(tokens.charAt(at - 1)))
+                        && (end == tokens.length() || Character.isWhitespace(tokens.charAt(end)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Orders the selected elements by their position in the tree, computing
+     * the child positions only for the parents on the paths to them.
+     */
+    static final class DocumentOrder {
+
+        private final Map<Element, Map<Element, Integer>> positions = new IdentityHashMap<>();
+        private final Map<Element, int[]> paths = new IdentityHashMap<>();
+
+        static List<Element> sort(Set<Element> selected) {
+            List<Element> sorted = new ArrayList<>(selected);
+            if (sorted.size() > 1) {
+                DocumentOrder order = new DocumentOrder();
+                sorted.sort((a, b) -> compare(order.path(a), order.path(b)));
+            }
+            return Collections.unmodifiableList(sorted);
+        }
+
+        private int[] path(Element element) {
+            int[] path = this.paths.get(element);
+            if (path == null) {
+                HtmlFactoryImpl.ElementImpl elementImpl = (HtmlFactoryImpl.ElementImpl) element;
+                if (elementImpl.parent == elementImpl) {
+                    path = new int[0];
+                } else {
+                    int[] parentPath = this.path(elementImpl.parent);
+                    path = new int[parentPath.length + 1];
+                    System.arraycopy(parentPath, 0, path, 0, parentPath.length);
+                    path[parentPath.length] = this.position(elementImpl);
+                }
+                this.paths.put(element, path);
+            }
+            return path;
+        }
+
+        private int position(HtmlFactoryImpl.ElementImpl element) {
+            Map<Element, Integer> siblings = this.positions.computeIfAbsent(element.parent, parent -> {
+                Map<Element, Integer> map = new IdentityHashMap<>(parent.children().size());
+                int i = 0;
+                for (HtmlFactoryImpl.ElementImpl child = ((HtmlFactoryImpl.ElementImpl) parent).firstChild();
+                        child != null; child = child.nextSibling) {
+                    map.put(child, i++);
+                }
+                return map;
+            });
+            return siblings.get(element);
+        }
+
+        static private int compare(int[] a, int[] b) {
+            for (int i = 0; i < a.length && i < b.length; i++) {
+                if (a[i] != b[i]) {
+                    return Integer.compare(a[i], b[i]);
+                }
+            }
+            return Integer.compare(a.length, b.length);
+        }
+    }
+
+    /**
+     * Recursive descent over: selector-list := selector (',' selector)*,
+     * selector := compound (combinator compound)*, compound := (type | '*')?
+     * ('#' name | '.' name)*. Pseudo-classes, pseudo-elements and attribute
+     * selectors are rejected rather than left never to match.
+     */
+    static final class Parser {
+
+        private final String text;
+        private int at = 0;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        SelectorQuery parse() {
+            List<Compound[]> selectors = new ArrayList<>();
+            do {
+                selectors.add(this.selector());
+            } while (this.accept(','));
+            this.whitespace();
+            if (this.at < this.text.length()) {
+                throw this.error("unexpected '" + this.text.charAt(this.at) + "'");
+            }
+            return new SelectorQuery(selectors);
+        }
+
+        private Compound[] selector() {
+            List<Compound> compounds = new ArrayList<>();
+            this.whitespace();
+            compounds.add(this.compound());
+            while (true) {
+                boolean space = this.whitespace();
+                char combinator;
+                if (this.peek('>') || this.peek('+') || this.peek('~')) {
+                    combinator = this.text.charAt(this.at++);
+                    this.whitespace();
+                } else if (space && this.at < this.text.length() && !this.peek(',')) {
+                    combinator = ' ';
+                } else {
+                    break;
+                }
+                Compound compound = this.compound();
+                compound.combinator = combinator;
+                compounds.add(compound);
+            }
+            return compounds.toArray(new Compound[compounds.size()]);
+        }
+
+        private Compound compound() {
+            Compound compound = new Compound();
+            int start = this.at;
+            if (this.accept('*')) {
+                compound.tag = null;
+            } else if (this.at < this.text.length() && isNameChar(this.text.charAt(this.at))) {
+                compound.tag = this.name().toLowerCase();
+            }
+            while (this.at < this.text.length()) {
+                if (this.accept('#')) {
+                    String id = this.name();
+                    if (compound.id != null && !compound.id.equals(id)) {
+                        compound.never = true;
+                    }
+                    compound.id = id;
+                } else if (this.accept('.')) {
+                    compound.classes.add(this.name());
+                } else if (this.peek(':')) {
+                    throw this.error("pseudo-classes and pseudo-elements are not supported");
+                } else if (this.peek('[')) {
+                    throw this.error("attribute selectors are not supported");
+                } else {
+                    break;
+                }
+            }
+            if (this.at == start) {
+                throw this.error("expected a selector");
+            }
+            return compound;
+        }
+
+        private String name() {
+            int start = this.at;
+            while (this.at < this.text.length() && isNameChar(this.text.charAt(this.at))) {
+                this.at++;
+            }
+            if (this.at == start) {
+                throw this.error("expected a name");
+            }
+            return this.text.substring(start, this.at);
+        }
+
+        private boolean whitespace() {
+            int start = this.at;
+            while (this.at < this.text.length() && Character.isWhitespace(this.text.charAt(this.at))) {
+                this.at++;
+            }
+            return this.at > start;
+        }
+
+        private boolean peek(char c) {
+            return this.at < this.text.length() && this.text.charAt(this.at) == c;
+        }
+
+        private boolean accept(char c) {
+            if (this.peek(c)) {
+                this.at++;
+                return true;
+            }
+            return false;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(String.format("%s at %d in '%s'", message, this.at, this.text));
+        }
+
+        static private boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c > 0x7F;
+        }
+    }
+}
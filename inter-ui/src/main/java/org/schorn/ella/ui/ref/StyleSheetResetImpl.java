@@ -45,11 +45,23 @@ final public class StyleSheetResetImpl implements Style.Reset {
         return INSTANCE;
     }
 
-    private final List<CSS.Style> styles = new ArrayList<>();
+    /*
+    the reset blocks are built on the first styles() call rather than with
+    the provider, so pages that never render a style sheet do not pay for
+    the hundred selectors and the CSS factory behind them
+     */
+    static private final class Styles {
+
+        static final List<CSS.Style> STYLES = build();
+    }
 
     private StyleSheetResetImpl() {
+    }
+
+    static private List<CSS.Style> build() {
+        List<CSS.Style> styles = new ArrayList<>();
         try {
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.createType(HTML.HTML))
                     .append(CSS.Selector.createType(HTML.BODY))
                     .append(CSS.Selector.createType(HTML.DIV))
@@ -140,7 +152,7 @@ final public class StyleSheetResetImpl implements Style.Reset {
                     .append(CSS.Rule.create(CSS.Property.vertical_align, "baseline"))
             );
 
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.createType(HTML.ARTICLE))
                     .append(CSS.Selector.createType(HTML.ASIDE))
                     .append(CSS.Selector.createType(HTML.DETAILS))
@@ -154,24 +166,24 @@ final public class StyleSheetResetImpl implements Style.Reset {
                     .append(CSS.Rule.create(CSS.Property.display, "block"))
             );
 
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.createType(HTML.BODY))
                     .append(CSS.Rule.create(CSS.Property.line_height, "1"))
             );
 
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.createType(HTML.UL))
                     .append(CSS.Selector.createType(HTML.OL))
                     .append(CSS.Rule.create(CSS.Property.list_style, "none"))
             );
 
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.createType(HTML.BLOCKQUOTE))
                     .append(CSS.Selector.createType(HTML.Q_))
                     .append(CSS.Rule.create(CSS.Property.quotes, "none"))
             );
 
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.create("blockquote:before"))
                     .append(CSS.Selector.create("blockquote:after"))
                     .append(CSS.Selector.create("q:before"))
@@ -179,21 +191,22 @@ final public class StyleSheetResetImpl implements Style.Reset {
                     .append(CSS.Rule.create(CSS.Property.content, "none"))
             );
 
-            this.styles.add(CSS.Block.create()
+            styles.add(CSS.Block.create()
                     .append(CSS.Selector.createType(HTML.TABLE))
                     .append(CSS.Rule.create(CSS.Property.border_collapse, "collapse"))
                     .append(CSS.Rule.create(CSS.Property.border_spacing, "0"))
             );
         } catch (Exception ex) {
-            LGR.error("{}.ctor() - Caught Exception: {}",
-                    this.getClass().getSimpleName(),
+            LGR.error("{}.build() - Caught Exception: {}",
+                    StyleSheetResetImpl.class.getSimpleName(),
                     ToString.stackTrace(ex));
         }
+        return styles;
     }
 
     @Override
     public List<CSS.Style> styles() {
-        return this.styles;
+        return Styles.STYLES;
     }
 
     @Override
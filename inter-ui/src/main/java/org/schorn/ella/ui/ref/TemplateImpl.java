@@ -0,0 +1,388 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.html.HTML.Element;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * HTML.Template as a flat sequence of segments: static text (with its UTF-8
+ * bytes encoded once at compile time) and holes.
+ *
+ * @author bschorn
+ */
+final class TemplateImpl implements HTML.Template {
+
+    static private final Logger LGR = LoggerFactory.getLogger(TemplateImpl.class);
+
+    private final Segment[] segments;
+    private final List<String> holes;
+
+    private TemplateImpl(List<Segment> segments) {
+        this.segments = segments.toArray(new Segment[segments.size()]);
+        List<String> holes0 = new ArrayList<>();
+        for (Segment segment : this.segments) {
+            if (segment.hole != null) {
+                holes0.add(segment.hole);
+            }
+        }
+        this.holes = Collections.unmodifiableList(holes0);
+    }
+
+    @Override
+    public List<String> holes() {
+        return this.holes;
+    }
+
+    @Override
+    public void render(Appendable out, Map<String, ?> values) throws IOException {
+        this.render0(out, values);
+    }
+
+    /**
+     * Repetitions are whatever maps the caller put in the collection, their
+     * values are looked up by the (String) hole names all the same.
+     */
+    private void render0(Appendable out, Map<?, ?> values) throws IOException {
+        for (Segment segment : this.segments) {
+            segment.render(out, values);
+        }
+    }
+
+    @Override
+    public void renderTo(OutputStream outputStream, Map<String, ?> values) throws IOException {
+        try (Utf8Sink sink = Utf8Sink.create(outputStream)) {
+            this.render(sink, values);
+        }
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										SEGMENTS
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    static abstract class Segment {
+
+        final String hole;
+
+        Segment(String hole) {
+            this.hole = hole;
+        }
+
+        abstract void render(Appendable out, Map<?, ?> values) throws IOException;
+    }
+
+    static final class Static extends Segment {
+
+        private final String text;
+        private final byte[] bytes;
+
+        Static(String text) {
+            super(null);
+            this.text = text;
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        void render(Appendable out, Map<?, ?> values) throws IOException {
+            if (out instanceof Utf8Sink) {
+                ((Utf8Sink) out).write(this.bytes);
+            } else {
+                out.append(this.text);
+            }
+        }
+    }
+
+    static final class TextHole extends Segment {
+
+        private final String defaultText;
+
+        TextHole(String hole, String defaultText) {
+            super(hole);
+            this.defaultText = defaultText;
+        }
+
+        @Override
+        void render(Appendable out, Map<?, ?> values) throws IOException {
+            Object value = values.get(this.hole);
+            if (value != null) {
+                escape(out, value.toString(), false);
+            } else if (this.defaultText != null) {
+                out.append(this.defaultText);
+            }
+        }
+    }
+
+    /**
+     * Renders " name='value'" (leading space included) or nothing at all.
+     */
+    static final class AttributeHole extends Segment {
+
+        private final String name;
+        private final String defaultValue;
+
+        AttributeHole(String hole, String name, String defaultValue) {
+            super(hole);
+            this.name = name;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        void render(Appendable out, Map<?, ?> values) throws IOException {
+            Object value = values.get(this.hole);
+            if (value != null) {
+                out.append(' ').append(this.name).append("='");
+                escape(out, value.toString(), true);
+                out.append('\'');
+            } else if (this.defaultValue != null) {
+                out.append(' ').append(this.defaultValue);
+            }
+        }
+    }
+
+    static final class RepeatHole extends Segment {
+
+        private final TemplateImpl prototype;
+        private final String defaultText;
+
+        RepeatHole(String hole, TemplateImpl prototype, String defaultText) {
+            super(hole);
+            this.prototype = prototype;
+            this.defaultText = defaultText;
+        }
+
+        @Override
+        void render(Appendable out, Map<?, ?> values) throws IOException {
+            Object value = values.get(this.hole);
+            if (value instanceof Collection) {
+                for (Object repetition : (Collection<?>) value) {
+                    this.prototype.render0(out, repetition instanceof Map
+                            ? (Map<?, ?>) repetition
+                            : Collections.emptyMap());
+                }
+            } else {
+                out.append(this.defaultText);
+            }
+        }
+    }
+
+    static private void escape(Appendable out, String value, boolean attribute) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity;
+            switch (value.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '\'':
+                    entity = attribute ? "&#39;" : null;
+                    break;
+                case '"':
+                    entity = attribute ? "&quot;" : null;
+                    break;
+                default:
+                    entity = null;
+                    break;
+            }
+            if (entity != null) {
+                out.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, value.length());
+    }
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+     *
+     * 										COMPILER
+     *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    static final class Compiler implements HTML.Template.Compiler {
+
+        private final Element root;
+        private final HTML.RenderMode renderMode;
+        private final Map<Element, String> texts = new IdentityHashMap<>();
+        private final Map<Element, Map<String, String>> attributes = new IdentityHashMap<>();
+        private final Map<Element, String> repeats = new IdentityHashMap<>();
+
+        Compiler(Element root, HTML.RenderMode renderMode) {
+            this.root = root;
+            this.renderMode = renderMode;
+        }
+
+        @Override
+        public HTML.Template.Compiler text(String hole, Element element) {
+            this.texts.put(element, hole);
+            return this;
+        }
+
+        @Override
+        public HTML.Template.Compiler attribute(String hole, Element element, String attributeName) {
+            this.attributes.computeIfAbsent(element, k -> new LinkedHashMap<>()).put(attributeName, hole);
+            return this;
+        }
+
+        @Override
+        public HTML.Template.Compiler repeat(String hole, Element container) {
+            this.repeats.put(container, hole);
+            return this;
+        }
+
+        @Override
+        public HTML.Template compile() {
+            Builder builder = new Builder();
+            try {
+                this.root.render(builder, this.renderMode);
+            } catch (IOException ex) {
+                LGR.error("{}.compile() - Caught Exception: {}",
+                        this.getClass().getSimpleName(),
+                        ToString.stackTrace(ex));
+            }
+            return builder.toTemplate();
+        }
+
+        /**
+         * The sink the element tree is rendered into while compiling, elements
+         * hand it their holes instead of their content.
+         */
+        final class Builder implements Appendable {
+
+            private final List<Segment> segments = new ArrayList<>();
+            private final StringBuilder text = new StringBuilder();
+            private final Map<Element, List<String>> pending = new HashMap<>();
+
+            /**
+             * Called for each attribute of the element.
+             *
+             * @return true if the attribute was a hole (and was not to be
+             * rendered)
+             */
+            boolean attribute(Element element, Attribute attribute) {
+                Map<String, String> holes = Compiler.this.attributes.get(element);
+                String hole = holes == null ? null : holes.get(attribute.name());
+                if (hole == null) {
+                    return false;
+                }
+                this.pending.computeIfAbsent(element, k -> new ArrayList<>()).add(attribute.name());
+                this.add(new AttributeHole(hole, attribute.name(), attribute.render()));
+                return true;
+            }
+
+            /**
+             * Called after the element's attributes for the attribute holes
+             * that the element does not (yet) have.
+             */
+            void attributes(Element element) {
+                Map<String, String> holes = Compiler.this.attributes.get(element);
+                if (holes != null) {
+                    List<String> rendered = this.pending.remove(element);
+                    for (Map.Entry<String, String> entry : holes.entrySet()) {
+                        if (rendered == null || !rendered.contains(entry.getKey())) {
+                            this.add(new AttributeHole(entry.getValue(), entry.getKey(), null));
+                        }
+                    }
+                }
+            }
+
+            boolean text(Element element, String textContent) {
+                String hole = Compiler.this.texts.get(element);
+                if (hole == null) {
+                    return false;
+                }
+                this.add(new TextHole(hole, textContent));
+                return true;
+            }
+
+            boolean repeat(HtmlFactoryImpl.ElementImpl container, HTML.RenderMode renderMode, int level) throws IOException {
+                String hole = Compiler.this.repeats.get(container);
+                if (hole == null || container.children().isEmpty()) {
+                    return false;
+                }
+                Builder prototype = new Builder();
+                ((HtmlFactoryImpl.ElementImpl) container.children().get(0)).render(prototype, renderMode, level + 1, false);
+                StringBuilder defaultText = new StringBuilder();
+                container.renderChildren(defaultText, renderMode, level);
+                this.add(new RepeatHole(hole, prototype.toTemplate(), defaultText.toString()));
+                return true;
+            }
+
+            private void add(Segment segment) {
+                this.flush();
+                this.segments.add(segment);
+            }
+
+            private void flush() {
+                if (this.text.length() > 0) {
+                    this.segments.add(new Static(this.text.toString()));
+                    this.text.setLength(0);
+                }
+            }
+
+            TemplateImpl toTemplate() {
+                this.flush();
+                return new TemplateImpl(this.segments);
+            }
+
+            @Override
+            public Appendable append(CharSequence csq) {
+                this.text.append(csq);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                this.text.append(csq, start, end);
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                this.text.append(c);
+                return this;
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@
 package org.schorn.ella.ui.ref;
 
 import java.util.regex.Pattern;
+import org.schorn.ella.ui.Implements;
 import org.schorn.ella.ui.html.HTML;
 import org.schorn.ella.ui.widget.InputWidgets;
 
@@ -31,6 +32,7 @@ import org.schorn.ella.ui.widget.InputWidgets;
  *
  * @author bschorn
  */
+@Implements(type = InputWidgets.class, value = "TEXTBOX")
 final class TextBoxImpl extends InputWidgetImpl implements InputWidgets.TextBox {
 
     private Pattern pattern;
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+import org.schorn.ella.ui.html.HTML;
+
+/**
+ *
+ * HTML.TextContent, a CharSequence view, a Reader supplier or a region of a
+ * UTF-8 file. The text is streamed through a small buffer, a file region
+ * rendered into a byte sink is handed to the sink's channel transfer.
+ *
+ * @author bschorn
+ */
+abstract class TextContentImpl implements HTML.TextContent {
+
+    static private final int CHUNK = 8 * 1024;
+
+    static HTML.TextContent of(CharSequence text, boolean escape) {
+        return new Chars(text, escape);
+    }
+
+    static HTML.TextContent of(Supplier<Reader> reader, boolean escape) {
+        return new Readers(reader, escape);
+    }
+
+    static HTML.TextContent of(Path path, long position, long count, boolean escape) {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException(String.format("%s.of() - invalid region %d+%d of %s",
+                    TextContentImpl.class.getSimpleName(), position, count, path));
+        }
+        return new FileRegion(path, position, count, escape);
+    }
+
+    /**
+     * Appends the characters, replacing &amp;, &lt; and &gt; with their
+     * entities.
+     *
+     * @param out
+     * @param text
+     * @param start
+     * @param end
+     * @throws IOException
+     */
+    static void escape(Appendable out, CharSequence text, int start, int end) throws IOException {
+        int run = start;
+        for (int i = start; i < end; i++) {
+            String entity;
+            switch (text.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                default:
+                    continue;
+            }
+            out.append(text, run, i).append(entity);
+            run = i + 1;
+        }
+        out.append(text, run, end);
+    }
+
+    private final boolean escape;
+
+    TextContentImpl(boolean escape) {
+        this.escape = escape;
+    }
+
+    @Override
+    public boolean escape() {
+        return this.escape;
+    }
+
+    final void append(Appendable out, CharSequence text, int start, int end) throws IOException {
+        if (this.escape) {
+            escape(out, text, start, end);
+        } else {
+            out.append(text, start, end);
+        }
+    }
+
+    /**
+     * The text as it renders.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            this.render(builder);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return builder.toString();
+    }
+
+    static private final class Chars extends TextContentImpl {
+
+        private final CharSequence text;
+
+        Chars(CharSequence text, boolean escape) {
+            super(escape);
+            this.text = text == null ? "" : text;
+        }
+
+        @Override
+        public void render(Appendable out) throws IOException {
+            this.append(out, this.text, 0, this.text.length());
+        }
+    }
+
+    static private final class Readers extends TextContentImpl {
+
+        private final Supplier<Reader> reader;
+
+        Readers(Supplier<Reader> reader, boolean escape) {
+            super(escape);
+            this.reader = reader;
+        }
+
+        @Override
+        public void render(Appendable out) throws IOException {
+            CharBuffer chunk = CharBuffer.allocate(CHUNK);
+            try (Reader reader = this.reader.get()) {
+                while (reader.read(chunk) >= 0) {
+                    chunk.flip();
+                    this.append(out, chunk, 0, chunk.length());
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    static private final class FileRegion extends TextContentImpl {
+
+        private final Path path;
+        private final long position;
+        private final long count;
+
+        FileRegion(Path path, long position, long count, boolean escape) {
+            super(escape);
+            this.path = path;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        public void render(Appendable out) throws IOException {
+            try (FileChannel file = FileChannel.open(this.path, StandardOpenOption.READ)) {
+                if (out instanceof Utf8Sink) {
+                    ((Utf8Sink) out).transferFrom(file, this.position, this.count, this.escape());
+                } else {
+                    this.decode(file, out);
+                }
+            }
+        }
+
+        /*
+         * Decodes the region chunk by chunk, a sequence split by the end of a
+         * chunk is carried over to the next.
+         */
+        private void decode(FileChannel file, Appendable out) throws IOException {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocate(CHUNK);
+            CharBuffer chars = CharBuffer.allocate(CHUNK);
+            long position = this.position;
+            long end = this.position + this.count;
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                bytes.limit((int) Math.min(bytes.capacity(), bytes.position() + end - position));
+                int read = bytes.hasRemaining() ? file.read(bytes, position) : 0;
+                if (read > 0) {
+                    position += read;
+                }
+                endOfInput = read < 0 || position >= end;
+                bytes.flip();
+                decoder.decode(bytes, chars, endOfInput);
+                if (endOfInput) {
+                    decoder.flush(chars);
+                }
+                chars.flip();
+                this.append(out, chars, 0, chars.length());
+                chars.clear();
+                bytes.compact();
+            }
+        }
+    }
+}
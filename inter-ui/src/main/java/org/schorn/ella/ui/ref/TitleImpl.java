@@ -23,6 +23,7 @@
  */
 package org.schorn.ella.ui.ref;
 
+import org.schorn.ella.ui.Implements;
 import org.schorn.ella.ui.html.HTML;
 import org.schorn.ella.ui.widget.OutputWidgets;
 
@@ -30,6 +31,7 @@ import org.schorn.ella.ui.widget.OutputWidgets;
  *
  * @author bschorn
  */
+@Implements(type = OutputWidgets.class, value = "TITLE")
 class TitleImpl extends OutputWidgetImpl implements OutputWidgets.Title {
 
     private String title = "";
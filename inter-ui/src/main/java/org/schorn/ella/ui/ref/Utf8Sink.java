@@ -0,0 +1,343 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.ref;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *
+ * Appendable that encodes UTF-8 straight into a reusable ByteBuffer and
+ * drains it to an OutputStream or WritableByteChannel whenever it fills.
+ *
+ * @author bschorn
+ */
+final class Utf8Sink implements Appendable, AutoCloseable {
+
+    static private final int BUFFER_SIZE = 64 * 1024;
+    static private final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+    static private final ConcurrentMap<String, TagBytes> TAGS = new ConcurrentHashMap<>();
+    static private final byte[] AMP = "&amp;".getBytes(StandardCharsets.US_ASCII);
+    static private final byte[] LT = "&lt;".getBytes(StandardCharsets.US_ASCII);
+    static private final byte[] GT = "&gt;".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Pre-encoded '&lt;tag' and '&lt;/tag&gt;' for an element tag.
+     */
+    static final class TagBytes {
+
+        final byte[] open;
+        final byte[] close;
+
+        private TagBytes(String tag) {
+            this.open = ("<" + tag).getBytes(StandardCharsets.UTF_8);
+            this.close = ("</" + tag + ">").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    static TagBytes tagBytes(String tag) {
+        return TAGS.computeIfAbsent(tag, TagBytes::new);
+    }
+
+    static Utf8Sink create(OutputStream outputStream) {
+        return new Utf8Sink(outputStream, null);
+    }
+
+    static Utf8Sink create(WritableByteChannel channel) {
+        return new Utf8Sink(null, channel);
+    }
+
+    private final OutputStream outputStream;
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private byte[] escaped = null;
+
+    private Utf8Sink(OutputStream outputStream, WritableByteChannel channel) {
+        this.outputStream = outputStream;
+        this.channel = channel;
+        ByteBuffer pooled = BUFFERS.get();
+        if (pooled == null) {
+            pooled = ByteBuffer.allocate(BUFFER_SIZE);
+        } else {
+            BUFFERS.remove();
+        }
+        pooled.clear();
+        this.buffer = pooled;
+        this.bytes = pooled.array();
+    }
+
+    @Override
+    public Utf8Sink append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            return this.append("null", 0, 4);
+        }
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Utf8Sink append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            return this.append("null", start, end);
+        }
+        int i = start;
+        while (i < end) {
+            int pos = this.buffer.position();
+            int limit = Math.min(end, i + this.bytes.length - pos);
+            // ASCII fast path: one byte per char directly into the backing array
+            while (i < limit) {
+                char c = csq.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                this.bytes[pos++] = (byte) c;
+                i++;
+            }
+            this.buffer.position(pos);
+            if (i < end) {
+                char c = csq.charAt(i);
+                if (c < 0x80) {
+                    this.drain();
+                } else {
+                    i = this.encode(csq, i, end);
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8Sink append(char c) throws IOException {
+        if (c < 0x80) {
+            this.ensure(1);
+            this.buffer.put((byte) c);
+            return this;
+        }
+        this.encode(String.valueOf(c), 0, 1);
+        return this;
+    }
+
+    /**
+     * Copies already-encoded bytes as-is.
+     *
+     * @param src
+     * @throws IOException
+     */
+    public void write(byte[] src) throws IOException {
+        this.write(src, 0, src.length);
+    }
+
+    public void write(byte[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!this.buffer.hasRemaining()) {
+                this.drain();
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.put(src, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies a region of a UTF-8 file. Unescaped, what is buffered is drained
+     * and the file channel transfers the region (straight to the target if
+     * the platform can). Escaped, the region is read through the buffer and
+     * &amp;, &lt; and &gt; are replaced byte by byte, which is safe in UTF-8
+     * as no byte of a multi-byte sequence is ASCII.
+     *
+     * @param file
+     * @param position
+     * @param count
+     * @param escape
+     * @throws IOException
+     */
+    public void transferFrom(FileChannel file, long position, long count, boolean escape) throws IOException {
+        long end = Math.min(position + count, file.size());
+        if (!escape) {
+            this.drain();
+            WritableByteChannel target = this.channel != null
+                    ? this.channel
+                    : Channels.newChannel(this.outputStream);
+            while (position < end) {
+                long transferred = file.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            return;
+        }
+        while (position < end) {
+            if (!this.buffer.hasRemaining()) {
+                this.drain();
+            }
+            /*
+            read into the free end of the buffer, then escape in place
+            from where the read started
+             */
+            int from = this.buffer.position();
+            this.buffer.limit((int) Math.min(this.buffer.capacity(), from + end - position));
+            int read = file.read(this.buffer, position);
+            this.buffer.limit(this.buffer.capacity());
+            if (read <= 0) {
+                this.buffer.position(from);
+                break;
+            }
+            position += read;
+            this.escapeFrom(from, from + read);
+        }
+    }
+
+    /*
+     * The bytes read at [from, to) from the first to escape on are moved out
+     * of the buffer and written back with their entities.
+     */
+    private void escapeFrom(int from, int to) throws IOException {
+        int i = from;
+        while (i < to && this.bytes[i] != '&' && this.bytes[i] != '<' && this.bytes[i] != '>') {
+            i++;
+        }
+        if (i == to) {
+            return;
+        }
+        if (this.escaped == null) {
+            this.escaped = new byte[this.bytes.length];
+        }
+        byte[] read = this.escaped;
+        int length = to - i;
+        System.arraycopy(this.bytes, i, read, 0, length);
+        this.buffer.position(i);
+        int run = 0;
+        for (int j = 0; j < length; j++) {
+            byte[] entity;
+            switch (read[j]) {
+                case '&':
+                    entity = AMP;
+                    break;
+                case '<':
+                    entity = LT;
+                    break;
+                case '>':
+                    entity = GT;
+                    break;
+                default:
+                    continue;
+            }
+            this.write(read, run, j - run);
+            this.write(entity);
+            run = j + 1;
+        }
+        this.write(read, run, length - run);
+    }
+
+    public void flush() throws IOException {
+        this.drain();
+        if (this.outputStream != null) {
+            this.outputStream.flush();
+        }
+    }
+
+    /**
+     * Drains what is left and hands the buffer back to the thread's pool. The
+     * underlying stream or channel is left open.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.buffer != null) {
+            try {
+                this.flush();
+            } finally {
+                BUFFERS.set(this.buffer);
+                this.buffer = null;
+                this.bytes = null;
+            }
+        }
+    }
+
+    /*
+     * Encodes the non-ASCII char at index (and its low surrogate, if paired)
+     * returning the index of the next char to encode.
+     */
+    private int encode(CharSequence csq, int index, int end) throws IOException {
+        char c = csq.charAt(index);
+        if (c < 0x800) {
+            this.ensure(2);
+            this.buffer.put((byte) (0xC0 | (c >> 6)));
+            this.buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            if (index + 1 < end && Character.isLowSurrogate(csq.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, csq.charAt(index + 1));
+                this.ensure(4);
+                this.buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                this.buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                this.buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                this.buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                return index + 2;
+            }
+            this.ensure(1);
+            this.buffer.put((byte) '?');
+        } else if (Character.isLowSurrogate(c)) {
+            this.ensure(1);
+            this.buffer.put((byte) '?');
+        } else {
+            this.ensure(3);
+            this.buffer.put((byte) (0xE0 | (c >> 12)));
+            this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            this.buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return index + 1;
+    }
+
+    private void ensure(int count) throws IOException {
+        if (this.buffer.remaining() < count) {
+            this.drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (this.buffer.position() == 0) {
+            return;
+        }
+        if (this.outputStream != null) {
+            this.outputStream.write(this.bytes, 0, this.buffer.position());
+            this.buffer.clear();
+        } else {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 package org.schorn.ella.ui.sampler;
 
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.regex.Pattern;
@@ -86,7 +87,9 @@ public class AlphaApp {
             formAddress.accept(InputWidgets.TextBox.create(Identifier.create("postal"), "Postal", Pattern.compile("^\\d\\d\\d\\d\\d$")));
             editorPanel.accept(formAddress);
 
-            Files.write(Paths.get(OUTFILE), page.produce(new AlphaStyle()).getBytes());
+            try (OutputStream outputStream = Files.newOutputStream(Paths.get(OUTFILE))) {
+                page.produce(new AlphaStyle(), outputStream);
+            }
             page.throwException();
 
         } catch (Exception ex) {
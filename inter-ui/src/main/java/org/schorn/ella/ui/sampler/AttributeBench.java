@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.html.HTML.Attribute;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Times the attribute calls a widget makes during build0() (setId, addClass,
+ * addAttribute and getId) on elements against the list scan the elements
+ * used before the attribute store.
+ *
+ * @author bschorn
+ */
+public class AttributeBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(AttributeBench.class);
+
+    static private final int ELEMENTS = 20_000;
+    static private final int ROUNDS = 15;
+    static private final String[] CLASSES = new String[]{"widget", "textbox", "input", "widget", "label"};
+
+    /**
+     * The attribute handling of the element before the attribute store.
+     */
+    static class ListScan {
+
+        private final List<Attribute> attributes = new ArrayList<>();
+
+        void addAttribute(Attribute attribute) {
+            List<Attribute> existing = this.attributes.stream()
+                    .filter(a -> a.name().equals(attribute.name()))
+                    .collect(Collectors.toList());
+            this.attributes.removeAll(existing);
+            this.attributes.add(attribute);
+        }
+
+        void addClass(String className) throws Exception {
+            List<Attribute> existing = this.attributes.stream()
+                    .filter(a -> a.name().equals(HTML.GlobalAttributes.CLASS.tag()))
+                    .collect(Collectors.toList());
+            if (existing.isEmpty()) {
+                this.addAttribute(Attribute.create(HTML.GlobalAttributes.CLASS, className));
+            } else {
+                existing.get(0).addValue(className);
+            }
+        }
+
+        String getId() {
+            Optional<Attribute> id = this.attributes.stream().filter(a -> a.name().equalsIgnoreCase("id")).findFirst();
+            if (id.isPresent()) {
+                return id.get().value();
+            }
+            return "";
+        }
+    }
+
+    static long listScan() throws Exception {
+        ListScan[] elements = new ListScan[ELEMENTS];
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements[i] = new ListScan();
+        }
+        long start = System.nanoTime();
+        long hash = 0;
+        for (int i = 0; i < ELEMENTS; i++) {
+            ListScan element = elements[i];
+            element.addAttribute(Attribute.create(HTML.GlobalAttributes.ID, "e" + i));
+            for (String className : CLASSES) {
+                element.addClass(className);
+                hash += element.getId().length();
+            }
+            element.addAttribute(Attribute.create("name", "field"));
+            element.addAttribute(Attribute.create("type", "text"));
+            element.addAttribute(Attribute.create("name", "field" + i));
+            hash += element.getId().length() + element.attributes.size();
+        }
+        return consume(hash, start);
+    }
+
+    static long attributeStore() throws Exception {
+        HTML.Input[] elements = new HTML.Input[ELEMENTS];
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements[i] = HTML.Input.create();
+        }
+        long start = System.nanoTime();
+        long hash = 0;
+        for (int i = 0; i < ELEMENTS; i++) {
+            HTML.Input element = elements[i];
+            element.setId("e" + i);
+            for (String className : CLASSES) {
+                element.addClass(className);
+                hash += element.getId().length();
+            }
+            element.addAttribute(Attribute.create("name", "field"));
+            element.addAttribute(Attribute.create("type", "text"));
+            element.addAttribute(Attribute.create("name", "field" + i));
+            hash += element.getId().length() + element.attributes().size();
+        }
+        return consume(hash, start);
+    }
+
+    static private long consume(long hash, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (hash == 0) {
+            LGR.info("{}", hash);
+        }
+        return elapsed;
+    }
+
+    interface Run {
+
+        /**
+         * @return elapsed nanos of the timed part
+         * @throws Exception
+         */
+        long run() throws Exception;
+    }
+
+    static double time(Run run) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, run.run());
+        }
+        return best / (double) ELEMENTS;
+    }
+
+    static public void main(String[] args) {
+        try {
+            double listScan = time(AttributeBench::listScan);
+            double attributeStore = time(AttributeBench::attributeStore);
+            LGR.info(String.format("list scan: %.1f ns/element, attribute store: %.1f ns/element",
+                    listScan, attributeStore));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    AttributeBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Appends, inserts and moves elements between a few parents at random (so
+ * their children go from none to one, held inline, to a child list and
+ * back) and after every move compares the children of every parent, through
+ * lists handed out before the first move, to a model of them. Likewise for
+ * attributes added to and removed from the elements. Exits with 1 on a
+ * mismatch.
+ *
+ * @author bschorn
+ */
+public class ChildCheck {
+
+    static private final Logger LGR = LoggerFactory.getLogger(ChildCheck.class);
+
+    static private final int CASES = 300;
+    static private final int MOVES = 200;
+    static private final int ELEMENTS = 12;
+
+    private final Random random;
+    private final List<HTML.Input> elements = new ArrayList<>();
+    private final Map<HTML.Element, List<HTML.Element>> children = new IdentityHashMap<>();
+    private final Map<HTML.Element, HTML.Element> parents = new IdentityHashMap<>();
+    private final Map<HTML.Element, List<HTML.Element>> held = new IdentityHashMap<>();
+    private final Map<HTML.Element, List<HTML.Attribute>> heldAttributes = new IdentityHashMap<>();
+    private final Map<HTML.Element, Boolean> readonly = new IdentityHashMap<>();
+
+    ChildCheck(long seed) throws Exception {
+        this.random = new Random(seed);
+        for (int i = 0; i < ELEMENTS; i++) {
+            HTML.Input element = HTML.Input.create();
+            this.elements.add(element);
+            this.children.put(element, new ArrayList<>());
+            this.held.put(element, element.children());
+            this.heldAttributes.put(element, element.attributes());
+            this.readonly.put(element, false);
+        }
+    }
+
+    boolean contains(HTML.Element element, HTML.Element descendant) {
+        for (HTML.Element e = descendant; e != null; e = this.parents.get(e)) {
+            if (e == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void move() throws Exception {
+        HTML.Input parent = this.elements.get(this.random.nextInt(ELEMENTS));
+        HTML.Input child = this.elements.get(this.random.nextInt(ELEMENTS));
+        if (this.random.nextInt(4) == 0) {
+            boolean readonly = this.random.nextBoolean();
+            parent.setReadonly(readonly);
+            this.readonly.put(parent, readonly);
+            if (this.random.nextBoolean()) {
+                parent.setSize(this.random.nextInt(10));
+            }
+        }
+        if (this.contains(child, parent)) {
+            return;
+        }
+        HTML.Element old = this.parents.get(child);
+        if (old != null) {
+            this.children.get(old).remove(child);
+        }
+        if (this.random.nextBoolean()) {
+            parent.insert(child);
+            this.children.get(parent).add(0, child);
+        } else {
+            parent.append(child);
+            this.children.get(parent).add(child);
+        }
+        this.parents.put(child, parent);
+    }
+
+    /**
+     * @return where an element differs from the model, null if none does
+     */
+    String check() {
+        for (HTML.Input element : this.elements) {
+            List<HTML.Element> expected = this.children.get(element);
+            List<HTML.Element> list = this.held.get(element);
+            if (!new ArrayList<>(list).equals(expected) || !element.children().equals(expected)) {
+                return "children " + expected.size() + " vs " + list.size();
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (list.get(i) != expected.get(i) || list.indexOf(expected.get(i)) != i
+                        || !list.contains(expected.get(i))) {
+                    return "child " + i;
+                }
+            }
+            for (HTML.Element other : this.elements) {
+                if (list.contains(other) != expected.contains(other)) {
+                    return "contains";
+                }
+            }
+            if (!this.heldAttributes.get(element).equals(element.attributes())) {
+                return "attributes";
+            }
+            boolean readonly = false;
+            for (HTML.Attribute attribute : element.attributes()) {
+                readonly |= attribute.name().equals("readonly");
+            }
+            if (readonly != this.readonly.get(element)) {
+                return "readonly";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether iterating over the children of the parent fails once a
+     * child is moved away in between
+     */
+    static boolean failsFast(HTML.Element parent, HTML.Element other) {
+        Iterator<HTML.Element> iterator = parent.children().iterator();
+        HTML.Element child = iterator.next();
+        other.append(child);
+        try {
+            iterator.next();
+        } catch (ConcurrentModificationException ex) {
+            return true;
+        }
+        return false;
+    }
+
+    static public void main(String[] args) {
+        int bad = 0;
+        try {
+            for (int seed = 0; seed < CASES; seed++) {
+                ChildCheck check = new ChildCheck(seed);
+                for (int i = 0; i < MOVES; i++) {
+                    check.move();
+                    String difference = check.check();
+                    if (difference != null) {
+                        LGR.info(String.format("case %d, move %d: %s", seed, i, difference));
+                        bad++;
+                        break;
+                    }
+                }
+            }
+            for (int count = 1; count <= 3; count++) {
+                HTML.Div parent = HTML.Div.create();
+                for (int i = 0; i < count; i++) {
+                    parent.append(HTML.Span.create());
+                }
+                if (!failsFast(parent, HTML.Div.create())) {
+                    LGR.info(String.format("iterating over %d children does not fail fast", count));
+                    bad++;
+                }
+            }
+            LGR.info(String.format("%d cases, %d mismatches", CASES, bad));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    ChildCheck.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+            bad++;
+        }
+        if (bad != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.regex.Pattern;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.Identifier;
+import org.schorn.ella.ui.layout.Pane;
+import org.schorn.ella.ui.util.ToString;
+import org.schorn.ella.ui.widget.InputWidgets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Builds a pane of roughly 500 elements from widgets and times rebuilding it
+ * against cloneDeep() of the built (and rendered) pane. The clone must render
+ * the same as the original once the regenerated ids are masked.
+ *
+ * @author bschorn
+ */
+public class CloneBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(CloneBench.class);
+
+    static private final int WIDGETS = 90;
+    static private final int ROUNDS = 2_000;
+    static private final Pattern UUID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    static HTML.Element build() throws Exception {
+        Pane pane = Pane.create(Identifier.create("pane"), "Pane");
+        for (int i = 0; i < WIDGETS; i++) {
+            if (i % 2 == 0) {
+                pane.accept(InputWidgets.ComboBox.create(Identifier.create("combo" + i), "Combo " + i,
+                        new String[]{"Primary", "Secondary", "Work", "Other"}));
+            } else {
+                pane.accept(InputWidgets.TextBox.create(Identifier.create("text" + i), "Text " + i,
+                        Pattern.compile("^.*$")));
+            }
+        }
+        HTML.Element element = pane.build().orElseThrow(IllegalStateException::new);
+        pane.throwException();
+        return element;
+    }
+
+    static int count(HTML.Element element) {
+        int count = 1;
+        for (HTML.Element child : element.children()) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    static String masked(HTML.Element element) {
+        return UUID.matcher(element.render()).replaceAll("#");
+    }
+
+    static public void main(String[] args) {
+        try {
+            HTML.Element original = build();
+            String rendered = masked(original);
+            HTML.Element clone = original.cloneDeep();
+            LGR.info(String.format("%d elements, clone renders the same: %b, ids differ: %b",
+                    count(original),
+                    rendered.equals(masked(clone)),
+                    !original.render().equals(clone.render())));
+            clone.addClass("cloned");
+            LGR.info(String.format("original unchanged by changes to the clone: %b",
+                    rendered.equals(masked(original))));
+
+            long rebuild = Long.MAX_VALUE;
+            long cloneDeep = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS / 10; i++) {
+                    build();
+                }
+                rebuild = Math.min(rebuild, (System.nanoTime() - start) / (ROUNDS / 10));
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    original.cloneDeep();
+                }
+                cloneDeep = Math.min(cloneDeep, (System.nanoTime() - start) / ROUNDS);
+            }
+            LGR.info(String.format("rebuild %,d ns, cloneDeep %,d ns (%.1fx)",
+                    rebuild, cloneDeep, rebuild / (double) cloneDeep));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    CloneBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
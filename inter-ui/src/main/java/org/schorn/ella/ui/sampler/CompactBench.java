@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.regex.Pattern;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.Frame;
+import org.schorn.ella.ui.layout.Identifier;
+import org.schorn.ella.ui.layout.Page;
+import org.schorn.ella.ui.layout.Pane;
+import org.schorn.ella.ui.layout.Window;
+import org.schorn.ella.ui.util.ToString;
+import org.schorn.ella.ui.widget.InputWidgets;
+import org.schorn.ella.ui.widget.OutputWidgets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Produces a form page (windows of panes of text boxes and combo boxes)
+ * minified as it is and with compact names, and compares the size of each
+ * and the time it takes. Every short id of the compact page must map back
+ * to an id of the original.
+ *
+ * @author bschorn
+ */
+public class CompactBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(CompactBench.class);
+
+    static private final int ROUNDS = 1000;
+
+    static Page page(int windows, int widgets) throws Exception {
+        Page page = Page.create();
+        page.setTitle(CompactBench.class.getSimpleName());
+        Frame frame = Frame.create(Identifier.create("frame1"));
+        page.accept(frame);
+        for (int w = 0; w < windows; w++) {
+            Window window = Window.create(Identifier.create("window" + w), "Window " + w);
+            frame.accept(window);
+            Pane pane = Pane.create(Identifier.create("form" + w), "Form " + w);
+            window.accept(pane);
+            pane.accept(OutputWidgets.Title.create("title" + w, "Title " + w));
+            for (int i = 0; i < widgets; i++) {
+                if (i % 2 == 0) {
+                    pane.accept(InputWidgets.TextBox.create(Identifier.create("text" + i), "Text " + i,
+                            Pattern.compile("^.*$")));
+                } else {
+                    pane.accept(InputWidgets.ComboBox.create(Identifier.create("choice" + i), "Choice " + i,
+                            new String[]{"One", "Two", "Three"}));
+                }
+            }
+        }
+        return page;
+    }
+
+    static String time(String name, Page page, AlphaStyle styleSheet) throws Exception {
+        String rendered = null;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            rendered = page.produce(styleSheet, HTML.RenderMode.MINIFIED);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        LGR.info(String.format("%-14s %,9d chars %8.1f us", name, rendered.length(), best / 1e3));
+        return rendered;
+    }
+
+    static public void main(String[] args) {
+        try {
+            Page page = page(8, 12);
+            AlphaStyle styleSheet = new AlphaStyle();
+            String plain = time("as it is", page, styleSheet);
+            page.setCompactNames(true);
+            String compact = time("compact names", page, styleSheet);
+            HTML.Compaction compaction = page.compaction();
+            boolean mapped = compaction.ids().values().stream().allMatch(id -> plain.contains("'" + id + "'"));
+            LGR.info(String.format("%.1f%% smaller, %d ids and %d class names mapped back: %s",
+                    100.0 * (plain.length() - compact.length()) / plain.length(),
+                    compaction.ids().size(), compaction.classNames().size(), mapped));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    CompactBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Times element, selector and rule creation through the factories, the
+ * same calls the widgets make for every element they build (no, one, two
+ * and three constructor arguments).
+ *
+ * @author bschorn
+ */
+public class CreateBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(CreateBench.class);
+
+    static private final int COUNT = 1_000_000;
+
+    interface Create {
+
+        Object create() throws Exception;
+    }
+
+    static void time(String name, Create create) throws Exception {
+        long best = Long.MAX_VALUE;
+        int created = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < COUNT; i++) {
+                if (create.create() != null) {
+                    created++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        LGR.info(String.format("%-28s %6.1f ns (%s)", name, best / (double) COUNT,
+                created == 5 * COUNT ? "created" : "MISSING"));
+    }
+
+    static public void main(String[] args) {
+        try {
+            time("HTML.Div.create()", () -> HTML.Div.create());
+            time("HTML.Td.create()", () -> HTML.Td.create());
+            time("HTML.Meta.createViewport()", () -> HTML.Meta.createViewport("device-width", "1"));
+            time("CSS.Selector.createType()", () -> CSS.Selector.createType(HTML.DIV));
+            time("CSS.Rule.create()", () -> CSS.Rule.create(CSS.Property.color, "red"));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    CreateBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
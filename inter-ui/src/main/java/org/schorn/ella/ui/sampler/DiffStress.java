@@ -0,0 +1,463 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Diffs random element trees against randomly changed copies of them, applies
+ * the patches (as the JSON the client gets) to a model of the old tree the
+ * way ellament-patch.js does and compares the result to the new tree. Then
+ * rebuilds unchanged trees with new ids, as Items did before ids came from
+ * an IdStrategy, which should only ever set the ids. Exits with 1 on a
+ * mismatch.
+ *
+ * Inserted markup is not parsed, it is looked up among the rendered subtrees
+ * of the new tree.
+ *
+ * @author bschorn
+ */
+public class DiffStress {
+
+    static private final Logger LGR = LoggerFactory.getLogger(DiffStress.class);
+
+    static private final int CASES = 3000;
+    static private final String[] TAGS = {"div", "span", "p", "ul", "li", "b", "tr", "td"};
+
+    /**
+     * What a tree is built from.
+     */
+    static final class Spec {
+
+        String tag;
+        String id;
+        String text;
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        final List<Spec> children = new ArrayList<>();
+
+        Spec copy() {
+            Spec copy = new Spec();
+            copy.tag = this.tag;
+            copy.id = this.id;
+            copy.text = this.text;
+            copy.attributes.putAll(this.attributes);
+            for (Spec child : this.children) {
+                copy.children.add(child.copy());
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * The client's view of the tree.
+     */
+    static final class Node {
+
+        String tag;
+        String text = "";
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        final List<Node> children = new ArrayList<>();
+    }
+
+    private final Random random;
+    private int ids = 0;
+    private final Map<String, Node> byId = new HashMap<>();
+    private final Map<String, HTML.Element> byMarkup = new HashMap<>();
+    private Node root;
+
+    DiffStress(long seed) {
+        this.random = new Random(seed);
+    }
+
+    Spec generate(int depth) {
+        Spec spec = new Spec();
+        spec.tag = TAGS[this.random.nextInt(TAGS.length)];
+        if (this.random.nextInt(3) == 0) {
+            spec.id = "id" + this.ids++;
+        }
+        if (this.random.nextBoolean()) {
+            spec.text = "t" + this.random.nextInt(5) + (this.random.nextInt(10) == 0 ? "\"<é\n" : "");
+        }
+        if (this.random.nextBoolean()) {
+            spec.attributes.put("data-a", Integer.toString(this.random.nextInt(3)));
+        }
+        if (this.random.nextInt(4) == 0) {
+            spec.attributes.put("title", "x" + this.random.nextInt(2));
+        }
+        if (depth > 0) {
+            int count = this.random.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                spec.children.add(this.generate(depth - 1));
+            }
+        }
+        return spec;
+    }
+
+    void change(Spec spec, int depth) {
+        if (this.random.nextInt(6) == 0) {
+            spec.text = this.random.nextBoolean() ? null : "m" + this.random.nextInt(3);
+        }
+        if (this.random.nextInt(6) == 0) {
+            if (this.random.nextBoolean()) {
+                spec.attributes.remove("data-a");
+            } else {
+                spec.attributes.put("data-a", "z" + this.random.nextInt(3));
+            }
+        }
+        if (this.random.nextInt(8) == 0 && spec.id == null) {
+            spec.id = "nid" + this.ids++;
+        }
+        if (!spec.children.isEmpty() && this.random.nextInt(4) == 0) {
+            Collections.shuffle(spec.children, this.random);
+        }
+        if (!spec.children.isEmpty() && this.random.nextInt(5) == 0) {
+            spec.children.remove(this.random.nextInt(spec.children.size()));
+        }
+        if (this.random.nextInt(5) == 0) {
+            spec.children.add(this.random.nextInt(spec.children.size() + 1), this.generate(Math.max(0, depth - 1)));
+        }
+        for (Spec child : spec.children) {
+            if (this.random.nextBoolean()) {
+                this.change(child, depth - 1);
+            }
+        }
+    }
+
+    static HTML.Element build(Spec spec, boolean newIds) throws Exception {
+        HTML.Element element;
+        switch (spec.tag) {
+            case "div":
+                element = HTML.Div.create();
+                break;
+            case "span":
+                element = HTML.Span.create();
+                break;
+            case "p":
+                element = HTML.P.create();
+                break;
+            case "ul":
+                element = HTML.Ul.create();
+                break;
+            case "li":
+                element = HTML.Li.create();
+                break;
+            case "b":
+                element = HTML.B.create();
+                break;
+            case "tr":
+                element = HTML.Tr.create();
+                break;
+            default:
+                element = HTML.Td.create();
+                break;
+        }
+        if (spec.id != null) {
+            element.setId(newIds ? UUID.randomUUID().toString() : spec.id);
+        }
+        for (Map.Entry<String, String> entry : spec.attributes.entrySet()) {
+            element.addAttribute(HTML.Attribute.create(entry.getKey(), entry.getValue()));
+        }
+        if (spec.text != null) {
+            element.setTextContent(spec.text);
+        }
+        for (Spec child : spec.children) {
+            element.append(build(child, newIds));
+        }
+        return element;
+    }
+
+    static String render(HTML.Element element) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        element.render(builder, HTML.RenderMode.MINIFIED);
+        return builder.toString();
+    }
+
+    Node model(HTML.Element element) {
+        Node node = new Node();
+        node.tag = element.tag();
+        for (HTML.Attribute attribute : element.attributes()) {
+            node.attributes.put(attribute.name(), attribute.value());
+        }
+        node.text = Objects.toString(element.getTextContent(), "");
+        for (HTML.Element child : element.children()) {
+            node.children.add(this.model(child));
+        }
+        String id = node.attributes.get("id");
+        if (id != null) {
+            this.byId.put(id, node);
+        }
+        return node;
+    }
+
+    void index(HTML.Element element) throws Exception {
+        this.byMarkup.put(render(element), element);
+        for (HTML.Element child : element.children()) {
+            this.index(child);
+        }
+    }
+
+    Node find(List<?> target) {
+        Node node = target.get(0) == null ? this.root : this.byId.get((String) target.get(0));
+        for (int i = 1; i < target.size(); i++) {
+            node = node.children.get((Integer) target.get(i));
+        }
+        return node;
+    }
+
+    Node parse(String markup) {
+        HTML.Element element = this.byMarkup.get(markup);
+        if (element == null) {
+            throw new IllegalStateException("not a subtree of the new tree: " + markup);
+        }
+        return this.model(element);
+    }
+
+    /**
+     * Applies the patches as ellament.patch() does.
+     *
+     * @param patches
+     */
+    void apply(List<?> patches) {
+        for (java.lang.Object patch : patches) {
+            List<?> p = (List<?>) patch;
+            Node node = this.find((List<?>) p.get(1));
+            switch ((String) p.get(0)) {
+                case "i":
+                    node.children.add((Integer) p.get(2), this.parse((String) p.get(3)));
+                    break;
+                case "r":
+                    node.children.remove((int) (Integer) p.get(2));
+                    break;
+                case "m":
+                    node.children.add((Integer) p.get(3), node.children.remove((int) (Integer) p.get(2)));
+                    break;
+                case "a":
+                    node.attributes.put((String) p.get(2), (String) p.get(3));
+                    if (p.get(2).equals("id")) {
+                        this.byId.put((String) p.get(3), node);
+                    }
+                    break;
+                case "x":
+                    node.attributes.remove((String) p.get(2));
+                    break;
+                case "t":
+                    node.text = (String) p.get(2);
+                    break;
+                case "R":
+                    this.root = this.parse((String) p.get(2));
+                    break;
+                default:
+                    throw new IllegalStateException("unknown operation " + p.get(0));
+            }
+        }
+    }
+
+    /**
+     * @return where the model differs from the element, null if it does not
+     */
+    static String compare(Node node, HTML.Element element, String path) {
+        if (!node.tag.equals(element.tag())) {
+            return path + " tag";
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (HTML.Attribute attribute : element.attributes()) {
+            attributes.put(attribute.name(), attribute.value());
+        }
+        if (!attributes.equals(node.attributes)) {
+            return path + " attributes " + node.attributes + " vs " + attributes;
+        }
+        if (!node.text.equals(Objects.toString(element.getTextContent(), ""))) {
+            return path + " text";
+        }
+        if (node.children.size() != element.children().size()) {
+            return path + " children " + node.children.size() + " vs " + element.children().size();
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            String difference = compare(node.children.get(i), element.children().get(i), path + "/" + i);
+            if (difference != null) {
+                return difference;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the operation codes applied, or null if the patched model does
+     * not match the new tree
+     */
+    List<String> check(HTML.Element before, HTML.Element after, int[] chars) throws Exception {
+        List<HTML.Patch> patches = HTML.Patch.diff(before, after);
+        String json = HTML.Patch.toJson(patches);
+        this.byId.clear();
+        this.byMarkup.clear();
+        this.index(after);
+        this.root = this.model(before);
+        this.apply((List<?>) new Json(json).value());
+        chars[0] += json.length();
+        chars[1] += render(after).length();
+        if (compare(this.root, after, "") != null) {
+            LGR.info(String.format("%s%n%s", compare(this.root, after, ""), json));
+            return null;
+        }
+        List<String> ops = new ArrayList<>();
+        for (HTML.Patch patch : patches) {
+            ops.add(patch.op().code());
+        }
+        return ops;
+    }
+
+    /**
+     * Just enough JSON for the patches: arrays, strings, ints and null.
+     */
+    static final class Json {
+
+        private final String text;
+        private int position = 0;
+
+        Json(String text) {
+            this.text = text;
+        }
+
+        java.lang.Object value() {
+            char c = this.text.charAt(this.position);
+            if (c == '[') {
+                this.position++;
+                List<java.lang.Object> list = new ArrayList<>();
+                if (this.text.charAt(this.position) == ']') {
+                    this.position++;
+                    return list;
+                }
+                while (true) {
+                    list.add(this.value());
+                    if (this.text.charAt(this.position++) == ']') {
+                        return list;
+                    }
+                }
+            }
+            if (c == '"') {
+                this.position++;
+                StringBuilder builder = new StringBuilder();
+                for (char d = this.text.charAt(this.position++); d != '"'; d = this.text.charAt(this.position++)) {
+                    if (d == '\\') {
+                        char e = this.text.charAt(this.position++);
+                        switch (e) {
+                            case 'n':
+                                builder.append('\n');
+                                break;
+                            case 'r':
+                                builder.append('\r');
+                                break;
+                            case 't':
+                                builder.append('\t');
+                                break;
+                            case 'u':
+                                builder.append((char) Integer.parseInt(this.text.substring(this.position, this.position + 4), 16));
+                                this.position += 4;
+                                break;
+                            default:
+                                builder.append(e);
+                                break;
+                        }
+                    } else {
+                        builder.append(d);
+                    }
+                }
+                return builder.toString();
+            }
+            if (this.text.startsWith("null", this.position)) {
+                this.position += 4;
+                return null;
+            }
+            int start = this.position;
+            while (Character.isDigit(this.text.charAt(this.position)) || this.text.charAt(this.position) == '-') {
+                this.position++;
+            }
+            return Integer.parseInt(this.text.substring(start, this.position));
+        }
+    }
+
+    static public void main(String[] args) {
+        int mismatches = 0;
+        try {
+            int bad = 0;
+            int operations = 0;
+            int[] chars = new int[2];
+            for (int seed = 0; seed < CASES; seed++) {
+                DiffStress stress = new DiffStress(seed);
+                Spec before = stress.generate(4);
+                before.tag = "div";
+                before.id = null;
+                Spec after = before.copy();
+                stress.change(after, 4);
+                List<String> ops = stress.check(build(before, false), build(after, false), chars);
+                if (ops == null) {
+                    bad++;
+                } else {
+                    operations += ops.size();
+                }
+            }
+            LGR.info(String.format("changed: %d cases, %d mismatches, %d operations, %,d patch chars for %,d page chars",
+                    CASES, bad, operations, chars[0], chars[1]));
+            mismatches += bad;
+            bad = 0;
+            int other = 0;
+            chars = new int[2];
+            for (int seed = 0; seed < CASES; seed++) {
+                DiffStress stress = new DiffStress(seed);
+                Spec spec = stress.generate(4);
+                spec.tag = "div";
+                List<String> ops = stress.check(build(spec, true), build(spec, true), chars);
+                if (ops == null) {
+                    bad++;
+                } else {
+                    other += ops.stream().filter(op -> !op.equals(HTML.Patch.Op.SET_ATTRIBUTE.code())).count();
+                }
+            }
+            LGR.info(String.format("new ids: %d cases, %d mismatches, %d operations other than setting an id, %,d patch chars for %,d page chars",
+                    CASES, bad, other, chars[0], chars[1]));
+            mismatches += bad;
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    DiffStress.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+            mismatches++;
+        }
+        if (mismatches != 0) {
+            System.exit(1);
+        }
+    }
+}
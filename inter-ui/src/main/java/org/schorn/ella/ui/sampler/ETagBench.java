@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Builds a table of 50k rows and times its content hash cold, warm and
+ * after changing one cell (which hashes the path to the root again) against
+ * rendering the table, the only other way to tell whether it changed. The
+ * persistent, flat and cloned copies must hash the same as the table, and
+ * undoing the change must give back the first hash.
+ *
+ * @author bschorn
+ */
+public class ETagBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(ETagBench.class);
+
+    static private final int ROWS = 50_000;
+    static private final int ROUNDS = 200;
+
+    static HTML.Table build() throws Exception {
+        HTML.Table table = HTML.Table.create();
+        HTML.Tbody tbody = HTML.Tbody.create();
+        for (int i = 0; i < ROWS; i++) {
+            HTML.Tr tr = HTML.Tr.create();
+            HTML.Td td = HTML.Td.create();
+            td.setTextContent(Integer.toString(i));
+            td.addClass(i % 2 == 0 ? "even" : "odd");
+            tr.append(td);
+            tbody.append(tr);
+        }
+        table.append(tbody);
+        return table;
+    }
+
+    static public void main(String[] args) {
+        try {
+            HTML.Table table = build();
+            long start = System.nanoTime();
+            String entityTag = table.entityTag();
+            long cold = System.nanoTime() - start;
+            LGR.info(String.format("%s, persistent copy %b, flat copy %b, clone %b", entityTag,
+                    entityTag.equals(HTML.Persistent.of(table).entityTag()),
+                    entityTag.equals(HTML.FlatDocument.of(table, false).root().entityTag()),
+                    entityTag.equals(table.cloneDeep().entityTag())));
+
+            HTML.Element td = table.children().get(0).children().get(ROWS / 2).children().get(0);
+            td.setTextContent("changed");
+            String changed = table.entityTag();
+            td.setTextContent(Integer.toString(ROWS / 2));
+            LGR.info(String.format("changed %b, restored %b",
+                    !changed.equals(entityTag), entityTag.equals(table.entityTag())));
+
+            long warm = Long.MAX_VALUE;
+            long change = Long.MAX_VALUE;
+            long render = Long.MAX_VALUE;
+            long length = 0;
+            for (int round = 0; round < 5; round++) {
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    length += table.contentHash() & 1;
+                }
+                warm = Math.min(warm, (System.nanoTime() - start) / ROUNDS);
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    td.setTextContent(Integer.toString(i));
+                    length += table.contentHash() & 1;
+                }
+                change = Math.min(change, (System.nanoTime() - start) / ROUNDS);
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS / 20; i++) {
+                    length += table.render().length();
+                }
+                render = Math.min(render, (System.nanoTime() - start) / (ROUNDS / 20));
+            }
+            LGR.info(String.format("cold hash %,d ns, warm %,d ns, after a change %,d ns, render %,d ns (%d)",
+                    cold, warm, change, render, length));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    ETagBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
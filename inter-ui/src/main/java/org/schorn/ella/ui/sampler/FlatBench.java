@@ -0,0 +1,204 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.io.IOException;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Builds the same report table (a row and four cells per record, the cells
+ * with a class and text) as elements and as a flat document (on and off
+ * heap), comparing the heap retained per element and the time to render.
+ * The flat documents are compacted once built. The flat renders must match
+ * the element render.
+ *
+ * Run with a large heap, e.g. -Xmx4g, for the default 200,000 rows (one
+ * million elements).
+ *
+ * @author bschorn
+ */
+public class FlatBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(FlatBench.class);
+
+    static private final int CELLS = 4;
+
+    interface Builder {
+
+        HTML.Element table() throws Exception;
+
+        HTML.Element element(String tag) throws Exception;
+
+        /**
+         * Building has finished.
+         */
+        default void done() {
+        }
+    }
+
+    static HTML.Element report(Builder builder, int rows) throws Exception {
+        HTML.Element table = builder.table();
+        HTML.Element tbody = builder.element("tbody");
+        table.append(tbody);
+        for (int row = 0; row < rows; row++) {
+            HTML.Element tr = builder.element("tr");
+            for (int cell = 0; cell < CELLS; cell++) {
+                HTML.Element td = builder.element("td");
+                td.addClass(cell == 0 ? "key" : "value");
+                td.setTextContent(Integer.toString(row * CELLS + cell));
+                tr.append(td);
+            }
+            tbody.append(tr);
+        }
+        return table;
+    }
+
+    static Builder elements() {
+        return new Builder() {
+            @Override
+            public HTML.Element table() throws Exception {
+                return HTML.Table.create();
+            }
+
+            @Override
+            public HTML.Element element(String tag) throws Exception {
+                return HTML.valueOf(tag.toUpperCase()).createElement();
+            }
+        };
+    }
+
+    static Builder flat(int rows, boolean offHeap) {
+        HTML.FlatDocument document = HTML.FlatDocument.create("table", rows * (CELLS + 1) + 2, offHeap);
+        return new Builder() {
+            @Override
+            public HTML.Element table() {
+                return document.root();
+            }
+
+            @Override
+            public HTML.Element element(String tag) {
+                return document.createElement(tag);
+            }
+
+            @Override
+            public void done() {
+                document.compact();
+            }
+        };
+    }
+
+    static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Counts the characters rather than keeping them.
+     */
+    static final class Count implements Appendable {
+
+        long count = 0;
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            this.count += csq.length();
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            this.count += end - start;
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            this.count++;
+            return this;
+        }
+    }
+
+    /**
+     * The first render, elements keep their output for the next one.
+     */
+    static long renderNanos(HTML.Element table) throws IOException {
+        long start = System.nanoTime();
+        table.render(new Count(), HTML.RenderMode.COMPACT);
+        return System.nanoTime() - start;
+    }
+
+    interface BuilderSupplier {
+
+        Builder get();
+    }
+
+    static void measure(String name, BuilderSupplier supplier, int rows) throws Exception {
+        long before = usedHeap();
+        Builder builder = supplier.get();
+        HTML.Element table = report(builder, rows);
+        builder.done();
+        long after = usedHeap();
+        long elements = rows * (CELLS + 1) + 2L;
+        LGR.info(String.format("%-16s %,d elements: %.1f heap bytes/element, render %,d ms",
+                name, elements, (after - before) / (double) elements, renderNanos(table) / 1_000_000));
+        // keeps the table reachable until it has been measured
+        if (table.children().isEmpty()) {
+            LGR.error("{} - empty table", name);
+        }
+    }
+
+    static public void main(String[] args) {
+        try {
+            int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+            String expected = report(elements(), 100).render();
+            for (boolean offHeap : new boolean[]{false, true}) {
+                for (HTML.RenderMode renderMode : HTML.RenderMode.values()) {
+                    StringBuilder builder = new StringBuilder();
+                    report(flat(100, offHeap), 100).render(builder, renderMode);
+                    StringBuilder element = new StringBuilder();
+                    report(elements(), 100).render(element, renderMode);
+                    if (!builder.toString().equals(element.toString())) {
+                        LGR.error("{} - flat render differs ({}, offHeap={})",
+                                FlatBench.class.getSimpleName(), renderMode, offHeap);
+                    }
+                }
+            }
+            LGR.info(String.format("flat render matches: %b", expected.equals(report(flat(100, false), 100).render())));
+            measure("elements", FlatBench::elements, rows);
+            measure("flat", () -> flat(rows, false), rows);
+            measure("flat (off heap)", () -> flat(rows, true), rows);
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    FlatBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
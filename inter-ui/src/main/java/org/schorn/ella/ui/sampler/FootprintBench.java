@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Retained heap bytes per element for the kinds of elements pages are mostly
+ * made of (leaves with no or one attribute), measured as the growth of the
+ * used heap over many instances. Strings shared by every instance are not
+ * counted, per-instance text is.
+ *
+ * @author bschorn
+ */
+public class FootprintBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(FootprintBench.class);
+
+    static private final int COUNT = 200_000;
+
+    interface Make {
+
+        HTML.Element make(int i) throws Exception;
+    }
+
+    static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static double bytesPerElement(Make make, int elementsEach) throws Exception {
+        List<HTML.Element> elements = new ArrayList<>(COUNT);
+        long before = usedHeap();
+        for (int i = 0; i < COUNT; i++) {
+            elements.add(make.make(i));
+        }
+        long after = usedHeap();
+        if (elements.size() != COUNT) {
+            LGR.error("{} - lost elements", FootprintBench.class.getSimpleName());
+        }
+        // the list's own array
+        return (after - before - 4.0 * COUNT) / COUNT / elementsEach;
+    }
+
+    static void measure(String name, Make make) throws Exception {
+        measure(name, make, 1);
+    }
+
+    static void measure(String name, Make make, int elementsEach) throws Exception {
+        // warm up, classes loaded and shared instances created
+        for (int i = 0; i < 1000; i++) {
+            make.make(i);
+        }
+        LGR.info(String.format("%-28s %6.1f bytes/element", name, bytesPerElement(make, elementsEach)));
+    }
+
+    static public void main(String[] args) {
+        try {
+            measure("div", i -> HTML.Div.create());
+            measure("br", i -> HTML.Br.create());
+            measure("span + shared text", i -> HTML.Span.create().setTextContent("text"));
+            measure("td class", i -> HTML.Td.create().addClass("cell"));
+            measure("option value", i -> HTML.Option.create().addAttribute(
+                    HTML.Attribute.shared(HTML.GlobalAttributes.TITLE, "Primary")));
+            measure("input id + class + type", i -> {
+                HTML.Input input = HTML.Input.create();
+                input.setId("input");
+                input.addClass("field");
+                input.addAttribute(HTML.Attribute.shared(HTML.GlobalAttributes.TITLE, "text"));
+                return input;
+            });
+            measure("tr + td", i -> {
+                HTML.Tr tr = HTML.Tr.create();
+                tr.append(HTML.Td.create());
+                return tr;
+            }, 2);
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    FootprintBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.Frame;
+import org.schorn.ella.ui.layout.IdStrategy;
+import org.schorn.ella.ui.layout.Identifier;
+import org.schorn.ella.ui.layout.Page;
+import org.schorn.ella.ui.layout.Pane;
+import org.schorn.ella.ui.layout.Style;
+import org.schorn.ella.ui.layout.Window;
+import org.schorn.ella.ui.util.ToString;
+import org.schorn.ella.ui.widget.InputWidgets;
+import org.schorn.ella.ui.widget.OutputWidgets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Times the ids of each IdStrategy given out on every thread at once (as
+ * many threads as there are processors unless given), against
+ * UUID.randomUUID() for the ids they replaced, and checks which strategies
+ * render a page to the same bytes each time it is built.
+ *
+ * @author bschorn
+ */
+public class IdBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(IdBench.class);
+
+    static private final int IDS = 1_000_000;
+    static private final Style SHEET = new Style.Sheet();
+
+    static String page() throws Exception {
+        Page page = Page.create();
+        page.setTitle(IdBench.class.getSimpleName());
+        Frame frame = Frame.create(Identifier.create("frame1"));
+        page.accept(frame);
+        for (int w = 0; w < 4; w++) {
+            Window window = Window.create(Identifier.create("panel" + w), "Panel " + w);
+            frame.accept(window);
+            Pane pane = Pane.create(Identifier.create("address" + w), "Address");
+            window.accept(pane);
+            pane.accept(OutputWidgets.Title.create("customerAddress", "Customer Address"));
+            pane.accept(InputWidgets.ComboBox.create(Identifier.create("addressType"), "Type",
+                    new String[]{"Primary", "Secondary", "Work", "Other"}));
+            pane.accept(InputWidgets.TextBox.create(Identifier.create("streetAddress"), "Street",
+                    Pattern.compile("^.*$")));
+        }
+        return page.produce(SHEET, HTML.RenderMode.MINIFIED);
+    }
+
+    static boolean sameBytes(Supplier<IdStrategy> strategy) throws Exception {
+        String[] rendered = new String[2];
+        for (int i = 0; i < rendered.length; i++) {
+            IdStrategy.Scope scope = IdStrategy.use(strategy.get());
+            try {
+                rendered[i] = page();
+            } finally {
+                scope.close();
+            }
+        }
+        return rendered[0].equals(rendered[1]);
+    }
+
+    static void time(String name, int threads, Supplier<IdStrategy> strategy) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    // one strategy per thread, as one per page being built
+                    IdStrategy ids = strategy.get();
+                    int length = 0;
+                    for (int i = 0; i < IDS; i++) {
+                        length += ids.newId("widget", "streetAddress").length();
+                    }
+                    return length;
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            LGR.info(String.format("%-18s %6.1f ns per id on each of %d threads, pages %s", name,
+                    elapsed / (double) IDS, threads,
+                    sameBytes(strategy) ? "render the same bytes" : "differ"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * What the layout items did before IdStrategy (the shared SecureRandom).
+     */
+    static final class SecureUUID implements IdStrategy {
+
+        @Override
+        public String newId(String kind, String name) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    static public void main(String[] args) {
+        try {
+            int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+            time("UUID.randomUUID()", threads, SecureUUID::new);
+            time("random()", threads, IdStrategy::random);
+            time("perThread()", threads, IdStrategy::perThread);
+            time("sequence()", threads, IdStrategy::sequence);
+            time("path()", threads, IdStrategy::path);
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    IdBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Moves elements around random trees, between them and out of them and sets
+ * ids and classes on them, and after every change looks elements up by id,
+ * by class and by selector and compares the results to a walk of the tree.
+ * Then has many threads make the first lookups on new trees at once. Exits
+ * with 1 on a mismatch.
+ *
+ * @author bschorn
+ */
+public class IndexCheck {
+
+    static private final Logger LGR = LoggerFactory.getLogger(IndexCheck.class);
+
+    static private final int CASES = 200;
+    static private final int CHANGES = 80;
+    static private final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    static private final String[] SELECTORS = {"span", ".k1", "div .k2", "ul > li", "#i3, .k0", "p.k1"};
+
+    private final Random random;
+    private final List<HTML.Element> roots = new ArrayList<>();
+    private final List<HTML.Element> elements = new ArrayList<>();
+
+    IndexCheck(long seed) {
+        this.random = new Random(seed);
+    }
+
+    static HTML.Element create(String tag) throws Exception {
+        switch (tag) {
+            case "div":
+                return HTML.Div.create();
+            case "span":
+                return HTML.Span.create();
+            case "p":
+                return HTML.P.create();
+            case "ul":
+                return HTML.Ul.create();
+            default:
+                return HTML.Li.create();
+        }
+    }
+
+    static HTML.Element tree(Random random, List<HTML.Element> elements) throws Exception {
+        String[] tags = {"div", "span", "p", "ul", "li"};
+        HTML.Element root = HTML.Div.create();
+        List<HTML.Element> built = new ArrayList<>();
+        built.add(root);
+        for (int i = 0; i < 40; i++) {
+            HTML.Element element = create(tags[random.nextInt(tags.length)]);
+            if (random.nextInt(3) == 0) {
+                element.setId("i" + random.nextInt(8));
+            }
+            if (random.nextBoolean()) {
+                element.addClass("k" + random.nextInt(3));
+            }
+            built.get(random.nextInt(built.size())).append(element);
+            built.add(element);
+        }
+        elements.addAll(built.subList(1, built.size()));
+        return root;
+    }
+
+    static boolean contains(HTML.Element element, HTML.Element descendant) {
+        for (HTML.Element e = descendant;; e = e.parent()) {
+            if (e == element) {
+                return true;
+            }
+            if (e.parent() == e) {
+                return false;
+            }
+        }
+    }
+
+    void change() throws Exception {
+        HTML.Element element = this.elements.get(this.random.nextInt(this.elements.size()));
+        switch (this.random.nextInt(5)) {
+            case 0:
+                element.setId("i" + this.random.nextInt(8));
+                break;
+            case 1:
+                element.addClass("k" + this.random.nextInt(3));
+                break;
+            case 2:
+                /*
+                Taken out of its tree, it becomes the root of one of its own.
+                 */
+                HTML.Element root = HTML.Div.create();
+                root.append(element);
+                this.roots.add(root);
+                break;
+            default:
+                List<HTML.Element> parents = new ArrayList<>(this.elements);
+                parents.addAll(this.roots);
+                HTML.Element parent = parents.get(this.random.nextInt(parents.size()));
+                if (!contains(element, parent)) {
+                    if (this.random.nextBoolean()) {
+                        parent.append(element);
+                    } else {
+                        parent.insert(element);
+                    }
+                }
+                break;
+        }
+    }
+
+    static void walk(HTML.Element element, Predicate<HTML.Element> test, List<HTML.Element> out) {
+        for (HTML.Element child : element.children()) {
+            if (test.test(child)) {
+                out.add(child);
+            }
+            walk(child, test, out);
+        }
+    }
+
+    static boolean hasClass(HTML.Element element, String className) {
+        for (HTML.Attribute attribute : element.attributes()) {
+            if (attribute.name().equals("class")) {
+                for (String token : attribute.value().split("\\s+")) {
+                    if (token.equals(className)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean hasId(HTML.Element element, String id) {
+        for (HTML.Attribute attribute : element.attributes()) {
+            if (attribute.name().equals("id") && attribute.value().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean within(HTML.Element element, String tag) {
+        for (HTML.Element e = element; e.parent() != e;) {
+            e = e.parent();
+            if (e.tag().equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The selectors worked out by hand, in document order.
+     */
+    static List<HTML.Element> expected(HTML.Element root, int selector) {
+        List<HTML.Element> out = new ArrayList<>();
+        switch (selector) {
+            case 0:
+                walk(root, e -> e.tag().equals("span"), out);
+                break;
+            case 1:
+                walk(root, e -> hasClass(e, "k1"), out);
+                break;
+            case 2:
+                walk(root, e -> hasClass(e, "k2") && within(e, "div"), out);
+                break;
+            case 3:
+                walk(root, e -> e.tag().equals("li") && e.parent().tag().equals("ul"), out);
+                break;
+            case 4:
+                walk(root, e -> hasId(e, "i3") || hasClass(e, "k0"), out);
+                break;
+            default:
+                walk(root, e -> e.tag().equals("p") && hasClass(e, "k1"), out);
+                break;
+        }
+        return out;
+    }
+
+    static boolean same(List<HTML.Element> expected, List<HTML.Element> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        Set<HTML.Element> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(expected);
+        return set.containsAll(actual);
+    }
+
+    /**
+     * @return where the lookups on the root differ from the walk, null if
+     * they do not
+     */
+    static String check(HTML.Element root) {
+        for (int i = 0; i < 8; i++) {
+            String id = "i" + i;
+            List<HTML.Element> withId = new ArrayList<>();
+            walk(root, e -> hasId(e, id), withId);
+            Optional<HTML.Element> found = root.getElementById(id);
+            if (found.isPresent() ? !withId.contains(found.get()) : !withId.isEmpty()) {
+                return "getElementById " + id;
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            String className = "k" + i;
+            List<HTML.Element> withClass = new ArrayList<>();
+            walk(root, e -> hasClass(e, className), withClass);
+            if (!same(withClass, root.getElementsByClass(className))) {
+                return "getElementsByClass " + className;
+            }
+        }
+        for (int i = 0; i < SELECTORS.length; i++) {
+            if (!expected(root, i).equals(root.querySelectorAll(SELECTORS[i]))) {
+                return "querySelectorAll " + SELECTORS[i];
+            }
+        }
+        return null;
+    }
+
+    static String concurrent(ExecutorService executor, long seed) throws Exception {
+        Random random = new Random(seed);
+        HTML.Element root = tree(random, new ArrayList<>());
+        List<List<HTML.Element>> expected = new ArrayList<>();
+        for (int i = 0; i < SELECTORS.length; i++) {
+            expected.add(expected(root, i));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int selector = t % SELECTORS.length;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return expected.get(selector).equals(root.querySelectorAll(SELECTORS[selector]))
+                        ? null : "concurrent querySelectorAll " + SELECTORS[selector];
+            }));
+        }
+        start.countDown();
+        String difference = null;
+        for (Future<String> future : futures) {
+            if (future.get() != null) {
+                difference = future.get();
+            }
+        }
+        return difference;
+    }
+
+    static public void main(String[] args) {
+        int bad = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int seed = 0; seed < CASES; seed++) {
+                IndexCheck check = new IndexCheck(seed);
+                check.roots.add(tree(check.random, check.elements));
+                check.roots.add(tree(check.random, check.elements));
+                for (int i = 0; i < CHANGES; i++) {
+                    check.change();
+                    String difference = null;
+                    for (HTML.Element root : check.roots) {
+                        if (difference == null && check.random.nextInt(3) == 0) {
+                            difference = check(root);
+                        }
+                    }
+                    if (difference != null) {
+                        LGR.info(String.format("case %d, change %d: %s", seed, i, difference));
+                        bad++;
+                        break;
+                    }
+                }
+                String difference = concurrent(executor, seed);
+                if (difference != null) {
+                    LGR.info(String.format("case %d: %s", seed, difference));
+                    bad++;
+                }
+            }
+            LGR.info(String.format("%d cases, %d mismatches", CASES, bad));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    IndexCheck.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+            bad++;
+        } finally {
+            executor.shutdown();
+        }
+        if (bad != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Serves a pre of a large log file (64 MB by default) into a file channel:
+ * read into a String, as a file region (transferred as-is when it need not
+ * be escaped) and through a Reader. Compares the bytes allocated on the
+ * rendering thread (so the heap each needs) and the time of each, which must
+ * all produce the same output.
+ *
+ * @author bschorn
+ */
+public class LargeTextBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(LargeTextBench.class);
+
+    static Path log(int megabytes, boolean markup) throws Exception {
+        Path path = Files.createTempFile("large-text", ".log");
+        path.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            long size = 0;
+            for (int i = 0; size < megabytes * 1024L * 1024L; i++) {
+                String line = markup && i % 10 == 0
+                        ? String.format("2026-01-01 12:00:%02d WARN request %d <timeout> & retried – ok%n", i % 60, i)
+                        : String.format("2026-01-01 12:00:%02d INFO request %d served in %d ms – ok%n", i % 60, i, i % 97);
+                writer.write(line);
+                size += line.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return path;
+    }
+
+    static long allocated() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    interface Content {
+
+        void set(HTML.Pre pre) throws Exception;
+    }
+
+    static byte[] serve(String name, Content content, Path out) throws Exception {
+        long allocated = allocated();
+        long start = System.nanoTime();
+        HTML.Body body = HTML.Body.create();
+        HTML.Pre pre = HTML.Pre.create();
+        content.set(pre);
+        body.append(pre);
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            body.renderTo(channel, HTML.RenderMode.COMPACT);
+        }
+        long nanos = System.nanoTime() - start;
+        LGR.info(String.format("%-24s %,7d ms, %,13d bytes allocated", name,
+                nanos / 1_000_000, allocated() - allocated));
+        return Files.readAllBytes(out);
+    }
+
+    static public void main(String[] args) {
+        try {
+            int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+            Path out = Files.createTempFile("large-text", ".html");
+            out.toFile().deleteOnExit();
+            for (boolean markup : new boolean[]{false, true}) {
+                Path log = log(megabytes, markup);
+                long size = Files.size(log);
+                LGR.info(String.format("%,d bytes of log, %s", size, markup ? "escaped" : "as-is"));
+                for (int round = 0; round < 2; round++) {
+                    byte[] string = serve("String", pre -> {
+                        String text = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+                        pre.setTextContent(markup
+                                ? text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                                : text);
+                    }, out);
+                    byte[] file = serve("TextContent.ofFile", pre -> pre.setTextContent(
+                            HTML.TextContent.ofFile(log, 0, size, markup)), out);
+                    byte[] reader = serve("TextContent.ofReader", pre -> pre.setTextContent(
+                            HTML.TextContent.ofReader(() -> {
+                                try {
+                                    return Files.newBufferedReader(log, StandardCharsets.UTF_8);
+                                } catch (Exception ex) {
+                                    throw new IllegalStateException(ex);
+                                }
+                            }, markup)), out);
+                    if (!Arrays.equals(string, file) || !Arrays.equals(string, reader)) {
+                        LGR.error("{} - output differs", LargeTextBench.class.getSimpleName());
+                    }
+                }
+                Files.delete(log);
+            }
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    LargeTextBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
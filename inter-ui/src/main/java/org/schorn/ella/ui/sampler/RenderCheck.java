@@ -0,0 +1,254 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.schorn.ella.ui.html.CSS;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Changes random element trees (texts, attributes, classes, moves and the
+ * CSS blocks of a style element) and renders them, and subtrees of them, in
+ * between so the render cache and the content hashes are filled. After
+ * every change the output and the content hash of the tree have to be those
+ * of a new tree built from it. Exits with 1 if they are not.
+ *
+ * @author bschorn
+ */
+public class RenderCheck {
+
+    static private final Logger LGR = LoggerFactory.getLogger(RenderCheck.class);
+
+    static private final int CASES = 300;
+    static private final int CHANGES = 60;
+
+    private final Random random;
+    private final List<HTML.Element> elements = new ArrayList<>();
+    private final List<CSS.Block> blocks = new ArrayList<>();
+    private HTML.Element root;
+
+    RenderCheck(long seed) {
+        this.random = new Random(seed);
+    }
+
+    static HTML.Element create(String tag) throws Exception {
+        switch (tag) {
+            case "div":
+                return HTML.Div.create();
+            case "span":
+                return HTML.Span.create();
+            case "p":
+                return HTML.P.create();
+            case "ul":
+                return HTML.Ul.create();
+            default:
+                return HTML.Li.create();
+        }
+    }
+
+    void build() throws Exception {
+        this.root = HTML.Div.create();
+        HTML.Style style = HTML.Style.create();
+        for (int i = 0; i < 2; i++) {
+            CSS.Block block = CSS.Block.create();
+            block.append(CSS.Selector.createClass("c" + i));
+            block.append(CSS.Rule.create(CSS.Property.color, "red"));
+            style.append(block);
+            this.blocks.add(block);
+        }
+        HTML.Div div = HTML.Div.create();
+        div.append(style);
+        this.root.append(div);
+        this.elements.add(div);
+        String[] tags = {"div", "span", "p", "ul", "li"};
+        for (int i = 0; i < 30; i++) {
+            HTML.Element element = create(tags[this.random.nextInt(tags.length)]);
+            if (this.random.nextBoolean()) {
+                element.setTextContent("t" + i);
+            }
+            this.elements.get(this.random.nextInt(this.elements.size())).append(element);
+            this.elements.add(element);
+        }
+    }
+
+    /**
+     * A new tree with the same tags, attributes, texts and blocks.
+     */
+    HTML.Element copy(HTML.Element element) throws Exception {
+        HTML.Element copy;
+        if (element instanceof HTML.Style) {
+            HTML.Style style = HTML.Style.create();
+            for (CSS.Block block : this.blocks) {
+                style.append(block);
+            }
+            copy = style;
+        } else {
+            copy = create(element.tag());
+        }
+        for (HTML.Attribute attribute : element.attributes()) {
+            copy.addAttribute(HTML.Attribute.create(attribute.name(), attribute.value()));
+        }
+        if (element.getTextContent() != null) {
+            copy.setTextContent(element.getTextContent());
+        }
+        for (HTML.Element child : element.children()) {
+            copy.append(this.copy(child));
+        }
+        return copy;
+    }
+
+    static boolean contains(HTML.Element element, HTML.Element descendant) {
+        for (HTML.Element e = descendant;; e = e.parent()) {
+            if (e == element) {
+                return true;
+            }
+            if (e.parent() == e) {
+                return false;
+            }
+        }
+    }
+
+    void change() throws Exception {
+        HTML.Element element = this.elements.get(this.random.nextInt(this.elements.size()));
+        switch (this.random.nextInt(6)) {
+            case 0:
+                element.setTextContent("m" + this.random.nextInt(100));
+                break;
+            case 1:
+                element.addAttribute(HTML.Attribute.create("data-a", Integer.toString(this.random.nextInt(5))));
+                break;
+            case 2:
+                element.addClass("k" + this.random.nextInt(5));
+                break;
+            case 3:
+                HTML.Element parent = this.elements.get(this.random.nextInt(this.elements.size()));
+                if (!contains(element, parent)) {
+                    if (this.random.nextBoolean()) {
+                        parent.append(element);
+                    } else {
+                        parent.insert(element);
+                    }
+                }
+                break;
+            case 4:
+                this.blocks.get(this.random.nextInt(this.blocks.size()))
+                        .append(CSS.Rule.create(CSS.Property.values()[this.random.nextInt(20)], "v" + this.random.nextInt(100)));
+                break;
+            default:
+                this.blocks.get(this.random.nextInt(this.blocks.size()))
+                        .append(CSS.Selector.createClass("s" + this.random.nextInt(100)));
+                break;
+        }
+    }
+
+    static String render(HTML.Element element, HTML.RenderMode renderMode) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        element.render(builder, renderMode);
+        return builder.toString();
+    }
+
+    /**
+     * @return where the tree differs from a new one, null if it does not
+     */
+    String check() throws Exception {
+        HTML.Element copy = this.copy(this.root);
+        for (HTML.RenderMode renderMode : HTML.RenderMode.values()) {
+            if (!render(this.root, renderMode).equals(render(copy, renderMode))) {
+                return "render " + renderMode;
+            }
+        }
+        if (this.root.contentHash() != copy.contentHash()) {
+            return "content hash";
+        }
+        return null;
+    }
+
+    /**
+     * A page with a style element in it is rendered (and hashed) twice, so
+     * it is captured, then a rule is appended to a block of the style.
+     */
+    static String styleBlock() throws Exception {
+        HTML.Page page = HTML.Page.create();
+        HTML.Style style = HTML.Style.create();
+        CSS.Block block = CSS.Block.create();
+        block.append(CSS.Selector.createClass("a"));
+        style.append(block);
+        page.append(style);
+        page.render();
+        page.render();
+        long hash = page.contentHash();
+        page.contentHash();
+        block.append(CSS.Rule.create(CSS.Property.color, "blue"));
+        if (!page.render().contains(style.render())) {
+            return "appended rule is missing";
+        }
+        if (page.contentHash() == hash) {
+            return "content hash unchanged";
+        }
+        return null;
+    }
+
+    static public void main(String[] args) {
+        int bad = 0;
+        try {
+            String difference = styleBlock();
+            if (difference != null) {
+                LGR.info(String.format("style block: %s", difference));
+                bad++;
+            }
+            for (int seed = 0; seed < CASES; seed++) {
+                RenderCheck check = new RenderCheck(seed);
+                check.build();
+                for (int i = 0; i < CHANGES; i++) {
+                    HTML.Element element = check.elements.get(check.random.nextInt(check.elements.size()));
+                    render(element, HTML.RenderMode.values()[check.random.nextInt(HTML.RenderMode.values().length)]);
+                    render(check.root, HTML.RenderMode.MINIFIED);
+                    element.contentHash();
+                    check.change();
+                    difference = check.check();
+                    if (difference != null) {
+                        LGR.info(String.format("case %d, change %d: %s", seed, i, difference));
+                        bad++;
+                        break;
+                    }
+                }
+            }
+            LGR.info(String.format("%d cases, %d mismatches", CASES, bad));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    RenderCheck.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+            bad++;
+        }
+        if (bad != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Renders one shared tree (and subtrees of it) from many threads at once, in
+ * all render modes and sometimes on a fork/join pool, and compares every
+ * output to the output of an identical tree rendered on one thread. Exits
+ * with 1 on a mismatch.
+ *
+ * @author bschorn
+ */
+public class RenderStress {
+
+    static private final Logger LGR = LoggerFactory.getLogger(RenderStress.class);
+
+    static private final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    static private final int RENDERS_PER_THREAD = 400;
+
+    /**
+     * Builds the same tree on every call, appending its elements in document
+     * order to 'elements'.
+     */
+    static HTML.Element tree(List<HTML.Element> elements) throws Exception {
+        HTML.Page page = HTML.Page.create();
+        elements.add(page);
+        for (int s = 0; s < 12; s++) {
+            HTML.Div section = HTML.Div.create();
+            section.setId("section" + s);
+            section.addClass("section");
+            page.append(section);
+            elements.add(section);
+            HTML.P p = HTML.P.create();
+            p.setTextContent("Section " + s);
+            section.append(p);
+            elements.add(p);
+            HTML.Ul ul = HTML.Ul.create();
+            section.append(ul);
+            elements.add(ul);
+            for (int r = 0; r < 150; r++) {
+                HTML.Li li = HTML.Li.create();
+                li.setTextContent("item " + r);
+                ul.append(li);
+                elements.add(li);
+                HTML.Span span = HTML.Span.create();
+                span.setTextContent(Integer.toString(r * s));
+                li.append(span);
+                elements.add(span);
+            }
+        }
+        return page;
+    }
+
+    static String render(HTML.Element element, HTML.RenderMode renderMode, ForkJoinPool pool) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        if (pool == null) {
+            element.render(builder, renderMode);
+        } else {
+            element.render(builder, renderMode, pool);
+        }
+        return builder.toString();
+    }
+
+    static public void main(String[] args) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, THREADS / 2));
+        int bad = 0;
+        try {
+            List<HTML.Element> shared = new ArrayList<>();
+            List<HTML.Element> reference = new ArrayList<>();
+            tree(shared);
+            tree(reference);
+            HTML.RenderMode[] renderModes = HTML.RenderMode.values();
+            /*
+            The reference tree is only ever rendered here, on one thread.
+             */
+            List<String[]> expected = new ArrayList<>(reference.size());
+            for (HTML.Element element : reference) {
+                String[] outputs = new String[renderModes.length];
+                for (HTML.RenderMode renderMode : renderModes) {
+                    outputs[renderMode.ordinal()] = render(element, renderMode, null);
+                }
+                expected.add(outputs);
+            }
+            AtomicInteger mismatches = new AtomicInteger();
+            AtomicInteger renders = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < RENDERS_PER_THREAD; i++) {
+                        int index = random.nextInt(4) == 0 ? 0 : random.nextInt(shared.size());
+                        HTML.RenderMode renderMode = renderModes[random.nextInt(renderModes.length)];
+                        String output = render(shared.get(index), renderMode,
+                                random.nextInt(8) == 0 ? pool : null);
+                        if (!output.equals(expected.get(index)[renderMode.ordinal()])) {
+                            mismatches.incrementAndGet();
+                        }
+                        renders.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            LGR.info(String.format("%d threads, %d renders in %d ms, %d mismatches",
+                    THREADS, renders.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    mismatches.get()));
+            bad = mismatches.get();
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    RenderStress.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+            bad++;
+        } finally {
+            executor.shutdown();
+            pool.shutdown();
+        }
+        if (bad != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.Identifier;
+import org.schorn.ella.ui.layout.Pane;
+import org.schorn.ella.ui.util.ToString;
+import org.schorn.ella.ui.widget.InputWidgets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Builds a pane of many widgets with the same options and labels and counts
+ * the elements of its persistent copy against the distinct instances left
+ * in the shared copy. Both copies must render the same as the pane in every
+ * render mode, then the time to copy and render each is compared.
+ *
+ * @author bschorn
+ */
+public class SharedBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(SharedBench.class);
+
+    static private final int WIDGETS = 200;
+    static private final int ROUNDS = 500;
+    static private final String[] OPTIONS = new String[]{
+        "Afghanistan", "Albania", "Algeria", "Andorra", "Angola", "Argentina", "Armenia", "Australia",
+        "Austria", "Azerbaijan", "Bahamas", "Bahrain", "Bangladesh", "Barbados", "Belarus", "Belgium"
+    };
+
+    static HTML.Element build() throws Exception {
+        Pane pane = Pane.create(Identifier.create("pane"), "Pane");
+        for (int i = 0; i < WIDGETS; i++) {
+            if (i % 4 == 0) {
+                pane.accept(InputWidgets.TextBox.create(Identifier.create("text" + i), "Name",
+                        Pattern.compile("^.*$")));
+            } else {
+                pane.accept(InputWidgets.ComboBox.create(Identifier.create("combo" + i), "Country",
+                        OPTIONS));
+            }
+        }
+        HTML.Element element = pane.build().orElseThrow(IllegalStateException::new);
+        pane.throwException();
+        return element;
+    }
+
+    static int count(HTML.Element element, Map<HTML.Element, Boolean> distinct) {
+        distinct.put(element, Boolean.TRUE);
+        int count = 1;
+        for (HTML.Element child : element.children()) {
+            count += count(child, distinct);
+        }
+        return count;
+    }
+
+    static String render(HTML.Element element, HTML.RenderMode renderMode) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        element.render(builder, renderMode);
+        return builder.toString();
+    }
+
+    static public void main(String[] args) {
+        try {
+            HTML.Element element = build();
+            Map<HTML.Element, Boolean> distinct = new IdentityHashMap<>();
+            int elements = count(HTML.Persistent.of(element), distinct);
+            int plain = distinct.size();
+            distinct.clear();
+            count(HTML.Persistent.shared(element), distinct);
+            LGR.info(String.format("%d elements, %d instances in the copy, %d in the shared copy",
+                    elements, plain, distinct.size()));
+            for (HTML.RenderMode renderMode : HTML.RenderMode.values()) {
+                String rendered = render(element, renderMode);
+                LGR.info(String.format("%s renders the same: copy %b, shared copy %b", renderMode,
+                        rendered.equals(render(HTML.Persistent.of(element), renderMode)),
+                        rendered.equals(render(HTML.Persistent.shared(element), renderMode))));
+            }
+
+            long copy = Long.MAX_VALUE;
+            long shared = Long.MAX_VALUE;
+            int length = 0;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    length += render(HTML.Persistent.of(element), HTML.RenderMode.MINIFIED).length();
+                }
+                copy = Math.min(copy, (System.nanoTime() - start) / ROUNDS);
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    length -= render(HTML.Persistent.shared(element), HTML.RenderMode.MINIFIED).length();
+                }
+                shared = Math.min(shared, (System.nanoTime() - start) / ROUNDS);
+            }
+            LGR.info(String.format("copy and render %,d ns, shared copy and render %,d ns (%d)",
+                    copy, shared, length));
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    SharedBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
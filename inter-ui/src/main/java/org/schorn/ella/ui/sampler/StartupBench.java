@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.schorn.ella.ui.EllamentProvider;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.layout.Page;
+import org.schorn.ella.ui.layout.Style;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Times a cold start to the first render, each run in a fresh JVM (the
+ * FirstRender main): the provider lookup, the first element created, its
+ * render and the first page produced with a style sheet, plus the wall time
+ * of the whole process. Reports the median of the runs in milliseconds.
+ *
+ * @author bschorn
+ */
+public class StartupBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(StartupBench.class);
+
+    static private final String[] PHASES = {"provider", "element", "render", "page", "process"};
+
+    /**
+     * One cold start: prints the time of each phase in nanoseconds on a line
+     * of its own, after whatever the logging prints.
+     */
+    static public final class FirstRender {
+
+        static public void main(String[] args) throws Exception {
+            long start = System.nanoTime();
+            EllamentProvider.provider();
+            long provider = System.nanoTime();
+            HTML.Div div = HTML.Div.create();
+            long element = System.nanoTime();
+            div.render();
+            long render = System.nanoTime();
+            Page.create().produce(new Style.Sheet());
+            long page = System.nanoTime();
+            System.out.printf("startup %d %d %d %d%n",
+                    provider - start, element - provider, render - element, page - render);
+        }
+    }
+
+    static long[] run() throws Exception {
+        ProcessBuilder builder = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                FirstRender.class.getName());
+        builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        String line = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String next = reader.readLine(); next != null; next = reader.readLine()) {
+                if (next.startsWith("startup ")) {
+                    line = next;
+                }
+            }
+        }
+        process.waitFor();
+        long wall = System.nanoTime() - start;
+        if (line == null) {
+            throw new Exception(String.format("%s exited with %d before its first render",
+                    FirstRender.class.getName(), process.exitValue()));
+        }
+        String[] fields = line.split(" ");
+        long[] times = new long[PHASES.length];
+        for (int i = 1; i < fields.length; i++) {
+            times[i - 1] = Long.parseLong(fields[i]);
+        }
+        times[PHASES.length - 1] = wall;
+        return times;
+    }
+
+    static public void main(String[] args) {
+        try {
+            int runs = args.length > 0 ? Integer.parseInt(args[0]) : 11;
+            List<long[]> samples = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                samples.add(run());
+            }
+            for (int phase = 0; phase < PHASES.length; phase++) {
+                long[] times = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    times[i] = samples.get(i)[phase];
+                }
+                Arrays.sort(times);
+                LGR.info(String.format("%-10s %8.2f ms (median of %d, min %.2f)", PHASES[phase],
+                        times[runs / 2] / 1e6, runs, times[0] / 1e6));
+            }
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    StartupBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+        }
+    }
+}
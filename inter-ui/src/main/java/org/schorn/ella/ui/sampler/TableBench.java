@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2020 bschorn.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.schorn.ella.ui.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.schorn.ella.ui.html.HTML;
+import org.schorn.ella.ui.util.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Builds tables of up to 100k rows by appending, by inserting (prepending)
+ * and by moving every row to a second table body, timing each per row. With
+ * constant time child list operations the per row times stay flat as the
+ * tables grow. The rows of every table built are checked to be in the order
+ * they were added in (untimed); it exits with 1 if they are not.
+ *
+ * @author bschorn
+ */
+public class TableBench {
+
+    static private final Logger LGR = LoggerFactory.getLogger(TableBench.class);
+
+    static private final int[] ROWS = new int[]{25_000, 50_000, 100_000};
+    static private final int ROUNDS = 5;
+
+    static List<HTML.Tr> rows(int count) throws Exception {
+        List<HTML.Tr> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HTML.Tr tr = HTML.Tr.create();
+            HTML.Td td = HTML.Td.create();
+            td.setTextContent(Integer.toString(i));
+            tr.append(td);
+            rows.add(tr);
+        }
+        return rows;
+    }
+
+    /**
+     * Checks the children of the parent are the rows, in reverse if they were
+     * inserted, through iteration, get(), indexOf() and parent().
+     */
+    static void verify(HTML.Element parent, List<HTML.Tr> rows, boolean reversed) {
+        List<HTML.Element> children = parent.children();
+        if (children.size() != rows.size()) {
+            throw new IllegalStateException(String.format("%d rows, %d children", rows.size(), children.size()));
+        }
+        int i = 0;
+        for (HTML.Element child : children) {
+            HTML.Tr row = rows.get(reversed ? rows.size() - 1 - i : i);
+            if (child != row || children.get(i) != row || row.parent() != parent) {
+                throw new IllegalStateException(String.format("row %d out of place", i));
+            }
+            i++;
+        }
+        for (int at = 0; at < rows.size(); at += 997) {
+            int expected = reversed ? rows.size() - 1 - at : at;
+            if (children.indexOf(rows.get(at)) != expected) {
+                throw new IllegalStateException(String.format("row %d at %d", at, children.indexOf(rows.get(at))));
+            }
+        }
+    }
+
+    static long append(List<HTML.Tr> rows) throws Exception {
+        HTML.Tbody tbody = HTML.Tbody.create();
+        long start = System.nanoTime();
+        for (HTML.Tr row : rows) {
+            tbody.append(row);
+        }
+        long elapsed = System.nanoTime() - start;
+        verify(tbody, rows, false);
+        return elapsed;
+    }
+
+    static long insert(List<HTML.Tr> rows) throws Exception {
+        HTML.Tbody tbody = HTML.Tbody.create();
+        long start = System.nanoTime();
+        for (HTML.Tr row : rows) {
+            tbody.insert(row);
+        }
+        long elapsed = System.nanoTime() - start;
+        verify(tbody, rows, true);
+        return elapsed;
+    }
+
+    static long move(List<HTML.Tr> rows) throws Exception {
+        HTML.Table table = HTML.Table.create();
+        HTML.Tbody from = HTML.Tbody.create();
+        HTML.Tbody to = HTML.Tbody.create();
+        table.append(from);
+        table.append(to);
+        for (HTML.Tr row : rows) {
+            from.append(row);
+        }
+        long start = System.nanoTime();
+        for (HTML.Tr row : rows) {
+            to.insert(row);
+        }
+        long elapsed = System.nanoTime() - start;
+        verify(to, rows, true);
+        if (!from.children().isEmpty()) {
+            throw new IllegalStateException(String.format("%d rows left behind", from.children().size()));
+        }
+        return elapsed;
+    }
+
+    interface Run {
+
+        long run(List<HTML.Tr> rows) throws Exception;
+    }
+
+    static double time(Run run, int count) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, run.run(rows(count)));
+        }
+        return best / (double) count;
+    }
+
+    static public void main(String[] args) {
+        int bad = 0;
+        try {
+            for (int count : ROWS) {
+                LGR.info(String.format("%,d rows: append %.1f ns/row, insert %.1f ns/row, move %.1f ns/row",
+                        count,
+                        time(TableBench::append, count),
+                        time(TableBench::insert, count),
+                        time(TableBench::move, count)));
+            }
+        } catch (Exception ex) {
+            LGR.error("{}.main() - Caught Exception: {}",
+                    TableBench.class.getSimpleName(),
+                    ToString.stackTrace(ex));
+            bad++;
+        }
+        if (bad != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 package org.schorn.ella.ui.sampler;
 
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.regex.Pattern;
@@ -90,7 +91,9 @@ public class WidgetApp {
 
             styleSheet.add(GenericStyle.GRID_WITH_TWO_COLUMNS, Pane.Selector.ENTITY.selector(aspect2));
 
-            Files.write(Paths.get(OUTFILE), page.produce(styleSheet).getBytes());
+            try (OutputStream outputStream = Files.newOutputStream(Paths.get(OUTFILE))) {
+                page.produce(styleSheet, outputStream);
+            }
             page.throwException();
 
         } catch (Exception ex) {
@@ -0,0 +1,61 @@
+/*
+ * Applies the operations produced by HTML.Patch.diff() (see HTML.Patch):
+ *
+ *   ellament.patch(rootElement, patches);
+ *
+ * Each operation is [code, target, args...] where target is
+ * [id or null for the root, childIndex...].
+ */
+var ellament = ellament || {};
+ellament.patch = function (root, patches) {
+    var doc = root.ownerDocument;
+    function find(target) {
+        var el = target[0] === null ? root : doc.getElementById(target[0]);
+        for (var i = 1; i < target.length; i++) {
+            el = el.children[target[i]];
+        }
+        return el;
+    }
+    function parse(html) {
+        var template = doc.createElement('template');
+        template.innerHTML = html;
+        return template.content.firstElementChild;
+    }
+    patches.forEach(function (p) {
+        var el = find(p[1]), node;
+        switch (p[0]) {
+            case 'i':
+                el.insertBefore(parse(p[3]), el.children[p[2]] || null);
+                break;
+            case 'r':
+                el.removeChild(el.children[p[2]]);
+                break;
+            case 'm':
+                node = el.removeChild(el.children[p[2]]);
+                el.insertBefore(node, el.children[p[3]] || null);
+                break;
+            case 'a':
+                el.setAttribute(p[2], p[3]);
+                break;
+            case 'x':
+                el.removeAttribute(p[2]);
+                break;
+            case 't':
+                node = el.firstChild;
+                if (node && node.nodeType === 3) {
+                    node.data = p[2];
+                } else if (p[2]) {
+                    el.insertBefore(doc.createTextNode(p[2]), node);
+                }
+                break;
+            case 'R':
+                node = parse(p[2]);
+                el.parentNode.replaceChild(node, el);
+                if (el === root) {
+                    root = node;
+                }
+                break;
+        }
+    });
+    return root;
+};